@@ -1,14 +1,38 @@
 package mariomonday.backend;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import mariomonday.backend.database.loaders.AggregationBracketGraphLoader;
+import mariomonday.backend.database.loaders.BracketGraphLoader;
+import mariomonday.backend.database.loaders.BracketSummaryLoader;
+import mariomonday.backend.database.migrations.BracketDateIndexMigration;
+import mariomonday.backend.database.migrations.CompactTeamsMigration;
+import mariomonday.backend.database.migrations.EloIndexMigration;
+import mariomonday.backend.database.tables.BracketViewRepository;
+import mariomonday.backend.managers.BracketDeleter;
+import mariomonday.backend.managers.BracketEventBroadcaster;
+import mariomonday.backend.managers.BracketViewManager;
+import mariomonday.backend.managers.EloReplayer;
+import mariomonday.backend.managers.leaderboard.LeaderboardManager;
 import mariomonday.backend.managers.ratingcalculators.AbstractEloManager;
 import mariomonday.backend.managers.ratingcalculators.IndifferentEloManager;
 import mariomonday.backend.managers.seeders.AbstractSeeder;
 import mariomonday.backend.managers.seeders.LocalRandomSeeder;
+import mariomonday.backend.managers.state.BracketStateEngine;
+import mariomonday.backend.managers.state.BracketWriteQueue;
 import mariomonday.backend.managers.tournamentcreators.AbstractBracketCreator;
 import mariomonday.backend.managers.tournamentcreators.MaxSetsStrategyCreator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -35,4 +59,166 @@ public class AppConfig {
   public AbstractEloManager eloManager() {
     return new IndifferentEloManager();
   }
+
+  /**
+   * Loader used to read full brackets. Both loaders produce identical brackets,
+   * the property exists so the two can be compared under load.
+   */
+  @Bean
+  public BracketGraphLoader bracketGraphLoader(
+    MongoTemplate mongoTemplate,
+    @Value("${bracketloader.aggregation:false}") boolean useAggregation
+  ) {
+    return useAggregation ? new AggregationBracketGraphLoader(mongoTemplate) : new BracketGraphLoader(mongoTemplate);
+  }
+
+  @Bean
+  public BracketSummaryLoader bracketSummaryLoader(MongoTemplate mongoTemplate) {
+    return new BracketSummaryLoader(mongoTemplate);
+  }
+
+  /**
+   * Queue bracket writes go through. With write-behind, writes are journaled and applied in the background,
+   * and anything left in the journal by the last run is applied before the queue is used.
+   */
+  @Bean
+  public BracketWriteQueue bracketWriteQueue(
+    MongoTemplate mongoTemplate,
+    @Value("${bracketstate.write-behind:false}") boolean writeBehind
+  ) {
+    if (!writeBehind) {
+      return new BracketWriteQueue(mongoTemplate, null);
+    }
+    // Each bracket's writes are applied in order on one of these threads at a time, and only while it has writes
+    var threadFactory = new ThreadFactoryBuilder().setNameFormat("bracket-writes-%d").setDaemon(true).build();
+    var writeQueue = new BracketWriteQueue(mongoTemplate, Executors.newCachedThreadPool(threadFactory));
+    writeQueue.replayPending();
+    return writeQueue;
+  }
+
+  @Bean
+  public BracketStateEngine bracketStateEngine(
+    BracketGraphLoader bracketGraphLoader,
+    BracketWriteQueue writeQueue,
+    Environment environment
+  ) {
+    if (Threading.VIRTUAL.isActive(environment)) {
+      // Mailboxes mostly wait on Mongo, so on virtual threads they do not need a platform thread each
+      return new BracketStateEngine(bracketGraphLoader, writeQueue, new VirtualThreadTaskExecutor("bracket-mailbox-"));
+    }
+    // Each bracket's mailbox only uses one of these threads at a time, and only while it has work
+    var threadFactory = new ThreadFactoryBuilder().setNameFormat("bracket-mailbox-%d").setDaemon(true).build();
+    return new BracketStateEngine(bracketGraphLoader, writeQueue, Executors.newCachedThreadPool(threadFactory));
+  }
+
+  @Bean
+  public BracketViewManager bracketViewManager(
+    BracketStateEngine bracketStateEngine,
+    BracketViewRepository bracketViewRepo,
+    MongoTemplate mongoTemplate,
+    ObjectMapper objectMapper,
+    BracketEventBroadcaster bracketEventBroadcaster,
+    @Value("${bracketview.max-cached-brackets:500}") long maxCachedBrackets
+  ) {
+    return new BracketViewManager(
+      bracketStateEngine,
+      bracketViewRepo,
+      mongoTemplate,
+      objectMapper,
+      bracketEventBroadcaster,
+      maxCachedBrackets
+    );
+  }
+
+  @Bean
+  public LeaderboardManager leaderboardManager(MongoTemplate mongoTemplate) {
+    return new LeaderboardManager(mongoTemplate);
+  }
+
+  @Bean
+  public EloReplayer eloReplayer(
+    MongoTemplate mongoTemplate,
+    Clock clock,
+    AbstractEloManager eloManager,
+    LeaderboardManager leaderboardManager,
+    BracketViewManager bracketViewManager
+  ) {
+    // Each game type is replayed on one of these threads, which forks the game sets of each round onto the rest
+    var forkJoinPool = new ForkJoinPool(
+      Runtime.getRuntime().availableProcessors(),
+      pool -> {
+        var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("elo-replay-" + thread.getPoolIndex());
+        return thread;
+      },
+      null,
+      false
+    );
+    return new EloReplayer(mongoTemplate, clock, eloManager, leaderboardManager, bracketViewManager, forkJoinPool);
+  }
+
+  @Bean
+  public BracketEventBroadcaster bracketEventBroadcaster(ObjectMapper objectMapper) {
+    // Each subscriber's events are sent in order on one of these threads at a time, and only while it has events
+    var threadFactory = new ThreadFactoryBuilder().setNameFormat("bracket-events-%d").setDaemon(true).build();
+    var keepAliveThreadFactory = new ThreadFactoryBuilder()
+      .setNameFormat("bracket-events-keep-alive-%d")
+      .setDaemon(true)
+      .build();
+    return new BracketEventBroadcaster(
+      objectMapper,
+      Executors.newCachedThreadPool(threadFactory),
+      Executors.newSingleThreadScheduledExecutor(keepAliveThreadFactory)
+    );
+  }
+
+  @Bean
+  public BracketDeleter bracketDeleter(
+    MongoTemplate mongoTemplate,
+    @Value("${bracketdeleter.purge-batch-size:100}") int purgeBatchSize
+  ) {
+    // A single thread keeps purges from competing with API requests for connections
+    var threadFactory = new ThreadFactoryBuilder().setNameFormat("bracket-purge-%d").setDaemon(true).build();
+    return new BracketDeleter(mongoTemplate, Executors.newSingleThreadExecutor(threadFactory), purgeBatchSize);
+  }
+
+  @Bean
+  public CompactTeamsMigration compactTeamsMigration(MongoTemplate mongoTemplate) {
+    return new CompactTeamsMigration(mongoTemplate);
+  }
+
+  @Bean
+  public EloIndexMigration eloIndexMigration(MongoTemplate mongoTemplate) {
+    return new EloIndexMigration(mongoTemplate);
+  }
+
+  @Bean
+  public BracketDateIndexMigration bracketDateIndexMigration(MongoTemplate mongoTemplate) {
+    return new BracketDateIndexMigration(mongoTemplate);
+  }
+
+  /**
+   * Size the Mongo connection pool when running on virtual threads. There is then no request thread pool
+   * limiting how many requests run at once, so {@link #requestLimitFilter} keeps them to the pool size.
+   */
+  @Bean
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public MongoClientSettingsBuilderCustomizer mongoConnectionPoolCustomizer(
+    @Value("${mongo.pool.max-size:100}") int maxSize
+  ) {
+    return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(maxSize));
+  }
+
+  /**
+   * Queue requests on virtual threads once as many are running as there are Mongo connections,
+   * rather than letting them time out waiting for a connection
+   */
+  @Bean
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public RequestLimitFilter requestLimitFilter(
+    @Value("${mongo.pool.max-size:100}") int maxSize,
+    @Value("${requestlimit.max-wait-ms:60000}") long maxWaitMillis
+  ) {
+    return new RequestLimitFilter(maxSize, maxWaitMillis);
+  }
 }
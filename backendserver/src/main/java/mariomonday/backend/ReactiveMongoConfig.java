@@ -0,0 +1,18 @@
+package mariomonday.backend;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Sets up the reactive Mongo client, only when the reactive API is enabled with the "reactiveapi.enabled" property.
+ * The auto-configuration for it is excluded in {@link Main}, so otherwise no second client and connection pool
+ * is made next to the blocking one. Imported directly, since the exclusion also applies to importing it as
+ * auto-configuration.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactiveapi.enabled", havingValue = "true")
+@Import({ MongoReactiveAutoConfiguration.class, MongoReactiveDataAutoConfiguration.class })
+public class ReactiveMongoConfig {}
@@ -0,0 +1,91 @@
+package mariomonday.backend;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits how many requests are handled at once, so requests queue up here rather than inside the Mongo driver.
+ * Needed on virtual threads, where there is no request thread pool doing it. The limit matches the Mongo
+ * connection pool, so a request that gets through can always get a connection without timing out.
+ * Requests that wait too long are turned away with a 503, telling clients to back off.
+ */
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+  private final Semaphore permits;
+
+  private final long maxWaitMillis;
+
+  /**
+   * @param maxConcurrentRequests The most requests handled at once
+   * @param maxWaitMillis How long a request waits for its turn before it is turned away
+   */
+  public RequestLimitFilter(int maxConcurrentRequests, long maxWaitMillis) {
+    this.permits = new Semaphore(maxConcurrentRequests, true);
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    try {
+      if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many requests at once, try again later");
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+    var released = false;
+    try {
+      filterChain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        // Streamed responses keep reading from Mongo after the filter returns, so keep the permit until done
+        request.getAsyncContext().addListener(new ReleaseOnComplete());
+        released = true;
+      }
+    } finally {
+      if (!released) {
+        permits.release();
+      }
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    // The permit is already held from the original dispatch
+    return true;
+  }
+
+  /**
+   * Releases the permit of an asynchronous request once it completes, however it completes
+   */
+  private class ReleaseOnComplete implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      permits.release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {}
+
+    @Override
+    public void onError(AsyncEvent event) {}
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Started again, so onComplete is only called once the new async cycle completes
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
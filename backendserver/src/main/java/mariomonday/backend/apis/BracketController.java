@@ -1,6 +1,8 @@
 package mariomonday.backend.apis;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -11,38 +13,62 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 import mariomonday.backend.apis.schema.AddPlayerSetToBracketRequest;
 import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.ApiBracketPage;
+import mariomonday.backend.apis.schema.ApiGameSet;
+import mariomonday.backend.apis.schema.BracketEvent;
+import mariomonday.backend.apis.schema.BracketEventType;
 import mariomonday.backend.apis.schema.CompleteGameSetRequest;
 import mariomonday.backend.apis.schema.CreateBracketRequest;
 import mariomonday.backend.apis.schema.SwapTeamsRequest;
+import mariomonday.backend.database.loaders.BracketGraphLoader;
+import mariomonday.backend.database.loaders.BracketSummaryLoader;
 import mariomonday.backend.database.schema.Bracket;
 import mariomonday.backend.database.schema.Game;
 import mariomonday.backend.database.schema.GameSet;
 import mariomonday.backend.database.schema.GameType;
 import mariomonday.backend.database.schema.Player;
 import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.database.schema.RatingChange;
 import mariomonday.backend.database.tables.BracketRepository;
 import mariomonday.backend.database.tables.GameRepository;
 import mariomonday.backend.database.tables.GameSetRepository;
 import mariomonday.backend.database.tables.PlayerRepository;
 import mariomonday.backend.error.exceptions.InvalidRequestException;
 import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.managers.BracketDeleter;
+import mariomonday.backend.managers.BracketEventBroadcaster;
+import mariomonday.backend.managers.BracketViewManager;
+import mariomonday.backend.managers.BracketViewManager.SerializedBracket;
+import mariomonday.backend.managers.EloReplayer;
+import mariomonday.backend.managers.leaderboard.LeaderboardManager;
 import mariomonday.backend.managers.ratingcalculators.AbstractEloManager;
 import mariomonday.backend.managers.seeders.AbstractSeeder;
+import mariomonday.backend.managers.state.BracketStateEngine;
+import mariomonday.backend.managers.state.LiveBracket;
 import mariomonday.backend.managers.tournamentcreators.AbstractBracketCreator;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Sort.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * API endpoint for everything related to brackets
@@ -51,6 +77,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(value = "/api")
 public class BracketController {
 
+  /**
+   * The most brackets a single page of bracket history can hold
+   */
+  static final int MAX_PAGE_SIZE = 100;
+
   /**
    * Bracket creator used to create a bracket from a seeded list of players
    */
@@ -101,31 +132,115 @@ public class BracketController {
   MongoTemplate mongoTemplate;
 
   /**
-   * Get the given bracket
+   * Loads brackets with all of their game sets, games and players resolved
+   */
+  @Autowired
+  BracketGraphLoader bracketGraphLoader;
+
+  /**
+   * Keeps the ready to serve view of each bracket up to date
+   */
+  @Autowired
+  BracketViewManager bracketViewManager;
+
+  /**
+   * Deletes brackets along with their game sets and games
+   */
+  @Autowired
+  BracketDeleter bracketDeleter;
+
+  /**
+   * Loads pages of brackets without their game sets
+   */
+  @Autowired
+  BracketSummaryLoader bracketSummaryLoader;
+
+  /**
+   * Keeps the leaderboard of every game type in memory
+   */
+  @Autowired
+  LeaderboardManager leaderboardManager;
+
+  /**
+   * Undoes the ELO changes of deleted brackets
+   */
+  @Autowired
+  EloReplayer eloReplayer;
+
+  /**
+   * Holds in-progress brackets in memory, all updates to brackets go through it
+   */
+  @Autowired
+  BracketStateEngine bracketStateEngine;
+
+  /**
+   * Pushes changes to brackets to everyone watching them
+   */
+  @Autowired
+  BracketEventBroadcaster bracketEventBroadcaster;
+
+  /**
+   * Get a page of brackets, newest first, without their game sets
+   * @param gameType Only include brackets of this game type. Optional
+   * @param before The "next" cursor of the previous page, leave out for the first page
+   * @param limit The maximum number of brackets on the page
+   */
+  @GetMapping("/bracket")
+  ApiBracketPage getBrackets(
+    @RequestParam(required = false) GameType gameType,
+    @RequestParam(required = false) String before,
+    @RequestParam(defaultValue = "20") int limit
+  ) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    return bracketSummaryLoader.findPage(gameType, before, limit);
+  }
+
+  /**
+   * Get the given bracket.
+   * Responses carry an ETag, if the client already has the current version a 304 is returned instead.
    * @param bracketId The ID of the bracket to get
+   * @param ifNoneMatch ETags of the versions of this bracket the client already has
    */
   @GetMapping("/bracket/{bracketId}")
-  ApiBracket getBracket(@PathVariable String bracketId) {
-    return ApiBracket.fromBracket(
-      bracketRepo
-        .findById(bracketId)
-        .orElseThrow(() -> new NotFoundException("Bracket not found with id: " + bracketId))
-    );
+  ResponseEntity<byte[]> getBracket(
+    @PathVariable String bracketId,
+    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+  ) {
+    return toResponse(bracketViewManager.get(bracketId), ifNoneMatch);
   }
 
   /**
-   * Get the most recent bracket
+   * Get the most recent bracket.
+   * Responses carry an ETag, if the client already has the current version a 304 is returned instead.
+   * @param gameType Only consider brackets of this game type. Optional
+   * @param ifNoneMatch ETags of the versions of the bracket the client already has
    */
   @GetMapping("/getCurrentBracket")
-  ApiBracket getCurrentBracket() {
-    var query = new Query();
-    var results = mongoTemplate.find(query.with(Sort.by(Order.desc("date"))), Bracket.class);
-    return ApiBracket.fromBracket(
-      results
-        .stream()
-        .findFirst()
-        .orElseThrow(() -> new NotFoundException("No brackets exist!"))
-    );
+  ResponseEntity<byte[]> getCurrentBracket(
+    @RequestParam(required = false) GameType gameType,
+    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+  ) {
+    var currentBracket = bracketViewManager
+      .getCurrent(gameType)
+      .orElseThrow(() ->
+        new NotFoundException(gameType == null ? "No brackets exist!" : "No " + gameType + " brackets exist!")
+      );
+    return toResponse(currentBracket, ifNoneMatch);
+  }
+
+  /**
+   * Watch a bracket for changes. Each change is sent as a server-sent event named after its
+   * {@link BracketEventType}, containing a {@link BracketEvent} with only the parts of the bracket that changed.
+   * @param bracketId The ID of the bracket to watch
+   */
+  @GetMapping(value = "/bracket/{bracketId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  SseEmitter getBracketEvents(@PathVariable String bracketId) {
+    if (!bracketRepo.existsById(bracketId)) {
+      throw new NotFoundException("Bracket not found with id: " + bracketId);
+    }
+    return bracketEventBroadcaster.subscribe(bracketId);
   }
 
   /**
@@ -135,68 +250,32 @@ public class BracketController {
    */
   @PostMapping("/bracket")
   public ApiBracket postBracket(@RequestBody CreateBracketRequest request) {
+    request.validate();
     GameType gameType = request.getGameType();
-    Map<String, List<String>> teams = request.getTeams();
-    if (gameType == null) {
-      throw new InvalidRequestException("Game Type must have a value");
-    }
-    if (teams == null) {
-      throw new InvalidRequestException("Teams must have a value");
-    }
-    if (teams.size() < 2) {
-      throw new InvalidRequestException("Cannot run a tournament with less than two participants!");
+    Set<String> playerIds = request
+      .getTeams()
+      .values()
+      .stream()
+      .flatMap(List::stream)
+      .collect(Collectors.toSet());
+    Map<String, Player> playersById = new HashMap<>();
+    playerRepo.findAllById(playerIds).forEach(player -> playersById.put(player.getId(), player));
+    if (playersById.size() < playerIds.size()) {
+      throw new InvalidRequestException(CreateBracketRequest.missingPlayersMessage(playerIds, playersById.keySet()));
     }
     Set<PlayerSet> unseededTeams = new HashSet<>();
-    Set<String> playerIdsInTourney = new HashSet<>();
-    for (Entry<String, List<String>> team : teams.entrySet()) {
-      String teamName = team.getKey();
-      List<String> playerIds = team.getValue();
-      if (teamName == null) {
-        throw new InvalidRequestException("Cannot have a null team name!");
-      }
-      if (playerIds == null) {
-        throw new InvalidRequestException("Cannot have a null team!");
-      }
-      if (playerIds.isEmpty()) {
-        throw new InvalidRequestException("Cannot have an empty team!");
-      }
-      if (playerIds.size() != gameType.getPlayersOnATeam()) {
-        throw new InvalidRequestException(
-          "For game type " + gameType + " teams should be of size " + gameType.getPlayersOnATeam()
-        );
-      }
-      if (playerIds.stream().anyMatch(Objects::isNull)) {
-        throw new InvalidRequestException("Cannot have a null player ID!");
-      }
-      for (String playerId : playerIds) {
-        if (playerIdsInTourney.contains(playerId)) {
-          throw new InvalidRequestException("Cannot have repeat players in tournament!");
-        }
-        playerIdsInTourney.add(playerId);
-      }
-      List<Player> players = playerIds
-        .stream()
-        .map(playerId ->
-          playerRepo.findById(playerId).orElseThrow(() -> new InvalidRequestException("Some players cannot be found"))
-        )
-        .toList();
-      unseededTeams.add(PlayerSet.builder().name(teamName).players(players).id(UUID.randomUUID().toString()).build());
+    for (Entry<String, List<String>> team : request.getTeams().entrySet()) {
+      List<Player> players = team.getValue().stream().map(playersById::get).toList();
+      unseededTeams.add(PlayerSet.builder().name(team.getKey()).players(players).id(UUID.randomUUID().toString()).build());
     }
 
     Bracket bracket = bracketCreator.fromPlayerSets(gameType, seeder.seed(unseededTeams, gameType));
 
-    // Save bracket and game sets in DB. Make sure to returned saved objects,
-    // since they will have IDs
-    bracket.setGameSets(
-      bracket
-        .getGameSets()
-        .stream()
-        .map(gameSet -> gameSetRepo.save(gameSet))
-        .collect(Collectors.toSet())
-    );
+    // Save bracket and game sets in DB, inserting all the game sets at once
+    bracket.setGameSets(new HashSet<>(gameSetRepo.insert(bracket.getGameSets())));
     bracket = bracketRepo.save(bracket);
     // MongoDB does some time truncation and such so we want to get it in that state
-    return ApiBracket.fromBracket(bracketRepo.findById(bracket.getId()).get());
+    return bracketViewManager.refresh(bracket.getId());
   }
 
   /**
@@ -212,99 +291,113 @@ public class BracketController {
     @PathVariable String gameSetId,
     @RequestBody CompleteGameSetRequest request
   ) {
-    var bracket = bracketRepo.findById(bracketId).orElseThrow(() -> new NotFoundException("Bracket not found"));
-    if (!bracket.getWinners().isEmpty()) {
-      throw new InvalidRequestException("May not update a completed bracket!");
-    }
-    var gameSet = gameSetRepo.findById(gameSetId).orElseThrow(() -> new NotFoundException("Game Set not found"));
-    var previouslyCompleted = !gameSet.getWinners().isEmpty();
-    if (previouslyCompleted) {
-      var nextGameSetHasWinners = bracket
-        .getGameSets()
-        .stream()
-        .filter(gs ->
-          gs
-            .getPreviousGameSets()
-            .stream()
-            .anyMatch(pgs -> pgs.getId().equals(gameSet.getId()))
-        )
-        .anyMatch(gs -> !gs.getWinners().isEmpty());
-      if (nextGameSetHasWinners) {
+    bracketStateEngine.update(bracketId, (liveBracket, write) -> {
+      var bracket = liveBracket.getBracket();
+      if (!bracket.getWinners().isEmpty()) {
+        throw new InvalidRequestException("May not update a completed bracket!");
+      }
+      var gameSet = findGameSet(liveBracket, gameSetId);
+      var previouslyCompleted = !gameSet.getWinners().isEmpty();
+      if (previouslyCompleted) {
+        var nextGameSetHasWinners = liveBracket
+          .findNextGameSet(gameSet)
+          .map(nextGameSet -> !nextGameSet.getWinners().isEmpty())
+          .orElse(false);
+        if (nextGameSetHasWinners) {
+          throw new InvalidRequestException(
+            "The result previously uploaded for the given game set " +
+              "has already been used in a future game set. It can no longer be changed"
+          );
+        }
+      }
+      if (request.getWinners() == null) {
+        throw new InvalidRequestException("Winners list may not be null");
+      }
+      if (request.getWinners().isEmpty()) {
+        throw new InvalidRequestException("Game set must have winners to be completed!");
+      }
+      if (
+        gameSet
+          .getPreviousGameSets()
+          .stream()
+          .anyMatch(gs -> gs.getWinners().isEmpty())
+      ) {
+        throw new InvalidRequestException("Previous games must have been completed first!");
+      }
+      var teamsToMoveOn = bracket.getGameType().getPlayerSetsToMoveOn();
+      if (request.getWinners().size() > teamsToMoveOn) {
         throw new InvalidRequestException(
-          "The result previously uploaded for the given game set " +
-            "has already been used in a future game set. It can no longer be changed"
+          "Only " + teamsToMoveOn + " teams may win for game type " + bracket.getGameType()
         );
       }
-    }
-    if (!bracket.getGameSets().stream().map(GameSet::getId).collect(Collectors.toSet()).contains(gameSetId)) {
-      throw new InvalidRequestException("The given game set is not associated with the given bracket");
-    }
-    if (request.getWinners() == null) {
-      throw new InvalidRequestException("Winners list may not be null");
-    }
-    if (request.getWinners().isEmpty()) {
-      throw new InvalidRequestException("Game set must have winners to be completed!");
-    }
-    if (
-      gameSet
-        .getPreviousGameSets()
-        .stream()
-        .anyMatch(gs -> gs.getWinners().isEmpty())
-    ) {
-      throw new InvalidRequestException("Previous games must have been completed first!");
-    }
-    var teamsToMoveOn = bracket.getGameType().getPlayerSetsToMoveOn();
-    if (request.getWinners().size() > teamsToMoveOn) {
-      throw new InvalidRequestException(
-        "Only " + teamsToMoveOn + " teams may win for game type " + bracket.getGameType()
-      );
-    }
-    if (request.getGames() == null) {
-      throw new InvalidRequestException("Games list may not be null");
-    }
-    if (request.isForfeit() || gameSet.isByeRound()) {
-      if (!request.getGames().isEmpty()) {
-        throw new InvalidRequestException("If set is forfeit or a bye round, games must be empty.");
+      if (request.getGames() == null) {
+        throw new InvalidRequestException("Games list may not be null");
       }
-    } else if (request.getGames().isEmpty()) {
-      throw new InvalidRequestException("If set is not forfeit or a bye round, games must be submitted.");
-    }
-    var players = gameSet.getPlayers();
-    var teamIdToPlayerSet = players.stream().collect(Collectors.toMap(PlayerSet::getId, playerSet -> playerSet));
-    var winners = new HashSet<PlayerSet>();
-    for (var teamId : request.getWinners()) {
-      if (teamId == null) {
-        throw new InvalidRequestException("Winner ID may not be null");
+      if (request.isForfeit() || gameSet.isByeRound()) {
+        if (!request.getGames().isEmpty()) {
+          throw new InvalidRequestException("If set is forfeit or a bye round, games must be empty.");
+        }
+      } else if (request.getGames().isEmpty()) {
+        throw new InvalidRequestException("If set is not forfeit or a bye round, games must be submitted.");
       }
-      var winningTeam = teamIdToPlayerSet.get(teamId);
-      if (winningTeam == null) {
-        throw new InvalidRequestException("Team ID " + teamId + " not associated with given game set");
+      var players = gameSet.getPlayers();
+      var teamIdToPlayerSet = players.stream().collect(Collectors.toMap(PlayerSet::getId, playerSet -> playerSet));
+      var winners = new HashSet<PlayerSet>();
+      for (var teamId : request.getWinners()) {
+        if (teamId == null) {
+          throw new InvalidRequestException("Winner ID may not be null");
+        }
+        var winningTeam = teamIdToPlayerSet.get(teamId);
+        if (winningTeam == null) {
+          throw new InvalidRequestException("Team ID " + teamId + " not associated with given game set");
+        }
+        winners.add(winningTeam);
       }
-      winners.add(winningTeam);
-    }
-    gameSet.setWinners(winners);
-    var losers = new HashSet<>(players);
-    losers.removeAll(winners);
-    gameSet.setLosers(losers);
-
-    var games = new ArrayList<Game>();
-    for (var game : request.getGames()) {
-      if (game == null) {
-        throw new InvalidRequestException("Game may not be null");
+      var losers = new HashSet<>(players);
+      losers.removeAll(winners);
+
+      var games = new ArrayList<Game>();
+      for (var game : request.getGames()) {
+        if (game == null) {
+          throw new InvalidRequestException("Game may not be null");
+        }
+        var orderedTeams = game.stream().map(teamIdToPlayerSet::get).toList();
+        if (orderedTeams.stream().anyMatch(team -> team == null)) {
+          throw new InvalidRequestException("Game references invalid team.");
+        }
+        games.add(
+          Game.builder()
+            .id(new ObjectId().toHexString())
+            .gameType(bracket.getGameType())
+            .playerSets(orderedTeams)
+            .build()
+        );
       }
-      var orderedTeams = game.stream().map(teamIdToPlayerSet::get).toList();
-      if (orderedTeams.stream().anyMatch(team -> team == null)) {
-        throw new InvalidRequestException("Game references invalid team.");
+      if (previouslyCompleted) {
+        // This set was previously completed with different games, remove them.
+        write.deleteAll(gameSet.getGames());
       }
-      games.add(Game.builder().gameType(bracket.getGameType()).playerSets(orderedTeams).build());
-    }
-    if (previouslyCompleted) {
-      // This set was previously completed with different games, remove them.
-      gameRepo.deleteAll(gameSet.getGames());
-    }
-    gameSet.setGames(new HashSet<>(gameRepo.saveAll(games)));
-    gameSetRepo.save(gameSet);
-    return ApiBracket.fromBracket(bracketRepo.findById(bracket.getId()).get());
+      gameSet.setWinners(winners);
+      gameSet.setLosers(losers);
+      gameSet.setGames(new HashSet<>(games));
+      write
+        .saveAll(games)
+        .update(gameSet, new Update().set("winners", winners).set("losers", losers).set("games", gameSet.getGames()));
+      return gameSet;
+    });
+    return bracketViewManager.refresh(bracketId, apiBracket -> {
+      // The winners also move on to the next game set
+      var changedGameSetIds = apiBracket
+        .getGameSets()
+        .stream()
+        .flatMap(List::stream)
+        .filter(gs -> gs.getId().equals(gameSetId) || gs.getPreviousGameSets().contains(gameSetId))
+        .map(ApiGameSet::getId)
+        .collect(Collectors.toSet());
+      return eventFor(BracketEventType.GAME_SET_COMPLETED, bracketId).gameSets(
+        findGameSets(apiBracket, changedGameSetIds)
+      );
+    });
   }
 
   /**
@@ -314,66 +407,66 @@ public class BracketController {
    */
   @PostMapping("/bracket/{bracketId}/addPlayer")
   public ApiBracket addPlayer(@PathVariable String bracketId, @RequestBody AddPlayerSetToBracketRequest request) {
-    var gameSet = gameSetRepo
-      .findById(request.getGameSetId())
-      .orElseThrow(() -> new NotFoundException("Game Set not found"));
-    var bracket = bracketRepo.findById(bracketId).orElseThrow(() -> new NotFoundException("Bracket not found"));
-    if (
-      !bracket.getGameSets().stream().map(GameSet::getId).collect(Collectors.toSet()).contains(request.getGameSetId())
-    ) {
-      throw new InvalidRequestException("The given game set is not associated with the given bracket");
-    }
-    if (gameSet.getTotalPlayers() == bracket.getGameType().getMaxPlayerSets()) {
-      throw new InvalidRequestException("Requested game is full!");
-    }
-    if (!gameSet.getWinners().isEmpty()) {
-      throw new InvalidRequestException("Cannot add player to completed game set!");
-    }
-    if (request.getPlayerIds() == null) {
-      throw new InvalidRequestException("Players may not be null!");
-    }
-    var remainingPlayerIds = bracket.getRemainingPlayers().stream().map(Player::getId).collect(Collectors.toSet());
-    List<Player> players = new ArrayList<>();
-    for (var playerId : request.getPlayerIds()) {
-      if (remainingPlayerIds.contains(playerId)) {
-        throw new InvalidRequestException("Player ID " + playerId + " is still alive and kicking!");
+    var playerSet = bracketStateEngine.update(bracketId, (liveBracket, write) -> {
+      var bracket = liveBracket.getBracket();
+      var gameSet = findGameSet(liveBracket, request.getGameSetId());
+      if (gameSet.getTotalPlayers() == bracket.getGameType().getMaxPlayerSets()) {
+        throw new InvalidRequestException("Requested game is full!");
+      }
+      if (!gameSet.getWinners().isEmpty()) {
+        throw new InvalidRequestException("Cannot add player to completed game set!");
+      }
+      if (request.getPlayerIds() == null) {
+        throw new InvalidRequestException("Players may not be null!");
+      }
+      var remainingPlayerIds = bracket.getRemainingPlayers().stream().map(Player::getId).collect(Collectors.toSet());
+      List<Player> players = new ArrayList<>();
+      for (var playerId : request.getPlayerIds()) {
+        if (remainingPlayerIds.contains(playerId)) {
+          throw new InvalidRequestException("Player ID " + playerId + " is still alive and kicking!");
+        }
+        players.add(
+          playerRepo.findById(playerId).orElseThrow(() -> new NotFoundException("Player ID " + playerId + " not found"))
+        );
       }
-      players.add(
-        playerRepo.findById(playerId).orElseThrow(() -> new NotFoundException("Player ID " + playerId + " not found"))
-      );
-    }
 
-    var playerSetOpt = bracket
-      .getTeams()
-      .stream()
-      .filter(team ->
-        team.getPlayers().stream().map(Player::getId).collect(Collectors.toSet()).containsAll(request.getPlayerIds())
-      )
-      .findFirst();
-    PlayerSet playerSet;
-    if (playerSetOpt.isEmpty()) {
-      // In single player, player not in the tourney yet.
-      // In doubles or more, this player combo is not in the tourney yet.
-      if (players.size() > 1 && request.getTeamName() == null) {
-        throw new InvalidRequestException("Must provide a team name!");
+      var playerSetOpt = bracket
+        .getTeams()
+        .stream()
+        .filter(team ->
+          team.getPlayers().stream().map(Player::getId).collect(Collectors.toSet()).containsAll(request.getPlayerIds())
+        )
+        .findFirst();
+      PlayerSet addedPlayerSet;
+      if (playerSetOpt.isEmpty()) {
+        // In single player, player not in the tourney yet.
+        // In doubles or more, this player combo is not in the tourney yet.
+        if (players.size() > 1 && request.getTeamName() == null) {
+          throw new InvalidRequestException("Must provide a team name!");
+        }
+        addedPlayerSet = PlayerSet.builder()
+          .name(players.size() == 1 ? players.get(0).getName() : request.getTeamName())
+          .id(UUID.randomUUID().toString())
+          .players(players)
+          .build();
+        var currTeams = bracket.getTeams();
+        currTeams.add(addedPlayerSet);
+        bracket.setTeams(currTeams);
+        write.update(bracket, new Update().push("teams", addedPlayerSet));
+      } else {
+        addedPlayerSet = playerSetOpt.get();
       }
-      playerSet = PlayerSet.builder()
-        .name(players.size() == 1 ? players.get(0).getName() : request.getTeamName())
-        .id(UUID.randomUUID().toString())
-        .players(players)
-        .build();
-      var currTeams = bracket.getTeams();
-      currTeams.add(playerSet);
-      bracket.setTeams(currTeams);
-      bracketRepo.save(bracket);
-    } else {
-      playerSet = playerSetOpt.get();
-    }
-    var addedPlayerSets = gameSet.getAddedPlayerSets();
-    addedPlayerSets.add(playerSet);
-    gameSet.setAddedPlayerSets(addedPlayerSets);
-    gameSetRepo.save(gameSet);
-    return ApiBracket.fromBracket(bracketRepo.findById(bracketId).get());
+      var addedPlayerSets = gameSet.getAddedPlayerSets();
+      addedPlayerSets.add(addedPlayerSet);
+      gameSet.setAddedPlayerSets(addedPlayerSets);
+      write.update(gameSet, new Update().push("addedPlayerSets", addedPlayerSet));
+      return addedPlayerSet;
+    });
+    return bracketViewManager.refresh(bracketId, apiBracket ->
+      eventFor(BracketEventType.PLAYER_ADDED, bracketId)
+        .gameSets(findGameSets(apiBracket, Set.of(request.getGameSetId())))
+        .team(playerSet)
+    );
   }
 
   /**
@@ -382,22 +475,206 @@ public class BracketController {
    */
   @PostMapping("/bracket/{bracketId}/complete")
   public void completeBracket(@PathVariable String bracketId) {
-    var bracket = bracketRepo.findById(bracketId).orElseThrow(() -> new NotFoundException("Bracket not found"));
-    if (bracket.getFinalGameSet().getWinners().isEmpty()) {
-      throw new InvalidRequestException("Cannot complete bracket until final game set is completed!");
-    }
-    if (!bracket.getWinners().isEmpty()) {
-      throw new InvalidRequestException("Bracket is already completed!");
-    }
-    if (bracket.getFinalGameSet().getWinners().size() != 1) {
-      throw new InvalidRequestException("Multiple teams cannot win a bracket!");
+    // Completion is rare and touches every player, so it works on the database directly,
+    // still in order with the other updates to the bracket
+    var playerIds = bracketStateEngine.updateInDatabase(bracketId, () -> {
+      var bracket = bracketGraphLoader
+        .findById(bracketId)
+        .orElseThrow(() -> new NotFoundException("Bracket not found"));
+      if (bracket.getFinalGameSet().getWinners().isEmpty()) {
+        throw new InvalidRequestException("Cannot complete bracket until final game set is completed!");
+      }
+      if (!bracket.getWinners().isEmpty()) {
+        throw new InvalidRequestException("Bracket is already completed!");
+      }
+      if (bracket.getFinalGameSet().getWinners().size() != 1) {
+        throw new InvalidRequestException("Multiple teams cannot win a bracket!");
+      }
+      var winners = bracket.getFinalGameSet().getWinners().stream().findFirst().get();
+      // The ELO is read and worked out while no other ELO changes can be made,
+      // so brackets of the same game type completing at once each start from the ELO the other left behind.
+      // Completing the bracket counts as an ELO change too, so an ELO replay either sees both or neither
+      leaderboardManager.changeElo(bracket.getGameType(), () -> {
+        readCurrentElo(bracket);
+        // Total ELO change of each player, keyed by player ID
+        var playerEloChange = new HashMap<String, Integer>();
+        // Every change made to a player's ELO, round by round
+        var ratingChanges = new ArrayList<RatingChange>();
+        calculateEloChanges(bracket, playerEloChange, ratingChanges);
+        // All ELO calcs have been done, now apply them to the database if the bracket is unchanged
+        applyBracketCompletion(bracket, winners, playerEloChange, ratingChanges);
+        return playerEloChange;
+      });
+      return bracket
+        .getTeams()
+        .stream()
+        .flatMap(team -> team.getPlayers().stream())
+        .map(Player::getId)
+        .collect(Collectors.toSet());
+    });
+    // Every other bracket these players were in shows their old ELO
+    bracketViewManager.invalidatePlayers(playerIds);
+    bracketViewManager.refresh(bracketId, completedBracket ->
+      eventFor(BracketEventType.BRACKET_COMPLETED, bracketId)
+        .teams(completedBracket.getTeams())
+        .winners(completedBracket.getWinners())
+    );
+  }
+
+  /**
+   * Swap two players/teams within a bracket.
+   * This can only be done before both teams have played a game.
+   * @param request Request object
+   * @return Updated bracket object with players swapped
+   */
+  @PostMapping("/swapPlayers")
+  public ApiBracket swapPlayers(@RequestBody SwapTeamsRequest request) {
+    if (request.getBracketId() == null || request.getFirstTeamId() == null || request.getSecondTeamId() == null) {
+      throw new InvalidRequestException("All fields must have values!");
     }
+    var swappedGameSetIds = bracketStateEngine.update(request.getBracketId(), (liveBracket, write) -> {
+      var bracket = liveBracket.getBracket();
+      if (!bracket.getTeams().stream().map(PlayerSet::getId).toList().contains(request.getFirstTeamId())) {
+        throw new InvalidRequestException("Team " + request.getFirstTeamId() + " not in bracket!");
+      }
+      if (!bracket.getTeams().stream().map(PlayerSet::getId).toList().contains(request.getSecondTeamId())) {
+        throw new InvalidRequestException("Team " + request.getSecondTeamId() + " not in bracket!");
+      }
+
+      var game1 = bracket
+        .getGameSets()
+        .stream()
+        .filter(gameSet ->
+          gameSet
+            .getAddedPlayerSets()
+            .stream()
+            .map(PlayerSet::getId)
+            .collect(Collectors.toSet())
+            .contains(request.getFirstTeamId())
+        )
+        .findFirst()
+        .orElseThrow(() ->
+          new InvalidRequestException("Team " + request.getFirstTeamId() + " is not in any game set!")
+        );
+      var game2 = bracket
+        .getGameSets()
+        .stream()
+        .filter(gameSet ->
+          gameSet
+            .getAddedPlayerSets()
+            .stream()
+            .map(PlayerSet::getId)
+            .collect(Collectors.toSet())
+            .contains(request.getSecondTeamId())
+        )
+        .findFirst()
+        .orElseThrow(() ->
+          new InvalidRequestException("Team " + request.getSecondTeamId() + " is not in any game set!")
+        );
+      if (!game1.getWinners().isEmpty()) {
+        throw new InvalidRequestException(
+          "Team " +
+            request.getFirstTeamId() +
+            " has already played!" +
+            " Teams that have already played cannot be moved."
+        );
+      }
+      if (!game2.getWinners().isEmpty()) {
+        throw new InvalidRequestException(
+          "Team " +
+            request.getSecondTeamId() +
+            " has already played!" +
+            " Teams that have already played cannot be moved."
+        );
+      }
+      if (game1 == game2) {
+        // Both teams are already playing in the same game set, so nothing changes
+        return Set.of(game1.getId());
+      }
+      var teamIdToPlayerSet = bracket
+        .getTeams()
+        .stream()
+        .collect(Collectors.toMap(PlayerSet::getId, playerSet -> playerSet));
+      var firstTeam = teamIdToPlayerSet.get(request.getFirstTeamId());
+      var secondTeam = teamIdToPlayerSet.get(request.getSecondTeamId());
+      var newFirstGamePlayers = game1
+        .getAddedPlayerSets()
+        .stream()
+        .filter(ps -> !Objects.equals(ps.getId(), request.getFirstTeamId()))
+        .collect(Collectors.toSet());
+      newFirstGamePlayers.add(secondTeam);
+
+      var newSecondGamePlayers = game2
+        .getAddedPlayerSets()
+        .stream()
+        .filter(ps -> !Objects.equals(ps.getId(), request.getSecondTeamId()))
+        .collect(Collectors.toSet());
+      newSecondGamePlayers.add(firstTeam);
+
+      game1.setAddedPlayerSets(newFirstGamePlayers);
+      game2.setAddedPlayerSets(newSecondGamePlayers);
+      // A field can not be pulled from and pushed to in the same update, so each team is moved with two
+      write
+        .update(game1, new Update().pull("addedPlayerSets", firstTeam))
+        .update(game1, new Update().push("addedPlayerSets", secondTeam))
+        .update(game2, new Update().pull("addedPlayerSets", secondTeam))
+        .update(game2, new Update().push("addedPlayerSets", firstTeam));
+      return Set.copyOf(List.of(game1.getId(), game2.getId()));
+    });
+    return bracketViewManager.refresh(request.getBracketId(), apiBracket ->
+      eventFor(BracketEventType.TEAMS_SWAPPED, request.getBracketId()).gameSets(
+        findGameSets(apiBracket, swappedGameSetIds)
+      )
+    );
+  }
+
+  /**
+   * Delete a bracket, and all associated games/game sets.
+   * If the bracket was complete, its ELO changes are undone, replaying the brackets of the same game type after it.
+   * @param bracketId The bracket to delete
+   * @param background Whether to only delete the bracket itself right away,
+   *                   and purge its games and game sets in the background. Meant for very large brackets
+   */
+  @DeleteMapping("/bracket/{bracketId}")
+  public void deleteBracket(@PathVariable String bracketId, @RequestParam(defaultValue = "false") boolean background) {
+    var deleted = bracketStateEngine.updateInDatabase(bracketId, () -> {
+      var deletedBracket = eloReplayer.deleteBracket(bracketId, () -> {
+        if (background) {
+          bracketDeleter.deleteInBackground(bracketId);
+        } else {
+          bracketDeleter.delete(bracketId);
+        }
+      });
+      bracketEventBroadcaster.publish(eventFor(BracketEventType.BRACKET_DELETED, bracketId).build());
+      return deletedBracket;
+    });
+    bracketViewManager.delete(bracketId);
+    // Updating the other brackets waits on their mailboxes, so is done once out of this bracket's mailbox
+    eloReplayer.finishDelete(deleted);
+  }
+
+  /**
+   * Work out the ELO changes of a bracket, round by round, starting from the ELO its players have now.
+   * The ELO of the bracket's players is updated as it goes
+   * @param bracket The bracket to complete, with its players' current ELO
+   * @param playerEloChange Filled with the ELO to add to each player, keyed by player ID
+   * @param ratingChanges Filled with every change to a player's ELO
+   */
+  private void calculateEloChanges(
+    Bracket bracket,
+    Map<String, Integer> playerEloChange,
+    List<RatingChange> ratingChanges
+  ) {
     // Convert to API bracket to make traversal easier for ELO updating
     // Order is relevant for ELO calculations,
     // so we need to make sure to go round by round when updating
     var apiBracket = ApiBracket.fromBracket(bracket);
-    for (var round : apiBracket.getGameSets()) {
-      var roundEloChange = bracket.getTeams().stream().collect(Collectors.toMap(team -> team, team -> 0));
+    for (int roundIndex = 0; roundIndex < apiBracket.getGameSets().size(); roundIndex++) {
+      var round = apiBracket.getGameSets().get(roundIndex);
+      var roundNumber = roundIndex + 1;
+      // Keyed by team ID, since updating a player's ELO changes the hash code of their team.
+      // Only teams that played a game this round are included
+      var roundEloChange = new HashMap<String, Integer>();
       var idToPlayerSet = bracket.getTeams().stream().collect(Collectors.toMap(PlayerSet::getId, ps -> ps));
       round.forEach(gameSet -> {
         var games = gameSet.getGames();
@@ -422,157 +699,168 @@ public class BracketController {
                 .toList(),
               bracket.getGameType()
             )
-            .forEach((team, elo) -> roundEloChange.put(team, roundEloChange.get(team) + elo));
+            .forEach((team, elo) -> roundEloChange.merge(team.getId(), elo, Integer::sum));
         }
       });
       // We must update the player objects ELO after each round
       // so that the next round takes into account the player's new ELO
       bracket
         .getTeams()
+        .stream()
+        .filter(team -> roundEloChange.containsKey(team.getId()))
         .forEach(team ->
           team
             .getPlayers()
             .forEach(player -> {
               var eloMap = player.getEloMap();
+              var eloBefore = eloMap.get(bracket.getGameType());
               // Divide the points evenly between the team
-              var eloChange = roundEloChange.get(team) / team.getPlayers().size();
-              eloMap.put(bracket.getGameType(), eloMap.get(bracket.getGameType()) + eloChange);
+              var eloChange = roundEloChange.get(team.getId()) / team.getPlayers().size();
+              eloMap.put(bracket.getGameType(), eloBefore + eloChange);
+              playerEloChange.merge(player.getId(), eloChange, Integer::sum);
+              ratingChanges.add(
+                RatingChange.builder()
+                  .playerId(player.getId())
+                  .gameType(bracket.getGameType())
+                  .bracketId(bracket.getId())
+                  .date(bracket.getDate())
+                  .round(roundNumber)
+                  .before(eloBefore)
+                  .after(eloBefore + eloChange)
+                  .build()
+              );
             })
         );
     }
-    // All ELO calcs have been done, now apply them to the database transactionally
-    applyBracketCompletion(
-      bracketId,
-      bracket.getFinalGameSet().getWinners().stream().findFirst().get(),
-      bracket.getTeams()
-    );
   }
 
   /**
-   * Swap two players/teams within a bracket.
-   * This can only be done before both teams have played a game.
-   * @param request Request object
-   * @return Updated bracket object with players swapped
+   * Replace the ELO of a bracket's players with the ELO they have in the database now,
+   * since other brackets may have changed it after the bracket was loaded
+   * @param bracket The bracket, whose players are updated in place
    */
-  @PostMapping("/swapPlayers")
-  @Transactional
-  public ApiBracket swapPlayers(@RequestBody SwapTeamsRequest request) {
-    if (request.getBracketId() == null || request.getFirstTeamId() == null || request.getSecondTeamId() == null) {
-      throw new InvalidRequestException("All fields must have values!");
-    }
-    var bracket = bracketRepo
-      .findById(request.getBracketId())
-      .orElseThrow(() -> new NotFoundException("Bracket not found"));
-    if (!bracket.getTeams().stream().map(PlayerSet::getId).toList().contains(request.getFirstTeamId())) {
-      throw new InvalidRequestException("Team " + request.getFirstTeamId() + " not in bracket!");
-    }
-    if (!bracket.getTeams().stream().map(PlayerSet::getId).toList().contains(request.getSecondTeamId())) {
-      throw new InvalidRequestException("Team " + request.getSecondTeamId() + " not in bracket!");
-    }
-
-    var gamesInBracket = gameSetRepo.findAllById(bracket.getGameSets().stream().map(GameSet::getId).toList());
-    var game1 = gamesInBracket
-      .stream()
-      .filter(gameSet ->
-        gameSet
-          .getAddedPlayerSets()
-          .stream()
-          .map(PlayerSet::getId)
-          .collect(Collectors.toSet())
-          .contains(request.getFirstTeamId())
-      )
-      .findFirst()
-      .get();
-    var game2 = gamesInBracket
-      .stream()
-      .filter(gameSet ->
-        gameSet
-          .getAddedPlayerSets()
-          .stream()
-          .map(PlayerSet::getId)
-          .collect(Collectors.toSet())
-          .contains(request.getSecondTeamId())
-      )
-      .findFirst()
-      .get();
-    if (!game1.getWinners().isEmpty()) {
-      throw new InvalidRequestException(
-        "Team " + request.getFirstTeamId() + " has already played!" + " Teams that have already played cannot be moved."
-      );
-    }
-    if (!game2.getWinners().isEmpty()) {
-      throw new InvalidRequestException(
-        "Team " +
-          request.getSecondTeamId() +
-          " has already played!" +
-          " Teams that have already played cannot be moved."
-      );
-    }
-    var teamIdToPlayerSet = bracket
-      .getTeams()
+  private void readCurrentElo(Bracket bracket) {
+    var gameType = bracket.getGameType();
+    var eloField = "eloMap." + gameType.name();
+    var players = bracket.getTeams().stream().flatMap(team -> team.getPlayers().stream()).toList();
+    var query = new Query(Criteria.where("id").in(players.stream().map(Player::getId).toList()));
+    query.fields().include(eloField);
+    var currentElo = new HashMap<String, Integer>();
+    mongoTemplate
+      .find(query, Player.class)
       .stream()
-      .collect(Collectors.toMap(PlayerSet::getId, playerSet -> playerSet));
-    var newFirstGamePlayers = game1
-      .getAddedPlayerSets()
+      .filter(player -> player.getEloMap() != null && player.getEloMap().containsKey(gameType))
+      .forEach(player -> currentElo.put(player.getId(), player.getEloMap().get(gameType)));
+    players
       .stream()
-      .filter(ps -> !Objects.equals(ps.getId(), request.getFirstTeamId()))
-      .collect(Collectors.toSet());
-    newFirstGamePlayers.add(teamIdToPlayerSet.get(request.getSecondTeamId()));
+      .filter(player -> currentElo.containsKey(player.getId()))
+      .forEach(player -> player.getEloMap().put(gameType, currentElo.get(player.getId())));
+  }
 
-    var newSecondGamePlayers = game1
-      .getAddedPlayerSets()
-      .stream()
-      .filter(ps -> !Objects.equals(ps.getId(), request.getSecondTeamId()))
-      .collect(Collectors.toSet());
-    newSecondGamePlayers.add(teamIdToPlayerSet.get(request.getFirstTeamId()));
+  /**
+   * Apply the necessary database updates that are required when completing a bracket.
+   * The winners are only set if the bracket is still the version the ELO changes were worked out from,
+   * and player ELO is only changed once they are. The completion time is recorded along with the winners,
+   * so an ELO replay makes the same changes in the same order.
+   * Player ELO is incremented rather than overwritten, in a single batch,
+   * so concurrent changes to other player fields are kept.
+   * Only called while changing ELO through the leaderboard manager.
+   * @param bracket The bracket to complete, as it was loaded
+   * @param playerEloChange The ELO to add to each player, keyed by player ID
+   * @param ratingChanges Every change to a player's ELO, appended to the rating history along with the ELO
+   * @throws OptimisticLockingFailureException If the bracket was changed since it was loaded
+   */
+  private void applyBracketCompletion(
+    Bracket bracket,
+    PlayerSet winners,
+    Map<String, Integer> playerEloChange,
+    List<RatingChange> ratingChanges
+  ) {
+    var gameType = bracket.getGameType();
+    var completion = mongoTemplate.updateFirst(
+      new Query(Criteria.where("id").is(bracket.getId()).and("version").is(bracket.getVersion())),
+      new Update()
+        .set("winners", winners.getPlayers())
+        .set("completedAt", eloReplayer.nextCompletionTime(gameType))
+        .inc("version", 1),
+      Bracket.class
+    );
+    if (completion.getMatchedCount() == 0) {
+      if (!bracketRepo.existsById(bracket.getId())) {
+        throw new NotFoundException("Bracket was deleted by another process while updating.");
+      }
+      throw new OptimisticLockingFailureException("Bracket was changed by another process while updating.");
+    }
+    // A single insert of the whole bracket's history
+    mongoTemplate.insert(ratingChanges, RatingChange.class);
+    if (playerEloChange.values().stream().allMatch(eloChange -> eloChange == 0)) {
+      return;
+    }
+    var eloUpdates = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+    playerEloChange.forEach((playerId, eloChange) -> {
+      if (eloChange != 0) {
+        eloUpdates.updateOne(
+          new Query(Criteria.where("id").is(playerId)),
+          new Update().inc("eloMap." + gameType.name(), eloChange)
+        );
+      }
+    });
+    eloUpdates.execute();
+  }
 
-    game1.setAddedPlayerSets(newFirstGamePlayers);
-    game2.setAddedPlayerSets(newSecondGamePlayers);
-    gameSetRepo.save(game1);
-    gameSetRepo.save(game2);
-    return ApiBracket.fromBracket(bracketRepo.findById(request.getBracketId()).get());
+  /**
+   * Find a game set within a bracket, telling apart game sets of other brackets from game sets that do not exist
+   */
+  private GameSet findGameSet(LiveBracket liveBracket, String gameSetId) {
+    return liveBracket
+      .findGameSet(gameSetId)
+      .orElseThrow(() ->
+        gameSetRepo.existsById(gameSetId)
+          ? new InvalidRequestException("The given game set is not associated with the given bracket")
+          : new NotFoundException("Game Set not found")
+      );
   }
 
   /**
-   * Delete a bracket, and all associated games/game sets.
-   *
-   * NOTE: If the bracket was complete, the ELO change will not be undone.
-   * @param bracketId The bracket to delete
+   * Start building an event for a change to the given bracket
    */
-  @DeleteMapping("/bracket/{bracketId}")
-  @Transactional
-  public void deleteBracket(@PathVariable String bracketId) {
-    var bracket = bracketRepo.findById(bracketId).orElseThrow(() -> new NotFoundException("Bracket not found"));
+  private static BracketEvent.BracketEventBuilder eventFor(BracketEventType type, String bracketId) {
+    return BracketEvent.builder().type(type).bracketId(bracketId);
+  }
 
-    bracket
+  /**
+   * Get the game sets with the given IDs from an API bracket
+   */
+  private static List<ApiGameSet> findGameSets(ApiBracket bracket, Set<String> gameSetIds) {
+    return bracket
       .getGameSets()
       .stream()
-      .forEach(gameSet -> {
-        gameSet
-          .getGames()
-          .stream()
-          .forEach(game -> gameRepo.delete(game));
-        gameSetRepo.delete(gameSet);
-      });
-    bracketRepo.delete(bracket);
+      .flatMap(List::stream)
+      .filter(gameSet -> gameSetIds.contains(gameSet.getId()))
+      .toList();
   }
 
   /**
-   * Apply the necessary database updates that are required
-   * when completing a bracket, transactionally.
-   * @param bracketId The bracket ID to complete
-   * @param playerSets The teams in the bracket, all with updated ELO.
+   * Build the response for a serialized bracket, or a 304 if the client already has this version
+   * @param bracket The bracket to send
+   * @param ifNoneMatch Value of the If-None-Match header, may be null
    */
-  @Transactional
-  private void applyBracketCompletion(String bracketId, PlayerSet winners, Set<PlayerSet> playerSets) {
-    var bracket = bracketRepo
-      .findById(bracketId)
-      .orElseThrow(() -> new NotFoundException("Bracket was deleted by another process while updating."));
-    if (!bracket.getWinners().isEmpty()) {
-      throw new InvalidRequestException("Bracket was completed by another process while updating.");
-    }
-    bracket.setWinners(winners.getPlayers());
-    bracketRepo.save(bracket);
-    playerSets.forEach(team -> playerRepo.saveAll(team.getPlayers()));
+  static ResponseEntity<byte[]> toResponse(SerializedBracket bracket, String ifNoneMatch) {
+    var notModified =
+      ifNoneMatch != null &&
+      Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        // If-None-Match uses weak comparison, so weak tags of this version also count
+        .map(eTag -> eTag.startsWith("W/") ? eTag.substring(2) : eTag)
+        .anyMatch(eTag -> eTag.equals("*") || eTag.equals(bracket.getETag()));
+    if (notModified) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(bracket.getETag()).build();
+    }
+    return ResponseEntity.ok()
+      .eTag(bracket.getETag())
+      // Clients may keep the bracket, but must check that it is still current before using it
+      .cacheControl(CacheControl.noCache())
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(bracket.getJson());
   }
 }
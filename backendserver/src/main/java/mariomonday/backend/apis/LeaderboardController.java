@@ -0,0 +1,69 @@
+package mariomonday.backend.apis;
+
+import java.util.List;
+import mariomonday.backend.apis.schema.ApiLeaderboardEntry;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.managers.leaderboard.LeaderboardManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * API endpoint for player rankings
+ */
+@RestController
+@RequestMapping(value = "/api")
+public class LeaderboardController {
+
+  /**
+   * The most players that can be requested at once
+   */
+  static final int MAX_LIMIT = 100;
+
+  /**
+   * Keeps the leaderboard of every game type in memory
+   */
+  @Autowired
+  LeaderboardManager leaderboardManager;
+
+  /**
+   * Get the highest ranked players of a game type
+   * @param gameType The game type to rank players by
+   * @param limit The number of players to get
+   */
+  @GetMapping("/leaderboard/{gameType}")
+  List<ApiLeaderboardEntry> getLeaderboard(
+    @PathVariable GameType gameType,
+    @RequestParam(defaultValue = "10") int limit
+  ) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new InvalidRequestException("Limit must be between 1 and " + MAX_LIMIT);
+    }
+    return leaderboardManager.getTop(gameType, limit);
+  }
+
+  /**
+   * Get a player's rank for a game type, along with the players ranked around them
+   * @param gameType The game type to rank players by
+   * @param playerId The ID of the player
+   * @param range The number of players to get on each side of the player
+   */
+  @GetMapping("/leaderboard/{gameType}/{playerId}")
+  List<ApiLeaderboardEntry> getLeaderboardAround(
+    @PathVariable GameType gameType,
+    @PathVariable String playerId,
+    @RequestParam(defaultValue = "0") int range
+  ) {
+    if (range < 0 || range > MAX_LIMIT) {
+      throw new InvalidRequestException("Range must be between 0 and " + MAX_LIMIT);
+    }
+    return leaderboardManager
+      .getAround(gameType, playerId, range)
+      .orElseThrow(() -> new NotFoundException("Player not found with id: " + playerId));
+  }
+}
@@ -1,20 +1,37 @@
 package mariomonday.backend.apis;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.PlayerSort;
 import mariomonday.backend.database.schema.GameType;
 import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.RatingChange;
 import mariomonday.backend.database.tables.PlayerRepository;
 import mariomonday.backend.error.exceptions.AlreadyExistsException;
 import mariomonday.backend.error.exceptions.InvalidRequestException;
 import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.managers.BracketViewManager;
+import mariomonday.backend.managers.EloReplayer;
+import mariomonday.backend.managers.leaderboard.LeaderboardManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -22,7 +39,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * API endpoint for everything related to players
@@ -31,6 +50,26 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(value = "/api")
 public class PlayerController {
 
+  /**
+   * The most players a single page can hold
+   */
+  static final int MAX_PAGE_SIZE = 1000;
+
+  /**
+   * Fields players can be projected down to. The ID is always included
+   */
+  static final Set<String> PROJECTABLE_FIELDS = Set.of("name", "eloMap");
+
+  /**
+   * Response header holding the cursor for the next page of players
+   */
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  /**
+   * Separates the ELO from the player ID in a cursor
+   */
+  private static final String CURSOR_SEPARATOR = "_";
+
   /**
    * Player table
    */
@@ -45,11 +84,120 @@ public class PlayerController {
   MongoTemplate mongoTemplate;
 
   /**
-   * Get all players
+   * Writes players as they are read
+   */
+  @Autowired
+  ObjectMapper objectMapper;
+
+  /**
+   * Keeps the ready to serve view of each bracket up to date
+   */
+  @Autowired
+  BracketViewManager bracketViewManager;
+
+  /**
+   * Keeps the leaderboard of every game type in memory
+   */
+  @Autowired
+  LeaderboardManager leaderboardManager;
+
+  /**
+   * Works out every player's ELO from scratch
+   */
+  @Autowired
+  EloReplayer eloReplayer;
+
+  /**
+   * Get players, as a JSON array written while the players are read, so large listings never sit in memory.
+   * Without a limit every player is listed. With a limit, a full page comes with a cursor for the next page
+   * in the {@value #NEXT_CURSOR_HEADER} header.
+   * @param sort The order to list players in, by name if left out
+   * @param gameType The game type to sort by ELO for. Required when sorting by ELO
+   * @param after Cursor returned with the previous page, leave out for the first page
+   * @param limit The maximum number of players to list. Optional
+   * @param fields The fields to include besides the ID, every field if left out
    */
   @GetMapping("/player")
-  List<Player> getAllPlayers() {
-    return playerRepo.findAll();
+  ResponseEntity<StreamingResponseBody> getAllPlayers(
+    @RequestParam(defaultValue = "NAME") PlayerSort sort,
+    @RequestParam(required = false) GameType gameType,
+    @RequestParam(required = false) String after,
+    @RequestParam(required = false) Integer limit,
+    @RequestParam(required = false) Set<String> fields
+  ) {
+    var query = new Query();
+    if (sort == PlayerSort.ELO) {
+      if (gameType == null) {
+        throw new InvalidRequestException("A game type is needed to sort by ELO");
+      }
+      query.with(Sort.by(Order.desc(eloField(gameType)), Order.asc("id")));
+    } else {
+      // Names are unique, so they are enough to page by
+      query.with(Sort.by(Order.asc("name")));
+    }
+    if (after != null) {
+      query.addCriteria(sort == PlayerSort.ELO ? afterByElo(gameType, after) : Criteria.where("name").gt(after));
+    }
+    if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+      throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    // The field sorted by is needed for the next page's cursor, even if it is not to be listed
+    var sortField = sort == PlayerSort.ELO ? "eloMap" : "name";
+    var hideSortField = limit != null && fields != null && !fields.contains(sortField);
+    if (fields != null) {
+      if (!PROJECTABLE_FIELDS.containsAll(fields)) {
+        throw new InvalidRequestException("Fields must be any of " + PROJECTABLE_FIELDS);
+      }
+      fields.forEach(query.fields()::include);
+      if (hideSortField) {
+        query.fields().include(sort == PlayerSort.ELO ? eloField(gameType) : sortField);
+      }
+    }
+    var response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+    if (limit == null) {
+      StreamingResponseBody body = outputStream -> {
+        try (var players = mongoTemplate.stream(query, Player.class)) {
+          writePlayers(players.iterator(), outputStream);
+        }
+      };
+      return response.body(body);
+    }
+    // A page is at most MAX_PAGE_SIZE players, so it is read before responding to put its cursor in a header
+    var page = mongoTemplate.find(query.limit(limit), Player.class);
+    if (page.size() == limit) {
+      response.header(NEXT_CURSOR_HEADER, cursor(sort, gameType, page.get(page.size() - 1)));
+    }
+    if (hideSortField) {
+      page.forEach(player -> {
+        if (sort == PlayerSort.ELO) {
+          player.setEloMap(null);
+        } else {
+          player.setName(null);
+        }
+      });
+    }
+    StreamingResponseBody body = outputStream -> writePlayers(page.iterator(), outputStream);
+    return response.body(body);
+  }
+
+  /**
+   * Write players as a JSON array
+   */
+  private void writePlayers(Iterator<Player> players, OutputStream outputStream) throws IOException {
+    // Flushing is left to the generator's buffer, and the response stream is closed by the server
+    var writer = objectMapper.writerFor(Player.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (
+      var generator = objectMapper
+        .getFactory()
+        .createGenerator(outputStream)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+    ) {
+      generator.writeStartArray();
+      while (players.hasNext()) {
+        writer.writeValue(generator, players.next());
+      }
+      generator.writeEndArray();
+    }
   }
 
   /**
@@ -79,7 +227,9 @@ public class PlayerController {
     try {
       // Set ELO to initial value for all games
       newPlayer.setEloMap(Player.generateStartingEloMap());
-      return playerRepo.save(newPlayer);
+      var savedPlayer = playerRepo.save(newPlayer);
+      leaderboardManager.addPlayer(savedPlayer);
+      return savedPlayer;
     } catch (DuplicateKeyException e) {
       throw new AlreadyExistsException("Given player name is already in use");
     }
@@ -104,12 +254,102 @@ public class PlayerController {
       if (result == null) {
         throw new NotFoundException("Player not found with id: " + playerId);
       }
+      bracketViewManager.invalidatePlayers(List.of(playerId));
       return result;
     } catch (DuplicateKeyException e) {
       throw new AlreadyExistsException("Given player name is already in use");
     }
   }
 
+  /**
+   * Get every change to a player's ELO for a game type, oldest first, read from a single range of the history index
+   * @param playerId The ID of the player
+   * @param gameType The game type the ELO is for
+   * @param from Only include brackets that started at or after this moment. Optional
+   * @param to Only include brackets that started before this moment. Optional
+   * @return The changes, round by round
+   */
+  @GetMapping("/player/{playerId}/ratingHistory/{gameType}")
+  List<RatingChange> getRatingHistory(
+    @PathVariable String playerId,
+    @PathVariable GameType gameType,
+    @RequestParam(required = false) Instant from,
+    @RequestParam(required = false) Instant to
+  ) {
+    if (!playerRepo.existsById(playerId)) {
+      throw new NotFoundException("Player not found with id: " + playerId);
+    }
+    var criteria = Criteria.where("playerId").is(playerId).and("gameType").is(gameType);
+    if (from != null || to != null) {
+      var dateCriteria = criteria.and("date");
+      if (from != null) {
+        dateCriteria.gte(from);
+      }
+      if (to != null) {
+        dateCriteria.lt(to);
+      }
+    }
+    var query = new Query(criteria).with(Sort.by(Order.asc("date"), Order.asc("round")));
+    return mongoTemplate.find(query, RatingChange.class);
+  }
+
+  /**
+   * Work out every player's ELO from scratch by replaying every completed bracket in the order they were completed,
+   * the same order the ELO changes were first made in. Brackets completed before completion times were recorded
+   * are replayed first, oldest first. Brackets cannot be completed until this is done
+   * @return The number of brackets replayed
+   */
+  @PostMapping("/player/recalculateElo")
+  int recalculateElo() {
+    return eloReplayer.replay();
+  }
+
+  /**
+   * Cursor for the players listed after the given player. It holds the key the players are sorted by,
+   * so the next page does not depend on the player still existing or being unchanged.
+   * When sorting by ELO it is the ELO, empty if the player has none for the game type, then the player's ID
+   */
+  private static String cursor(PlayerSort sort, GameType gameType, Player lastPlayer) {
+    if (sort == PlayerSort.NAME) {
+      return lastPlayer.getName();
+    }
+    var elo = lastPlayer.getEloMap() == null ? null : lastPlayer.getEloMap().get(gameType);
+    return (elo == null ? "" : elo.toString()) + CURSOR_SEPARATOR + lastPlayer.getId();
+  }
+
+  /**
+   * Match the players listed after the given cursor when sorting by ELO.
+   * Players without an ELO for the game type are sorted last, so only they can come after one of them
+   * @throws InvalidRequestException If the cursor is invalid
+   */
+  private static Criteria afterByElo(GameType gameType, String cursor) {
+    var separator = cursor.indexOf(CURSOR_SEPARATOR);
+    if (separator < 0) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+    Integer afterElo;
+    try {
+      afterElo = separator == 0 ? null : Integer.valueOf(cursor.substring(0, separator));
+    } catch (NumberFormatException e) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+    var afterPlayerId = cursor.substring(separator + 1);
+    var sameElo = Criteria.where(eloField(gameType)).is(afterElo).and("id").gt(afterPlayerId);
+    if (afterElo == null) {
+      return sameElo;
+    }
+    return new Criteria()
+      .orOperator(
+        Criteria.where(eloField(gameType)).lt(afterElo),
+        sameElo,
+        Criteria.where(eloField(gameType)).is(null)
+      );
+  }
+
+  private static String eloField(GameType gameType) {
+    return "eloMap." + gameType;
+  }
+
   /**
    * Delete the given player
    * @param playerId The player to delete
@@ -122,5 +362,7 @@ public class PlayerController {
     if (result.getDeletedCount() == 0) {
       throw new NotFoundException("Player not found with id: " + playerId);
     }
+    leaderboardManager.removePlayer(playerId);
+    bracketViewManager.invalidatePlayers(List.of(playerId));
   }
 }
@@ -0,0 +1,158 @@
+package mariomonday.backend.apis;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.managers.BracketViewManager;
+import mariomonday.backend.managers.seeders.AbstractSeeder;
+import mariomonday.backend.managers.tournamentcreators.AbstractBracketCreator;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking variant of the bracket API, enabled with the "reactiveapi.enabled" property.
+ * Requests do not hold on to a thread while waiting on the database. Brackets are served from the same views
+ * as {@link BracketController}, so both APIs return the same representation and ETags.
+ * Changes to brackets are only supported through {@link BracketController}, other than creating them.
+ */
+@RestController
+@RequestMapping(value = "/api/reactive")
+@ConditionalOnProperty(name = "reactiveapi.enabled", havingValue = "true")
+public class ReactiveBracketController {
+
+  /**
+   * Bracket creator used to create a bracket from a seeded list of players
+   */
+  @Autowired
+  AbstractBracketCreator bracketCreator;
+
+  /**
+   * Seeder algorithm to use
+   */
+  @Autowired
+  AbstractSeeder seeder;
+
+  /**
+   * Reactive mongo template object, used for all reads and writes
+   */
+  @Autowired
+  ReactiveMongoTemplate reactiveMongoTemplate;
+
+  /**
+   * Keeps the ready to serve view of each bracket up to date
+   */
+  @Autowired
+  BracketViewManager bracketViewManager;
+
+  /**
+   * Get the given bracket, from the same view and with the same ETag as {@link BracketController#getBracket}.
+   * If the client already has the current version a 304 is returned instead.
+   * @param bracketId The ID of the bracket to get
+   * @param ifNoneMatch ETags of the versions of the bracket the client already has
+   */
+  @GetMapping("/bracket/{bracketId}")
+  Mono<ResponseEntity<byte[]>> getBracket(
+    @PathVariable String bracketId,
+    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+  ) {
+    // Bracket views are maintained with blocking calls, so keep them off the event loop
+    return Mono.fromCallable(() -> BracketController.toResponse(bracketViewManager.get(bracketId), ifNoneMatch))
+      .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  /**
+   * Get the most recent bracket, from the same view and with the same ETag as
+   * {@link BracketController#getCurrentBracket}. If the client already has the current version a 304 is returned
+   * instead.
+   * @param gameType Only consider brackets of this game type. Optional
+   * @param ifNoneMatch ETags of the versions of the bracket the client already has
+   */
+  @GetMapping("/getCurrentBracket")
+  Mono<ResponseEntity<byte[]>> getCurrentBracket(
+    @RequestParam(required = false) GameType gameType,
+    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+  ) {
+    return reactiveMongoTemplate
+      .findOne(
+        BracketViewManager.currentBracketQuery(gameType),
+        Document.class,
+        reactiveMongoTemplate.getCollectionName(Bracket.class)
+      )
+      .switchIfEmpty(
+        Mono.error(() ->
+          new NotFoundException(gameType == null ? "No brackets exist!" : "No " + gameType + " brackets exist!")
+        )
+      )
+      .flatMap(bracketDoc -> getBracket(bracketDoc.get("_id").toString(), ifNoneMatch));
+  }
+
+  /**
+   * Create a new bracket
+   * @param request The request to create the bracket
+   * @return The newly created bracket
+   */
+  @PostMapping("/bracket")
+  public Mono<ApiBracket> postBracket(@RequestBody CreateBracketRequest request) {
+    request.validate();
+    var playerIds = request
+      .getTeams()
+      .values()
+      .stream()
+      .flatMap(List::stream)
+      .collect(Collectors.toSet());
+    return reactiveMongoTemplate
+      .find(new Query(Criteria.where("id").in(playerIds)), Player.class)
+      .collectMap(Player::getId)
+      .flatMap(playersById -> {
+        if (!playersById.keySet().containsAll(playerIds)) {
+          return Mono.error(
+            new InvalidRequestException(CreateBracketRequest.missingPlayersMessage(playerIds, playersById.keySet()))
+          );
+        }
+        var unseededTeams = request
+          .getTeams()
+          .entrySet()
+          .stream()
+          .map(team ->
+            PlayerSet.builder()
+              .name(team.getKey())
+              .players(team.getValue().stream().map(playersById::get).toList())
+              .id(UUID.randomUUID().toString())
+              .build()
+          )
+          .collect(Collectors.toSet());
+        Bracket bracket = bracketCreator.fromPlayerSets(
+          request.getGameType(),
+          seeder.seed(unseededTeams, request.getGameType())
+        );
+        return reactiveMongoTemplate.insertAll(bracket.getGameSets()).then(reactiveMongoTemplate.insert(bracket));
+      })
+      // Bracket views are maintained with blocking calls, so keep them off the event loop
+      .publishOn(Schedulers.boundedElastic())
+      .map(bracket -> bracketViewManager.refresh(bracket.getId()));
+  }
+}
@@ -0,0 +1,49 @@
+package mariomonday.backend.apis;
+
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of the player API, enabled with the "reactiveapi.enabled" property.
+ * Changes to players are only supported through {@link PlayerController}.
+ */
+@RestController
+@RequestMapping(value = "/api/reactive")
+@ConditionalOnProperty(name = "reactiveapi.enabled", havingValue = "true")
+public class ReactivePlayerController {
+
+  /**
+   * Reactive mongo template object, used for all reads
+   */
+  @Autowired
+  ReactiveMongoTemplate reactiveMongoTemplate;
+
+  /**
+   * Get all players. Clients accepting newline delimited JSON get players streamed as they are read
+   */
+  @GetMapping(value = "/player", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+  Flux<Player> getAllPlayers() {
+    return reactiveMongoTemplate.findAll(Player.class);
+  }
+
+  /**
+   * Get information about a single player with the given ID
+   * @param playerId The ID of the player to learn about
+   */
+  @GetMapping("/player/{playerId}")
+  Mono<Player> getPlayer(@PathVariable String playerId) {
+    return reactiveMongoTemplate
+      .findById(playerId, Player.class)
+      .switchIfEmpty(Mono.error(() -> new NotFoundException("Player not found with id: " + playerId)));
+  }
+}
@@ -76,18 +76,20 @@ public class ApiBracket {
    */
   private List<List<ApiGameSet>> gameSets;
 
+  /**
+   * Convert a bracket to an API bracket.
+   * The bracket must be fully loaded (see {@link mariomonday.backend.database.loaders.BracketGraphLoader}),
+   * since every game set, game and player in it is read.
+   */
   public static ApiBracket fromBracket(Bracket bracket) {
-    var loadedBracket = Bracket.loadLazyBracket(bracket);
     return ApiBracket.builder()
-      .id(loadedBracket.getId())
-      .date(loadedBracket.getDate())
-      .rounds(loadedBracket.getRounds())
-      .winners(loadedBracket.getWinners())
-      .gameType(loadedBracket.getGameType())
-      .teams(loadedBracket.getTeams())
-      .gameSets(
-        orderGameSets(loadedBracket.getGameSets().stream().map(ApiGameSet::fromGameSet).collect(Collectors.toSet()))
-      )
+      .id(bracket.getId())
+      .date(bracket.getDate())
+      .rounds(bracket.getRounds())
+      .winners(bracket.getWinners())
+      .gameType(bracket.getGameType())
+      .teams(bracket.getTeams())
+      .gameSets(orderGameSets(bracket.getGameSets().stream().map(ApiGameSet::fromGameSet).collect(Collectors.toSet())))
       .build();
   }
 
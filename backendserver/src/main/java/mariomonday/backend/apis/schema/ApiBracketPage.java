@@ -0,0 +1,25 @@
+package mariomonday.backend.apis.schema;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+
+/**
+ * One page of brackets, newest first
+ */
+@Data
+@Builder
+public class ApiBracketPage {
+
+  /**
+   * The brackets on this page
+   */
+  @Singular
+  private List<ApiBracketSummary> brackets;
+
+  /**
+   * Cursor to pass as "before" to get the next page, or null if this is the last page
+   */
+  private String next;
+}
@@ -0,0 +1,43 @@
+package mariomonday.backend.apis.schema;
+
+import java.time.Instant;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+
+/**
+ * A bracket without its game sets, for listing brackets
+ */
+@Data
+@Builder
+public class ApiBracketSummary {
+
+  /**
+   * ID for the bracket
+   */
+  private final String id;
+
+  /**
+   * The moment the bracket started
+   */
+  private final Instant date;
+
+  /**
+   * The type of game this bracket was for
+   */
+  private final GameType gameType;
+
+  /**
+   * The winners, empty while the bracket is in progress
+   */
+  @Singular
+  private Set<Player> winners;
+
+  /**
+   * The number of teams who participated in this bracket
+   */
+  private int teamCount;
+}
@@ -0,0 +1,28 @@
+package mariomonday.backend.apis.schema;
+
+import lombok.Builder;
+import lombok.Data;
+import mariomonday.backend.database.schema.Player;
+
+/**
+ * A player's place on the leaderboard of a game type
+ */
+@Data
+@Builder
+public class ApiLeaderboardEntry {
+
+  /**
+   * Place on the leaderboard, starting from 1. Players with the same ELO share a rank
+   */
+  private int rank;
+
+  /**
+   * The player's ELO for the game type
+   */
+  private int elo;
+
+  /**
+   * The player
+   */
+  private Player player;
+}
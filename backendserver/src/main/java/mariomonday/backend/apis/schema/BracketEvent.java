@@ -0,0 +1,62 @@
+package mariomonday.backend.apis.schema;
+
+import java.util.List;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+
+/**
+ * A change to a bracket, pushed to subscribers of the bracket.
+ * Only the parts of the bracket that changed are included, everything else stays as it was.
+ */
+@Value
+@Builder(toBuilder = true)
+public class BracketEvent {
+
+  /**
+   * What happened to the bracket
+   */
+  BracketEventType type;
+
+  /**
+   * ID of the bracket that changed
+   */
+  String bracketId;
+
+  /**
+   * Number of this event among the events of the bracket, also sent as the event's ID.
+   * Events of a bracket are numbered one after another, in the order the changes were made.
+   * If a client sees a sequence number that is not the next one, it missed an event and should get the whole
+   * bracket again. Numbering starts over when the server restarts.
+   */
+  long sequence;
+
+  /**
+   * Version of the bracket after this change, matching the version in the bracket's ETag.
+   * Views are also rebuilt without any event, for example when a player is renamed,
+   * so versions can be skipped without an event being missed.
+   * Always 0 for deleted brackets.
+   */
+  long version;
+
+  /**
+   * Game sets that changed, in their new state
+   */
+  @Singular
+  List<ApiGameSet> gameSets;
+
+  /**
+   * Teams that were added to the bracket, or every team with their updated ELO once the bracket is completed
+   */
+  @Singular
+  Set<PlayerSet> teams;
+
+  /**
+   * The winners of the bracket, once it is completed
+   */
+  @Singular
+  Set<Player> winners;
+}
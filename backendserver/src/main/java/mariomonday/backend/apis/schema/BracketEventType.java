@@ -0,0 +1,31 @@
+package mariomonday.backend.apis.schema;
+
+/**
+ * The kinds of changes to a bracket that are pushed to subscribers
+ */
+public enum BracketEventType {
+  /**
+   * A game set was completed, or its result was changed
+   */
+  GAME_SET_COMPLETED,
+
+  /**
+   * A team was added to a game set
+   */
+  PLAYER_ADDED,
+
+  /**
+   * Two teams swapped game sets
+   */
+  TEAMS_SWAPPED,
+
+  /**
+   * The bracket was completed and ELO was updated
+   */
+  BRACKET_COMPLETED,
+
+  /**
+   * The bracket was deleted, no more events will follow
+   */
+  BRACKET_DELETED
+}
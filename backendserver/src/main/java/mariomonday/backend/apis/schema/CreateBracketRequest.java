@@ -1,10 +1,15 @@
 package mariomonday.backend.apis.schema;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Data;
 import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
 
 /**
  * Request to create a bracket
@@ -23,4 +28,63 @@ public class CreateBracketRequest {
    * The game type of the bracket
    */
   private GameType gameType;
+
+  /**
+   * Check that the request is well formed. Does not check that the players exist.
+   * @throws InvalidRequestException If the request is not well formed
+   */
+  public void validate() {
+    if (gameType == null) {
+      throw new InvalidRequestException("Game Type must have a value");
+    }
+    if (teams == null) {
+      throw new InvalidRequestException("Teams must have a value");
+    }
+    if (teams.size() < 2) {
+      throw new InvalidRequestException("Cannot run a tournament with less than two participants!");
+    }
+    var playerIdsInTourney = new HashSet<String>();
+    for (var team : teams.entrySet()) {
+      var playerIds = team.getValue();
+      if (team.getKey() == null) {
+        throw new InvalidRequestException("Cannot have a null team name!");
+      }
+      if (playerIds == null) {
+        throw new InvalidRequestException("Cannot have a null team!");
+      }
+      if (playerIds.isEmpty()) {
+        throw new InvalidRequestException("Cannot have an empty team!");
+      }
+      if (playerIds.size() != gameType.getPlayersOnATeam()) {
+        throw new InvalidRequestException(
+          "For game type " + gameType + " teams should be of size " + gameType.getPlayersOnATeam()
+        );
+      }
+      if (playerIds.stream().anyMatch(Objects::isNull)) {
+        throw new InvalidRequestException("Cannot have a null player ID!");
+      }
+      for (var playerId : playerIds) {
+        if (!playerIdsInTourney.add(playerId)) {
+          throw new InvalidRequestException("Cannot have repeat players in tournament!");
+        }
+      }
+    }
+  }
+
+  /**
+   * Build the error message for a request referencing players that do not exist
+   * @param requestedPlayerIds Every player ID in the request
+   * @param foundPlayerIds The IDs of the players that were found
+   * @return A message listing the missing player IDs
+   */
+  public static String missingPlayersMessage(Collection<String> requestedPlayerIds, Collection<String> foundPlayerIds) {
+    return (
+      "Some players cannot be found: " +
+      requestedPlayerIds
+        .stream()
+        .filter(playerId -> !foundPlayerIds.contains(playerId))
+        .sorted()
+        .collect(Collectors.joining(", "))
+    );
+  }
 }
@@ -0,0 +1,16 @@
+package mariomonday.backend.apis.schema;
+
+/**
+ * The orders players can be listed in
+ */
+public enum PlayerSort {
+  /**
+   * Alphabetically by name
+   */
+  NAME,
+
+  /**
+   * Highest ELO first for a single game type, players with the same ELO ordered by ID
+   */
+  ELO
+}
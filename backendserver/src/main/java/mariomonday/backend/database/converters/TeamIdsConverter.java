@@ -0,0 +1,54 @@
+package mariomonday.backend.database.converters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import mariomonday.backend.database.loaders.BracketGraphLoader;
+import mariomonday.backend.database.schema.PlayerSet;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import org.springframework.data.util.TypeInformation;
+
+/**
+ * Stores teams as just their IDs. Used for every field holding teams other than the bracket's own teams,
+ * which are the only full copy of each team, so a team is not stored again in every game set and game it is in.
+ * {@link BracketGraphLoader} resolves the IDs against the bracket's teams, while reading one of these fields
+ * on its own gives teams with only their ID set.
+ * Teams stored in full, from before they were stored as IDs, can still be read.
+ */
+public class TeamIdsConverter implements MongoValueConverter<Object, Object> {
+
+  /**
+   * Convert a collection of teams to their IDs. Also converts single teams, as used by updates such as push and pull
+   */
+  @Override
+  public Object write(Object value, MongoConversionContext context) {
+    if (value instanceof Collection<?> teams) {
+      return teams.stream().map(TeamIdsConverter::toTeamId).toList();
+    }
+    return toTeamId(value);
+  }
+
+  @Override
+  public Object read(Object value, MongoConversionContext context) {
+    var teams = ((Collection<?>) value).stream().map(storedTeam -> toTeam(storedTeam, context));
+    if (List.class.isAssignableFrom(context.getProperty().getType())) {
+      return teams.collect(Collectors.toCollection(ArrayList::new));
+    }
+    return teams.collect(Collectors.toCollection(HashSet::new));
+  }
+
+  private static Object toTeamId(Object team) {
+    return team instanceof PlayerSet playerSet ? playerSet.getId() : team;
+  }
+
+  private static PlayerSet toTeam(Object storedTeam, MongoConversionContext context) {
+    if (storedTeam instanceof Document teamDoc) {
+      return context.read(teamDoc, TypeInformation.of(PlayerSet.class));
+    }
+    return PlayerSet.builder().id(storedTeam.toString()).build();
+  }
+}
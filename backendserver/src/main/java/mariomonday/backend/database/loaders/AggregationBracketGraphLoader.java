@@ -0,0 +1,80 @@
+package mariomonday.backend.database.loaders;
+
+import java.util.List;
+import java.util.Optional;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.Game;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.database.schema.Player;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Bracket loader that fetches the whole bracket with a single aggregation pipeline.
+ * The bracket document already lists every one of its game sets, so they are joined in with a flat $lookup
+ * rather than walking "previousGameSets" with $graphLookup, which would need one recursive lookup per round.
+ * Games and players are then joined in through the IDs collected from the game sets and teams.
+ * The resulting documents are assembled the same way as {@link BracketGraphLoader},
+ * so the loaded brackets are identical.
+ */
+public class AggregationBracketGraphLoader extends BracketGraphLoader {
+
+  private static final String GAME_SET_DOCS = "gameSetDocs";
+  private static final String GAME_IDS = "gameIds";
+  private static final String GAME_DOCS = "gameDocs";
+  private static final String PLAYER_IDS = "playerIds";
+  private static final String PLAYER_DOCS = "playerDocs";
+
+  public AggregationBracketGraphLoader(MongoTemplate mongoTemplate) {
+    super(mongoTemplate);
+  }
+
+  @Override
+  public Optional<Bracket> findById(String bracketId) {
+    var aggregation = Aggregation.newAggregation(
+      // The aggregation is untyped, so the ID must be converted the same way the repositories do
+      Aggregation.match(Criteria.where("_id").is(mongoTemplate.getConverter().convertId(bracketId, ObjectId.class))),
+      Aggregation.lookup(mongoTemplate.getCollectionName(GameSet.class), "gameSets", "_id", GAME_SET_DOCS),
+      // Every player in a game set or game is on one of the bracket's teams, so the teams cover everyone
+      Aggregation.stage(
+        new Document(
+          "$addFields",
+          new Document(GAME_IDS, concatAll(GAME_SET_DOCS, "games")).append(PLAYER_IDS, concatAll("teams", "players"))
+        )
+      ),
+      Aggregation.lookup(mongoTemplate.getCollectionName(Game.class), GAME_IDS, "_id", GAME_DOCS),
+      Aggregation.lookup(mongoTemplate.getCollectionName(Player.class), PLAYER_IDS, "_id", PLAYER_DOCS)
+    );
+    var bracketDoc = mongoTemplate
+      .aggregate(aggregation, mongoTemplate.getCollectionName(Bracket.class), Document.class)
+      .getUniqueMappedResult();
+    if (bracketDoc == null) {
+      return Optional.empty();
+    }
+    return Optional.of(
+      assemble(
+        bracketDoc,
+        bracketDoc.getList(GAME_SET_DOCS, Document.class, List.of()),
+        bracketDoc.getList(GAME_DOCS, Document.class, List.of()),
+        bracketDoc.getList(PLAYER_DOCS, Document.class, List.of())
+      )
+    );
+  }
+
+  /**
+   * Expression concatenating the given array field of every element in an array into a single array
+   * @param arrayField The array of documents to go through
+   * @param elementField The array field within each document
+   */
+  private static Document concatAll(String arrayField, String elementField) {
+    return new Document(
+      "$reduce",
+      new Document("input", "$" + arrayField)
+        .append("initialValue", List.of())
+        .append("in", new Document("$concatArrays", List.of("$$value", "$$this." + elementField)))
+    );
+  }
+}
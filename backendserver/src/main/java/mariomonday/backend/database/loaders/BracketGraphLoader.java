@@ -0,0 +1,256 @@
+package mariomonday.backend.database.loaders;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.Game;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Loads a bracket along with everything it references (game sets, games and players).
+ * Rather than resolving each lazy reference with its own round trip, the raw documents are fetched
+ * with one query per collection and the object graph is assembled in memory.
+ * Every game set, game, team and player is only created once, so objects are shared across the graph.
+ * Game sets and games store team IDs, which are resolved against the bracket's teams.
+ */
+public class BracketGraphLoader {
+
+  /**
+   * Mongo template object, used to read the raw documents
+   */
+  protected final MongoTemplate mongoTemplate;
+
+  public BracketGraphLoader(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Load the bracket with the given ID, with every reference resolved
+   * @param bracketId The ID of the bracket to load
+   * @return The fully loaded bracket, or empty if it does not exist
+   */
+  public Optional<Bracket> findById(String bracketId) {
+    var bracketDoc = mongoTemplate.findOne(
+      new Query(Criteria.where("_id").is(bracketId)),
+      Document.class,
+      mongoTemplate.getCollectionName(Bracket.class)
+    );
+    if (bracketDoc == null) {
+      return Optional.empty();
+    }
+    var gameSetDocs = findAllById(GameSet.class, bracketDoc.getList("gameSets", Object.class, List.of()));
+    var gameDocs = findAllById(
+      Game.class,
+      gameSetDocs
+        .stream()
+        .flatMap(gameSetDoc -> gameSetDoc.getList("games", Object.class, List.of()).stream())
+        .toList()
+    );
+    var playerDocs = findAllById(Player.class, getReferencedPlayerIds(bracketDoc, gameSetDocs, gameDocs));
+    return Optional.of(assemble(bracketDoc, gameSetDocs, gameDocs, playerDocs));
+  }
+
+  /**
+   * Build the bracket object graph from the raw documents that make it up
+   * @param bracketDoc The bracket document
+   * @param gameSetDocs All game set documents in the bracket
+   * @param gameDocs All game documents referenced by the game sets
+   * @param playerDocs All player documents referenced anywhere in the bracket
+   * @return The fully loaded bracket
+   */
+  protected Bracket assemble(
+    Document bracketDoc,
+    Collection<Document> gameSetDocs,
+    Collection<Document> gameDocs,
+    Collection<Document> playerDocs
+  ) {
+    var converter = mongoTemplate.getConverter();
+    Map<String, Player> playersById = playerDocs
+      .stream()
+      .map(playerDoc -> converter.read(Player.class, playerDoc))
+      // A player can be on multiple teams, so tolerate the same player being fetched more than once
+      .collect(Collectors.toMap(Player::getId, Function.identity(), (player, duplicate) -> player));
+    var teams = toPlayerSets(bracketDoc.getList("teams", Object.class, List.of()), Map.of(), playersById);
+    Map<String, PlayerSet> teamsById = teams
+      .stream()
+      .collect(Collectors.toMap(PlayerSet::getId, Function.identity(), (team, duplicate) -> team));
+
+    Map<String, Game> gamesById = new HashMap<>();
+    for (var gameDoc : gameDocs) {
+      var game = Game.builder()
+        .id(idOf(gameDoc))
+        .gameType(gameTypeOf(gameDoc))
+        .playerSets(toPlayerSets(gameDoc.getList("playerSets", Object.class, List.of()), teamsById, playersById))
+        .build();
+      gamesById.put(game.getId(), game);
+    }
+
+    // Game sets reference each other, so create them all before linking previous game sets
+    Map<String, GameSet> gameSetsById = new HashMap<>();
+    for (var gameSetDoc : gameSetDocs) {
+      var gameSet = GameSet.builder()
+        .id(idOf(gameSetDoc))
+        .roundIndex(gameSetDoc.getInteger("roundIndex"))
+        .gameType(gameTypeOf(gameSetDoc))
+        .version(versionOf(gameSetDoc))
+        .build();
+      gameSet.setWinners(toPlayerSetSet(gameSetDoc, "winners", teamsById, playersById));
+      gameSet.setLosers(toPlayerSetSet(gameSetDoc, "losers", teamsById, playersById));
+      gameSet.setAddedPlayerSets(toPlayerSetSet(gameSetDoc, "addedPlayerSets", teamsById, playersById));
+      gameSet.setGames(resolve(gameSetDoc.getList("games", Object.class, List.of()), gamesById));
+      gameSetsById.put(gameSet.getId(), gameSet);
+    }
+    for (var gameSetDoc : gameSetDocs) {
+      gameSetsById
+        .get(idOf(gameSetDoc))
+        .setPreviousGameSets(resolve(gameSetDoc.getList("previousGameSets", Object.class, List.of()), gameSetsById));
+    }
+
+    var bracket = Bracket.builder()
+      .id(idOf(bracketDoc))
+      .date(Instant.ofEpochMilli(bracketDoc.getDate("date").getTime()))
+      .rounds(bracketDoc.getInteger("rounds", 0))
+      .completedAt(bracketDoc.getDate("completedAt") == null ? null : bracketDoc.getDate("completedAt").toInstant())
+      .gameType(gameTypeOf(bracketDoc))
+      .version(versionOf(bracketDoc))
+      .build();
+    bracket.setTeams(new HashSet<>(teams));
+    bracket.setWinners(resolve(bracketDoc.getList("winners", Object.class, List.of()), playersById));
+    bracket.setGameSets(resolve(bracketDoc.getList("gameSets", Object.class, List.of()), gameSetsById));
+    return bracket;
+  }
+
+  /**
+   * Fetch the raw documents with the given IDs in a single query
+   */
+  protected List<Document> findAllById(Class<?> entityClass, Collection<Object> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return mongoTemplate.find(
+      new Query(Criteria.where("_id").in(new LinkedHashSet<>(ids))),
+      Document.class,
+      mongoTemplate.getCollectionName(entityClass)
+    );
+  }
+
+  /**
+   * Get the IDs of every player referenced by the bracket, its game sets, or its games.
+   * Only the bracket's teams and teams stored in full list their players
+   */
+  private static Set<Object> getReferencedPlayerIds(
+    Document bracketDoc,
+    Collection<Document> gameSetDocs,
+    Collection<Document> gameDocs
+  ) {
+    var playerIds = new HashSet<>(bracketDoc.getList("winners", Object.class, List.of()));
+    var storedTeams = new ArrayList<>(bracketDoc.getList("teams", Object.class, List.of()));
+    for (var gameSetDoc : gameSetDocs) {
+      storedTeams.addAll(gameSetDoc.getList("winners", Object.class, List.of()));
+      storedTeams.addAll(gameSetDoc.getList("losers", Object.class, List.of()));
+      storedTeams.addAll(gameSetDoc.getList("addedPlayerSets", Object.class, List.of()));
+    }
+    for (var gameDoc : gameDocs) {
+      storedTeams.addAll(gameDoc.getList("playerSets", Object.class, List.of()));
+    }
+    for (var storedTeam : storedTeams) {
+      if (storedTeam instanceof Document teamDoc) {
+        playerIds.addAll(teamDoc.getList("players", Object.class, List.of()));
+      }
+    }
+    return playerIds;
+  }
+
+  /**
+   * Convert stored teams, using the already loaded teams and players.
+   * Teams are stored as IDs, or embedded in full if they were stored before that.
+   * IDs of teams that are not part of the bracket are dropped
+   */
+  private static List<PlayerSet> toPlayerSets(
+    List<Object> storedTeams,
+    Map<String, PlayerSet> teamsById,
+    Map<String, Player> playersById
+  ) {
+    return storedTeams
+      .stream()
+      .map(storedTeam -> {
+        if (!(storedTeam instanceof Document teamDoc)) {
+          return teamsById.get(storedTeam.toString());
+        }
+        return teamsById.getOrDefault(
+          idOf(teamDoc),
+          PlayerSet.builder()
+            .id(idOf(teamDoc))
+            .name(teamDoc.getString("name"))
+            .players(resolve(teamDoc.getList("players", Object.class, List.of()), playersById))
+            .build()
+        );
+      })
+      .filter(Objects::nonNull)
+      .toList();
+  }
+
+  /**
+   * Convert the stored teams in the given field to a mutable set
+   */
+  private static Set<PlayerSet> toPlayerSetSet(
+    Document doc,
+    String field,
+    Map<String, PlayerSet> teamsById,
+    Map<String, Player> playersById
+  ) {
+    return new HashSet<>(toPlayerSets(doc.getList(field, Object.class, List.of()), teamsById, playersById));
+  }
+
+  /**
+   * Resolve a list of stored references against already loaded objects.
+   * References to documents that no longer exist are dropped, matching lazy loading behaviour.
+   */
+  private static <T> Set<T> resolve(List<Object> references, Map<String, T> loadedById) {
+    return references
+      .stream()
+      .map(reference -> loadedById.get(reference.toString()))
+      .filter(Objects::nonNull)
+      .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  /**
+   * Get the ID of a document as a string. IDs that look like object IDs are stored as such,
+   * so they need to be converted back.
+   */
+  private static String idOf(Document doc) {
+    var id = doc.get("_id");
+    return id == null ? null : id.toString();
+  }
+
+  /**
+   * Get the version of a document, which is missing for documents written before versions were tracked
+   */
+  private static Long versionOf(Document doc) {
+    var version = doc.get("version", Number.class);
+    return version == null ? null : version.longValue();
+  }
+
+  private static GameType gameTypeOf(Document doc) {
+    var gameType = doc.getString("gameType");
+    return gameType == null ? null : GameType.valueOf(gameType);
+  }
+}
@@ -0,0 +1,139 @@
+package mariomonday.backend.database.loaders;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracketPage;
+import mariomonday.backend.apis.schema.ApiBracketSummary;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Loads pages of bracket summaries, newest first.
+ * Pages are found by where the previous page ended rather than by skipping brackets, following the bracket
+ * date indexes, so every page is as cheap as the first. Only the fields in the summary are read, game sets never are.
+ */
+public class BracketSummaryLoader {
+
+  /**
+   * Separates the date from the bracket ID in a cursor
+   */
+  private static final String CURSOR_SEPARATOR = "_";
+
+  /**
+   * Mongo template object, used to read the raw documents
+   */
+  private final MongoTemplate mongoTemplate;
+
+  public BracketSummaryLoader(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Load a page of bracket summaries
+   * @param gameType Only include brackets of this game type, or null for every game type
+   * @param before Cursor returned with the previous page, or null for the first page
+   * @param limit The maximum number of brackets on the page
+   * @return The page, with a cursor for the next page if there may be more brackets
+   * @throws InvalidRequestException If the cursor is invalid
+   */
+  public ApiBracketPage findPage(GameType gameType, String before, int limit) {
+    var criteria = new Criteria();
+    if (gameType != null) {
+      criteria.and("gameType").is(gameType);
+    }
+    if (before != null) {
+      criteria.andOperator(afterCursor(before));
+    }
+    List<AggregationOperation> stages = List.of(
+      Aggregation.match(criteria),
+      // Same order as the bracket indexes
+      Aggregation.sort(Sort.by(Order.desc("date"), Order.desc("_id"))),
+      // One extra bracket tells whether there is another page
+      Aggregation.limit(limit + 1),
+      Aggregation.project("date", "gameType", "winners").and(ArrayOperators.Size.lengthOfArray("teams")).as("teamCount")
+    );
+    var bracketDocs = mongoTemplate
+      .aggregate(Aggregation.newAggregation(Bracket.class, stages), Document.class)
+      .getMappedResults();
+    var hasNextPage = bracketDocs.size() > limit;
+    bracketDocs = bracketDocs.subList(0, Math.min(limit, bracketDocs.size()));
+
+    var playersById = findWinners(bracketDocs);
+    var page = ApiBracketPage.builder();
+    for (var bracketDoc : bracketDocs) {
+      page.bracket(
+        ApiBracketSummary.builder()
+          .id(bracketDoc.get("_id").toString())
+          .date(bracketDoc.getDate("date").toInstant())
+          .gameType(GameType.valueOf(bracketDoc.getString("gameType")))
+          .winners(
+            bracketDoc
+              .getList("winners", Object.class, List.of())
+              .stream()
+              .map(playerId -> playersById.get(playerId.toString()))
+              .filter(Objects::nonNull)
+              .toList()
+          )
+          .teamCount(bracketDoc.getInteger("teamCount", 0))
+          .build()
+      );
+    }
+    if (hasNextPage) {
+      var lastBracketDoc = bracketDocs.get(bracketDocs.size() - 1);
+      page.next(lastBracketDoc.getDate("date").getTime() + CURSOR_SEPARATOR + lastBracketDoc.get("_id"));
+    }
+    return page.build();
+  }
+
+  /**
+   * Criteria matching brackets that come after the cursor, in newest first order
+   */
+  private Criteria afterCursor(String cursor) {
+    var separator = cursor.indexOf(CURSOR_SEPARATOR);
+    Date date;
+    try {
+      date = new Date(Long.parseLong(cursor.substring(0, Math.max(separator, 0))));
+    } catch (NumberFormatException e) {
+      throw new InvalidRequestException("Invalid cursor: " + cursor);
+    }
+    var bracketId = cursor.substring(separator + 1);
+    return new Criteria()
+      .orOperator(
+        Criteria.where("date").lt(date),
+        Criteria.where("date").is(date).and("_id").lt(bracketId)
+      );
+  }
+
+  /**
+   * Fetch every winner of the given brackets in a single query
+   */
+  private Map<String, Player> findWinners(List<Document> bracketDocs) {
+    var playerIds = bracketDocs
+      .stream()
+      .flatMap(bracketDoc -> bracketDoc.getList("winners", Object.class, List.of()).stream())
+      .map(Object::toString)
+      .collect(Collectors.toSet());
+    if (playerIds.isEmpty()) {
+      return Map.of();
+    }
+    return mongoTemplate
+      .find(new Query(Criteria.where("id").in(playerIds)), Player.class)
+      .stream()
+      .collect(Collectors.toMap(Player::getId, Function.identity()));
+  }
+}
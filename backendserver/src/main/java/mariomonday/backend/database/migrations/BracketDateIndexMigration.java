@@ -0,0 +1,48 @@
+package mariomonday.backend.database.migrations;
+
+import java.util.List;
+import mariomonday.backend.database.schema.Bracket;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+/**
+ * Drops the single-field index brackets used to have on their date. The date indexes on {@link Bracket} start with
+ * the date too, so it only costs writes now.
+ * Runs on startup, but only does any work while the old index is still there.
+ */
+public class BracketDateIndexMigration implements ApplicationRunner {
+
+  private final MongoTemplate mongoTemplate;
+
+  public BracketDateIndexMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    migrate();
+  }
+
+  /**
+   * Drop the old date index if there is one
+   * @return Whether the index needed to be dropped
+   */
+  public boolean migrate() {
+    var indexOps = mongoTemplate.indexOps(Bracket.class);
+    var oldIndexes = indexOps.getIndexInfo().stream().filter(BracketDateIndexMigration::isOldDateIndex).toList();
+    oldIndexes.forEach(index -> indexOps.dropIndex(index.getName()));
+    return !oldIndexes.isEmpty();
+  }
+
+  /**
+   * Whether an index is the old one on the date alone. Matched by its keys, since the name it was given depends on
+   * which version made it.
+   */
+  private static boolean isOldDateIndex(IndexInfo index) {
+    return index.getIndexFields().equals(List.of(IndexField.create("date", Direction.ASC)));
+  }
+}
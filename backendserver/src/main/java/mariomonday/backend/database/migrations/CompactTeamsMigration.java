@@ -0,0 +1,73 @@
+package mariomonday.backend.database.migrations;
+
+import java.util.List;
+import mariomonday.backend.database.converters.TeamIdsConverter;
+import mariomonday.backend.database.schema.Game;
+import mariomonday.backend.database.schema.GameSet;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Replaces teams stored in full within game sets and games with their IDs, as written by {@link TeamIdsConverter}.
+ * Runs on startup, but only does any work while some game set or game still has a team stored in full.
+ */
+public class CompactTeamsMigration implements ApplicationRunner {
+
+  private static final List<String> GAME_SET_TEAM_FIELDS = List.of("winners", "losers", "addedPlayerSets");
+
+  private static final List<String> GAME_TEAM_FIELDS = List.of("playerSets");
+
+  private final MongoTemplate mongoTemplate;
+
+  public CompactTeamsMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    migrate();
+  }
+
+  /**
+   * Store every team in a game set or game as its ID, with a single batch per collection
+   * @return Whether any game sets or games needed to be migrated
+   */
+  public boolean migrate() {
+    var migratedGameSets = migrate(GameSet.class, GAME_SET_TEAM_FIELDS);
+    var migratedGames = migrate(Game.class, GAME_TEAM_FIELDS);
+    return migratedGameSets || migratedGames;
+  }
+
+  private boolean migrate(Class<?> entityClass, List<String> teamFields) {
+    // Teams stored in full are embedded documents, which have an ID field
+    var query = new Query(
+      new Criteria().orOperator(teamFields.stream().map(field -> Criteria.where(field + "._id").exists(true)).toList())
+    );
+    teamFields.forEach(field -> query.fields().include(field));
+    var docs = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(entityClass));
+    if (docs.isEmpty()) {
+      return false;
+    }
+    var updates = mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass);
+    for (var doc : docs) {
+      var update = new Update();
+      for (var field : teamFields) {
+        var teamIds = doc
+          .getList(field, Object.class, List.of())
+          .stream()
+          .map(team -> (team instanceof Document teamDoc ? teamDoc.get("_id") : team).toString())
+          .toList();
+        update.set(field, teamIds);
+      }
+      updates.updateOne(new Query(Criteria.where("_id").is(doc.get("_id"))), update);
+    }
+    updates.execute();
+    return true;
+  }
+}
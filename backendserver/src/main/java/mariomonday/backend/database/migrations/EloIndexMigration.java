@@ -0,0 +1,59 @@
+package mariomonday.backend.database.migrations;
+
+import java.util.stream.Collectors;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+/**
+ * Indexes players by ELO for every game type, so they can be listed and loaded by ELO without sorting.
+ * The indexes are made from {@link GameType#values()}, so a new game type gets its index on the next startup.
+ * Runs on startup, but only does any work while some game type is still missing its index.
+ */
+public class EloIndexMigration implements ApplicationRunner {
+
+  private final MongoTemplate mongoTemplate;
+
+  public EloIndexMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    migrate();
+  }
+
+  /**
+   * Create the ELO index of every game type that does not have one yet
+   * @return Whether any indexes needed to be created
+   */
+  public boolean migrate() {
+    var indexOps = mongoTemplate.indexOps(Player.class);
+    var indexNames = indexOps.getIndexInfo().stream().map(IndexInfo::getName).collect(Collectors.toSet());
+    var created = false;
+    for (var gameType : GameType.values()) {
+      if (!indexNames.contains(indexName(gameType))) {
+        indexOps.createIndex(
+          new Index()
+            .on("eloMap." + gameType.name(), Direction.DESC)
+            .on("_id", Direction.ASC)
+            .named(indexName(gameType))
+        );
+        created = true;
+      }
+    }
+    return created;
+  }
+
+  /**
+   * Name of the ELO index of a game type
+   */
+  public static String indexName(GameType gameType) {
+    return "elo_" + gameType.name() + "_id";
+  }
+}
@@ -1,28 +1,36 @@
 package mariomonday.backend.database.schema;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.Singular;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 /**
- * A tournament, containing multiple games
+ * A tournament, containing multiple games.
+ * Brackets are indexed newest first, overall and per game type. The indexes include the ID,
+ * so the most recent bracket can be found from the index alone.
+ * They are also indexed in the order they were completed per game type, the order their ELO changes are made in.
  */
 @Data
 @Builder
 @Document
+@CompoundIndex(name = "date_id", def = "{'date': -1, '_id': -1}")
+@CompoundIndex(name = "gameType_date_id", def = "{'gameType': 1, 'date': -1, '_id': -1}")
+@CompoundIndex(
+  name = "gameType_completedAt_date_id",
+  def = "{'gameType': 1, 'completedAt': 1, 'date': 1, '_id': 1}"
+)
 public class Bracket {
 
   /**
@@ -35,7 +43,6 @@ public class Bracket {
    * The moment the bracket started
    */
   @NonNull
-  @Indexed
   private final Instant date;
 
   /**
@@ -43,6 +50,12 @@ public class Bracket {
    */
   private int rounds;
 
+  /**
+   * The moment the bracket was completed, null until then. No two brackets of a game type share a moment,
+   * so it gives the order brackets were completed in. Also null for brackets completed before it was recorded
+   */
+  private Instant completedAt;
+
   /**
    * The winners
    */
@@ -57,7 +70,8 @@ public class Bracket {
   private final GameType gameType;
 
   /**
-   * The teams who participated in this bracket. Teams can be a single player
+   * The teams who participated in this bracket. Teams can be a single player.
+   * This is the only full copy of each team, game sets and games only store team IDs
    */
   @Singular
   private Set<PlayerSet> teams;
@@ -69,6 +83,14 @@ public class Bracket {
   @Singular
   private Set<GameSet> gameSets;
 
+  /**
+   * Incremented on every write, so a write only succeeds if the bracket was not changed since it was read.
+   * Null until first saved
+   */
+  @Version
+  @EqualsAndHashCode.Exclude
+  private Long version;
+
   @JsonIgnore
   public GameSet getFinalGameSet() {
     return gameSets
@@ -92,14 +114,4 @@ public class Bracket {
       .flatMap(Collection::stream)
       .collect(Collectors.toSet());
   }
-
-  public static Bracket loadLazyBracket(Bracket bracket) {
-    try {
-      var objectMapper = new ObjectMapper();
-      objectMapper.registerModule(new JavaTimeModule());
-      return objectMapper.readValue(objectMapper.writeValueAsString(bracket), Bracket.class);
-    } catch (JsonProcessingException e) {
-      throw new RuntimeException("Failed to load lazy bracket. This should never happen");
-    }
-  }
 }
@@ -0,0 +1,54 @@
+package mariomonday.backend.database.schema;
+
+import java.time.Instant;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A bracket exactly as it is served over API, with game sets already ordered.
+ * Kept up to date on every write to the bracket so reads are a single lookup.
+ */
+@Data
+@Builder
+@Document
+public class BracketView {
+
+  /**
+   * ID of the bracket this is a view of
+   */
+  @Id
+  private final String id;
+
+  /**
+   * The moment the bracket started
+   */
+  @NonNull
+  @Indexed
+  private final Instant date;
+
+  /**
+   * The type of game the bracket is for
+   */
+  private final GameType gameType;
+
+  /**
+   * IDs of every player in the bracket, so views can be dropped when a player changes
+   */
+  @Indexed
+  private Set<String> playerIds;
+
+  /**
+   * Incremented every time the view is rebuilt, so clients can tell whether their copy is outdated
+   */
+  private long version;
+
+  /**
+   * The API bracket, serialized as JSON. Null if the view is outdated and must be rebuilt before use
+   */
+  private String json;
+}
@@ -5,7 +5,9 @@ import java.util.Set;
 import lombok.Builder;
 import lombok.Singular;
 import lombok.Value;
+import mariomonday.backend.database.converters.TeamIdsConverter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -24,9 +26,10 @@ public class Game {
   String id;
 
   /**
-   * The player IDs of the players in the game, ordered by their placement in the game.
+   * The teams in the game, ordered by their placement in the game. Only their IDs are stored
    */
   @Singular
+  @ValueConverter(TeamIdsConverter.class)
   List<PlayerSet> playerSets;
 
   /**
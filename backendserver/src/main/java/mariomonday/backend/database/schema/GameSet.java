@@ -1,16 +1,17 @@
 package mariomonday.backend.database.schema;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.common.collect.ImmutableSet;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Singular;
+import mariomonday.backend.database.converters.TeamIdsConverter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -35,18 +36,21 @@ public class GameSet implements Comparable<GameSet> {
    * The winners of the set
    */
   @Singular
+  @ValueConverter(TeamIdsConverter.class)
   private Set<PlayerSet> winners;
 
   /**
    * The losers of the set
    */
   @Singular
+  @ValueConverter(TeamIdsConverter.class)
   private Set<PlayerSet> losers;
 
   /**
    * The playerSets added to this set not from previous games
    */
   @Singular
+  @ValueConverter(TeamIdsConverter.class)
   private Set<PlayerSet> addedPlayerSets;
 
   /**
@@ -65,6 +69,14 @@ public class GameSet implements Comparable<GameSet> {
   @Singular
   private Set<Game> games;
 
+  /**
+   * Incremented on every write, so a write only succeeds if the game set was not changed since it was read.
+   * Null until first saved
+   */
+  @Version
+  @EqualsAndHashCode.Exclude
+  private Long version;
+
   @JsonIgnore
   public int getNumEmptySlots() {
     return Math.max(0, gameType.getMaxPlayerSets() - getTotalPlayers());
@@ -123,14 +135,4 @@ public class GameSet implements Comparable<GameSet> {
   public int compareTo(GameSet other) {
     return this.getId().compareTo(other.getId());
   }
-
-  public static GameSet loadLazyGameSet(GameSet gameSet) {
-    try {
-      var objectMapper = new ObjectMapper();
-      objectMapper.registerModule(new JavaTimeModule());
-      return objectMapper.readValue(objectMapper.writeValueAsString(gameSet), GameSet.class);
-    } catch (JsonProcessingException e) {
-      throw new RuntimeException("Failed to load lazy game set. This should never happen");
-    }
-  }
 }
@@ -1,5 +1,6 @@
 package mariomonday.backend.database.schema;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -10,11 +11,15 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
- * A single player, consistent across games
+ * A single player, consistent across games.
+ * Fields left out when listing players with a projection are null, and are left out of the JSON as well.
+ * Players are indexed by ELO for every game type, so they can be listed by ELO without sorting.
+ * The indexes are made on startup by {@link mariomonday.backend.database.migrations.EloIndexMigration}.
  */
 @Data
 @Builder
 @Document
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Player {
 
   /**
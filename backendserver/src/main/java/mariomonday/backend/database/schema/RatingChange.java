@@ -0,0 +1,68 @@
+package mariomonday.backend.database.schema;
+
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A change to a player's ELO from a single round of a completed bracket.
+ * Only ever appended to, so a player's ELO over time is a single range of the player index
+ * rather than replaying their brackets.
+ */
+@Data
+@Builder
+@Document
+@CompoundIndex(name = "playerId_gameType_date_round", def = "{'playerId': 1, 'gameType': 1, 'date': 1, 'round': 1}")
+public class RatingChange {
+
+  /**
+   * ID for the rating change
+   */
+  @Id
+  private final String id;
+
+  /**
+   * ID of the player whose ELO changed
+   */
+  @NonNull
+  private final String playerId;
+
+  /**
+   * The type of game the ELO is for
+   */
+  @NonNull
+  private final GameType gameType;
+
+  /**
+   * ID of the bracket the change came from
+   */
+  @NonNull
+  @Indexed
+  private final String bracketId;
+
+  /**
+   * The moment the bracket started
+   */
+  @NonNull
+  private final Instant date;
+
+  /**
+   * The round of the bracket the change came from, starting from 1
+   */
+  private final int round;
+
+  /**
+   * ELO before the round
+   */
+  private final int before;
+
+  /**
+   * ELO after the round
+   */
+  private final int after;
+}
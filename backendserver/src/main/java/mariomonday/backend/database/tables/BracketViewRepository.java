@@ -0,0 +1,9 @@
+package mariomonday.backend.database.tables;
+
+import mariomonday.backend.database.schema.BracketView;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Table for bracket views
+ */
+public interface BracketViewRepository extends MongoRepository<BracketView, String> {}
@@ -0,0 +1,9 @@
+package mariomonday.backend.database.tables;
+
+import mariomonday.backend.database.schema.RatingChange;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Table for the rating history of players
+ */
+public interface RatingChangeRepository extends MongoRepository<RatingChange, String> {}
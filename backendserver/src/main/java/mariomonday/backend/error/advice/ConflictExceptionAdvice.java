@@ -0,0 +1,20 @@
+package mariomonday.backend.error.advice;
+
+import mariomonday.backend.error.exceptions.ConflictException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Advice for ConflictException (409 status code)
+ */
+@RestControllerAdvice
+class ConflictExceptionAdvice {
+
+  @ExceptionHandler(ConflictException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  String conflictHandler(ConflictException ex) {
+    return ex.getMessage();
+  }
+}
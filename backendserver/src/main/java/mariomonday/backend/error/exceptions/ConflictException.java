@@ -0,0 +1,11 @@
+package mariomonday.backend.error.exceptions;
+
+/**
+ * Exception when something was changed by another process while updating it, and the update should be tried again
+ */
+public class ConflictException extends RuntimeException {
+
+  public ConflictException(String message) {
+    super(message);
+  }
+}
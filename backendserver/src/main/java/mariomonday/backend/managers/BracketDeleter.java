@@ -0,0 +1,115 @@
+package mariomonday.backend.managers;
+
+import com.google.common.collect.Lists;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.Game;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Deletes brackets along with all of their game sets and games.
+ * Only the IDs of the documents are read, and everything is deleted with one query per collection,
+ * so no references need to be resolved.
+ * Very large brackets can instead be purged in the background, where the bracket disappears right away
+ * and its game sets and games are deleted afterwards in batches.
+ */
+@Slf4j
+public class BracketDeleter {
+
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Executor background purges run on
+   */
+  private final Executor executor;
+
+  /**
+   * Number of game sets deleted at a time by a background purge
+   */
+  private final int batchSize;
+
+  public BracketDeleter(MongoTemplate mongoTemplate, Executor executor, int batchSize) {
+    this.mongoTemplate = mongoTemplate;
+    this.executor = executor;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Delete a bracket and everything in it
+   * @param bracketId The ID of the bracket to delete
+   * @throws NotFoundException If the bracket does not exist
+   */
+  public void delete(String bracketId) {
+    var gameSetIds = findGameSetIds(bracketId);
+    deleteAll(Game.class, findGameIds(gameSetIds));
+    deleteAll(GameSet.class, gameSetIds);
+    deleteAll(Bracket.class, List.of(bracketId));
+  }
+
+  /**
+   * Delete a bracket right away, and purge its game sets and games in the background
+   * @param bracketId The ID of the bracket to delete
+   * @return Completes once everything in the bracket has been purged. A failed purge is logged along with
+   *         the game sets it left behind, so they can be cleaned up by hand
+   * @throws NotFoundException If the bracket does not exist
+   */
+  public CompletableFuture<Void> deleteInBackground(String bracketId) {
+    var gameSetIds = findGameSetIds(bracketId);
+    deleteAll(Bracket.class, List.of(bracketId));
+    return CompletableFuture.runAsync(() -> purge(gameSetIds), executor).whenComplete((result, e) -> {
+      if (e != null) {
+        log.error("Failed to purge deleted bracket {}, game sets left behind: {}", bracketId, gameSetIds, e);
+      }
+    });
+  }
+
+  /**
+   * Delete the given game sets and their games in batches.
+   * Games go before their game sets, so an interrupted purge never leaves games that nothing points to
+   */
+  private void purge(List<Object> gameSetIds) {
+    for (var batch : Lists.partition(gameSetIds, batchSize)) {
+      deleteAll(Game.class, findGameIds(batch));
+      deleteAll(GameSet.class, batch);
+    }
+  }
+
+  private List<Object> findGameSetIds(String bracketId) {
+    var query = new Query(Criteria.where("_id").is(bracketId));
+    query.fields().include("gameSets");
+    var bracketDoc = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Bracket.class));
+    if (bracketDoc == null) {
+      throw new NotFoundException("Bracket not found");
+    }
+    return bracketDoc.getList("gameSets", Object.class, List.of());
+  }
+
+  private List<Object> findGameIds(Collection<Object> gameSetIds) {
+    if (gameSetIds.isEmpty()) {
+      return List.of();
+    }
+    var query = new Query(Criteria.where("_id").in(gameSetIds));
+    query.fields().include("games");
+    return mongoTemplate
+      .find(query, Document.class, mongoTemplate.getCollectionName(GameSet.class))
+      .stream()
+      .flatMap(gameSetDoc -> gameSetDoc.getList("games", Object.class, List.of()).stream())
+      .toList();
+  }
+
+  private void deleteAll(Class<?> entityClass, Collection<Object> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), mongoTemplate.getCollectionName(entityClass));
+  }
+}
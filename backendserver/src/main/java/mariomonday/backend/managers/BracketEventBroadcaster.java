@@ -0,0 +1,169 @@
+package mariomonday.backend.managers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import mariomonday.backend.apis.schema.BracketEvent;
+import mariomonday.backend.apis.schema.BracketEventType;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes changes to brackets to everyone watching them, as server-sent events.
+ * Emitters use asynchronous requests, so an idle subscriber does not hold on to a thread.
+ * Events are serialized once and queued for each subscriber separately, so a slow client only holds up itself,
+ * never the request that changed the bracket or the other subscribers.
+ * Every event of a bracket is numbered, in the order they were published.
+ */
+public class BracketEventBroadcaster {
+
+  /**
+   * How long a subscription stays open. Clients are expected to reconnect once it closes
+   */
+  private static final long SUBSCRIPTION_TIMEOUT_MILLIS = Duration.ofHours(1).toMillis();
+
+  /**
+   * How often a comment is sent to every subscriber, so proxies do not close idle subscriptions
+   * and clients that have gone away are noticed
+   */
+  static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(15);
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Executor shared by the send queues of every subscriber
+   */
+  private final Executor executor;
+
+  /**
+   * Open subscriptions by bracket ID, each with the queue its events are sent through in order
+   */
+  private final Map<String, Map<SseEmitter, Executor>> subscribers = new ConcurrentHashMap<>();
+
+  /**
+   * Sequence number of the last event published for each bracket
+   */
+  private final Map<String, Long> sequences = new ConcurrentHashMap<>();
+
+  public BracketEventBroadcaster(
+    ObjectMapper objectMapper,
+    Executor executor,
+    ScheduledExecutorService keepAliveScheduler
+  ) {
+    this.objectMapper = objectMapper;
+    this.executor = executor;
+    keepAliveScheduler.scheduleAtFixedRate(
+      this::sendKeepAlives,
+      KEEP_ALIVE_INTERVAL.toMillis(),
+      KEEP_ALIVE_INTERVAL.toMillis(),
+      TimeUnit.MILLISECONDS
+    );
+  }
+
+  /**
+   * Start watching a bracket
+   * @param bracketId The ID of the bracket to watch
+   * @return The emitter events for the bracket will be sent through
+   */
+  public SseEmitter subscribe(String bracketId) {
+    var emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT_MILLIS);
+    subscribers.compute(bracketId, (id, emitters) -> {
+      var result = emitters == null ? new ConcurrentHashMap<SseEmitter, Executor>() : emitters;
+      result.put(emitter, MoreExecutors.newSequentialExecutor(executor));
+      return result;
+    });
+    emitter.onCompletion(() -> unsubscribe(bracketId, emitter));
+    emitter.onTimeout(() -> unsubscribe(bracketId, emitter));
+    emitter.onError(e -> unsubscribe(bracketId, emitter));
+    return emitter;
+  }
+
+  /**
+   * Send an event to everyone watching its bracket, numbering it after the bracket's previous event.
+   * Must be called from the bracket's mailbox, in the same task as the change it is for,
+   * so events are numbered and sent in the order the changes were made
+   * @param event The change to the bracket
+   */
+  public void publish(BracketEvent event) {
+    var bracketId = event.getBracketId();
+    var deleted = event.getType() == BracketEventType.BRACKET_DELETED;
+    long sequence = sequences.merge(bracketId, 1L, Long::sum);
+    // Nothing else will happen to a deleted bracket, so its sequence and subscribers can be dropped right away
+    if (deleted) {
+      sequences.remove(bracketId);
+    }
+    var emitters = deleted ? subscribers.remove(bracketId) : subscribers.get(bracketId);
+    if (emitters == null) {
+      return;
+    }
+    var numbered = event.toBuilder().sequence(sequence).build();
+    var json = toJson(numbered);
+    emitters.forEach((emitter, sendQueue) ->
+      sendQueue.execute(() -> {
+        send(
+          bracketId,
+          emitter,
+          SseEmitter.event()
+            .id(String.valueOf(numbered.getSequence()))
+            .name(event.getType().name())
+            .data(json, MediaType.APPLICATION_JSON)
+        );
+        if (deleted) {
+          emitter.complete();
+        }
+      })
+    );
+  }
+
+  /**
+   * Send a comment to every subscriber, keeping their connections open
+   */
+  void sendKeepAlives() {
+    subscribers.forEach((bracketId, emitters) ->
+      emitters.forEach((emitter, sendQueue) ->
+        sendQueue.execute(() -> send(bracketId, emitter, SseEmitter.event().comment("keep-alive")))
+      )
+    );
+  }
+
+  /**
+   * Get the number of open subscriptions to a bracket
+   * @param bracketId The ID of the bracket
+   */
+  public int getSubscriberCount(String bracketId) {
+    var emitters = subscribers.get(bracketId);
+    return emitters == null ? 0 : emitters.size();
+  }
+
+  private void send(String bracketId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+    try {
+      emitter.send(event);
+    } catch (IOException | IllegalStateException e) {
+      // The client has gone away
+      emitter.completeWithError(e);
+      unsubscribe(bracketId, emitter);
+    }
+  }
+
+  private void unsubscribe(String bracketId, SseEmitter emitter) {
+    subscribers.computeIfPresent(bracketId, (id, emitters) -> {
+      emitters.remove(emitter);
+      return emitters.isEmpty() ? null : emitters;
+    });
+  }
+
+  private String toJson(BracketEvent event) {
+    try {
+      return objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize event for bracket " + event.getBracketId(), e);
+    }
+  }
+}
@@ -0,0 +1,341 @@
+package mariomonday.backend.managers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Value;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.BracketEvent;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.BracketView;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.database.tables.BracketViewRepository;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.managers.state.BracketStateEngine;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Maintains the materialized {@link BracketView} of each bracket.
+ * Every write to a bracket must call {@link #refresh(String)}, so that reads
+ * only need to look up the view rather than load and order the whole bracket.
+ * Views also embed player information, so they are marked outdated whenever one of their players changes
+ * and rebuilt the next time they are read.
+ * The serialized views are also cached in memory along with their version, so repeated reads of the same
+ * bracket do not touch the database at all. Only the most recently used brackets are kept, old brackets are
+ * rarely read and are served from their stored view instead.
+ */
+public class BracketViewManager {
+
+  private final BracketStateEngine bracketStateEngine;
+
+  private final BracketViewRepository bracketViewRepo;
+
+  private final MongoTemplate mongoTemplate;
+
+  private final ObjectMapper objectMapper;
+
+  private final BracketEventBroadcaster bracketEventBroadcaster;
+
+  /**
+   * Serialized brackets by bracket ID, up to a maximum number of brackets. Kept in sync by the write methods
+   * of this class
+   */
+  private final Map<String, SerializedBracket> cache;
+
+  /**
+   * Number of times views have been invalidated. A view read before an invalidation may be outdated,
+   * so it is not cached if this changed while it was being read
+   */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /**
+   * ID of the most recent bracket, or null if it needs to be looked up again
+   */
+  private volatile String currentBracketId;
+
+  /**
+   * ID of the most recent bracket of each game type that has been looked up
+   */
+  private final Map<GameType, String> currentBracketIdsByGameType = new ConcurrentHashMap<>();
+
+  public BracketViewManager(
+    BracketStateEngine bracketStateEngine,
+    BracketViewRepository bracketViewRepo,
+    MongoTemplate mongoTemplate,
+    ObjectMapper objectMapper,
+    BracketEventBroadcaster bracketEventBroadcaster,
+    long maxCachedBrackets
+  ) {
+    this.bracketStateEngine = bracketStateEngine;
+    this.bracketViewRepo = bracketViewRepo;
+    this.mongoTemplate = mongoTemplate;
+    this.objectMapper = objectMapper;
+    this.bracketEventBroadcaster = bracketEventBroadcaster;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxCachedBrackets).<String, SerializedBracket>build().asMap();
+  }
+
+  /**
+   * Get the given bracket ready to be sent, building its view if it does not exist or is outdated
+   * @param bracketId The ID of the bracket
+   * @return The bracket as it is served over API
+   */
+  public SerializedBracket get(String bracketId) {
+    var cached = cache.get(bracketId);
+    if (cached != null) {
+      return cached;
+    }
+    var invalidationsBefore = invalidations.get();
+    return bracketViewRepo
+      .findById(bracketId)
+      .filter(bracketView -> bracketView.getJson() != null)
+      .map(view -> cache(view, invalidationsBefore))
+      .orElseGet(() -> rebuild(bracketId, (apiBracket, serialized) -> serialized));
+  }
+
+  /**
+   * Get the most recent bracket ready to be sent
+   * @return The most recent bracket, or empty if there are no brackets
+   */
+  public Optional<SerializedBracket> getCurrent() {
+    return getCurrent(null);
+  }
+
+  /**
+   * Get the most recent bracket of a game type ready to be sent
+   * @param gameType The game type, or null for the most recent bracket of any game type
+   * @return The most recent bracket, or empty if there are no brackets of the game type
+   */
+  public Optional<SerializedBracket> getCurrent(GameType gameType) {
+    var bracketId = gameType == null ? currentBracketId : currentBracketIdsByGameType.get(gameType);
+    if (bracketId == null) {
+      var currentBracketDoc = mongoTemplate.findOne(
+        currentBracketQuery(gameType),
+        Document.class,
+        mongoTemplate.getCollectionName(Bracket.class)
+      );
+      if (currentBracketDoc == null) {
+        return Optional.empty();
+      }
+      bracketId = currentBracketDoc.get("_id").toString();
+      if (gameType == null) {
+        currentBracketId = bracketId;
+      } else {
+        currentBracketIdsByGameType.put(gameType, bracketId);
+      }
+    }
+    return Optional.of(get(bracketId));
+  }
+
+  /**
+   * Query for the ID of the most recent bracket. Only the ID is read,
+   * so the query is answered from the bracket indexes alone without reading any bracket
+   * @param gameType The game type, or null for the most recent bracket of any game type
+   */
+  public static Query currentBracketQuery(GameType gameType) {
+    var query = gameType == null ? new Query() : new Query(Criteria.where("gameType").is(gameType));
+    query.with(Sort.by(Order.desc("date"))).limit(1);
+    query.fields().include("id");
+    return query;
+  }
+
+  /**
+   * Rebuild the view of the given bracket from the database
+   * @param bracketId The ID of the bracket that was written to
+   * @return The up to date bracket, as it is served over API
+   */
+  public ApiBracket refresh(String bracketId) {
+    return rebuild(bracketId, (apiBracket, serialized) -> apiBracket);
+  }
+
+  /**
+   * Rebuild the view of the given bracket from the database, and tell its subscribers what changed.
+   * The event is published in the bracket's mailbox along with the view, so events go out in the order
+   * the changes were made
+   * @param bracketId The ID of the bracket that was written to
+   * @param event Builds the event from the up to date bracket. Its version is set to the new view's
+   * @return The up to date bracket, as it is served over API
+   */
+  public ApiBracket refresh(String bracketId, Function<ApiBracket, BracketEvent.BracketEventBuilder> event) {
+    return rebuild(bracketId, (apiBracket, serialized) -> {
+      bracketEventBroadcaster.publish(event.apply(apiBracket).version(serialized.getVersion()).build());
+      return apiBracket;
+    });
+  }
+
+  /**
+   * Remove the view of a deleted bracket
+   * @param bracketId The ID of the deleted bracket
+   */
+  public void delete(String bracketId) {
+    bracketViewRepo.deleteById(bracketId);
+    cache.remove(bracketId);
+    forgetCurrentBrackets();
+  }
+
+  /**
+   * Mark the views of every bracket containing any of the given players as outdated,
+   * they will be rebuilt the next time they are read. Their versions are bumped,
+   * so clients holding the outdated version do not get told it is still current
+   * @param playerIds The IDs of the players that changed
+   */
+  public void invalidatePlayers(Collection<String> playerIds) {
+    bracketStateEngine.evictPlayers(playerIds);
+    var query = new Query(Criteria.where("playerIds").in(playerIds));
+    query.fields().include("id");
+    var outdatedIds = mongoTemplate
+      .find(query, Document.class, mongoTemplate.getCollectionName(BracketView.class))
+      .stream()
+      .map(view -> view.get("_id").toString())
+      .toList();
+    mongoTemplate.updateMulti(query, new Update().unset("json").inc("version", 1), BracketView.class);
+    invalidations.incrementAndGet();
+    outdatedIds.forEach(cache::remove);
+  }
+
+  /**
+   * Mark the view of every bracket as outdated, they will be rebuilt the next time they are read.
+   * Needed when every player may have changed at once
+   */
+  public void invalidateAll() {
+    bracketStateEngine.clear();
+    mongoTemplate.updateMulti(new Query(), new Update().unset("json").inc("version", 1), BracketView.class);
+    invalidations.incrementAndGet();
+    clearCache();
+  }
+
+  /**
+   * Forget everything cached in memory. Only needed if brackets were changed without going through this class
+   */
+  public void clearCache() {
+    cache.clear();
+    forgetCurrentBrackets();
+  }
+
+  /**
+   * Build and save the view of the given bracket in the bracket's mailbox, so views are saved in the same order
+   * as the writes they were built from, and an older view never gets a newer version
+   * @param result What to return from the up to date bracket and its cached view
+   */
+  private <T> T rebuild(String bracketId, BiFunction<ApiBracket, SerializedBracket, T> result) {
+    return bracketStateEngine
+      .read(bracketId, bracket -> {
+        var invalidationsBefore = invalidations.get();
+        var apiBracket = ApiBracket.fromBracket(bracket);
+        return result.apply(apiBracket, cache(saveView(apiBracket), invalidationsBefore));
+      })
+      .orElseThrow(() -> new NotFoundException("Bracket not found with id: " + bracketId));
+  }
+
+  /**
+   * Write the view of the given bracket, bumping its version
+   */
+  private BracketView saveView(ApiBracket apiBracket) {
+    var playerIds = apiBracket
+      .getTeams()
+      .stream()
+      .map(PlayerSet::getPlayers)
+      .flatMap(Collection::stream)
+      .map(Player::getId)
+      .collect(Collectors.toSet());
+    var view = mongoTemplate.findAndModify(
+      new Query(Criteria.where("id").is(apiBracket.getId())),
+      new Update()
+        .set("date", apiBracket.getDate())
+        .set("gameType", apiBracket.getGameType())
+        .set("playerIds", playerIds)
+        .set("json", toJson(apiBracket))
+        .inc("version", 1),
+      FindAndModifyOptions.options().upsert(true).returnNew(true),
+      BracketView.class
+    );
+    if (view.getVersion() == 1) {
+      // This is a new bracket, which may now be the most recent one
+      forgetCurrentBrackets();
+    }
+    return view;
+  }
+
+  /**
+   * Look up the most recent brackets again the next time they are needed
+   */
+  private void forgetCurrentBrackets() {
+    currentBracketId = null;
+    currentBracketIdsByGameType.clear();
+  }
+
+  /**
+   * Store the view in the in memory cache, unless a newer version is already there
+   * or views were invalidated since it was read
+   * @param invalidationsBefore Number of invalidations before the view was read
+   */
+  private SerializedBracket cache(BracketView view, long invalidationsBefore) {
+    var serialized = new SerializedBracket(
+      view.getId(),
+      view.getVersion(),
+      view.getJson().getBytes(StandardCharsets.UTF_8)
+    );
+    var cached = cache.merge(view.getId(), serialized, (current, updated) ->
+      updated.getVersion() >= current.getVersion() ? updated : current
+    );
+    if (invalidations.get() != invalidationsBefore) {
+      // The invalidation may have removed the cached view before this one was stored
+      cache.remove(view.getId(), serialized);
+    }
+    return cached;
+  }
+
+  private String toJson(ApiBracket apiBracket) {
+    try {
+      return objectMapper.writeValueAsString(apiBracket);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize bracket " + apiBracket.getId(), e);
+    }
+  }
+
+  /**
+   * A bracket serialized as JSON, ready to be sent over API
+   */
+  @Value
+  public static class SerializedBracket {
+
+    /**
+     * ID of the bracket
+     */
+    String id;
+
+    /**
+     * Version of the bracket's view this was serialized from
+     */
+    long version;
+
+    /**
+     * The API bracket as UTF-8 JSON
+     */
+    byte[] json;
+
+    /**
+     * Strong entity tag identifying this version of the bracket
+     */
+    public String getETag() {
+      return "\"" + id + "-" + version + "\"";
+    }
+  }
+}
@@ -0,0 +1,502 @@
+package mariomonday.backend.managers;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+import lombok.Value;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.Game;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.RatingChange;
+import mariomonday.backend.managers.leaderboard.LeaderboardManager;
+import mariomonday.backend.managers.ratingcalculators.AbstractEloManager;
+import mariomonday.backend.managers.ratingcalculators.EloSet;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Works out every player's ELO from scratch, by replaying every completed bracket in the order they were completed,
+ * round by round the same way completing a bracket does. Needed whenever the way ELO is calculated changes.
+ * Brackets completed before their completion was recorded are replayed first, in the order they started.
+ * Brackets are streamed from the database one at a time, only the ELO of each player is held in memory.
+ * ELO of different game types never affect each other, so each game type is replayed on its own thread,
+ * and the game sets of a round are worked out in parallel too.
+ * Deleting a completed bracket only replays the brackets of its game type completed after it.
+ */
+public class EloReplayer {
+
+  /**
+   * Number of players written to the database at once
+   */
+  private static final int WRITE_BATCH_SIZE = 1000;
+
+  /**
+   * The order ELO changes were made in, which is the order brackets were completed in.
+   * Brackets without a completion time come first, oldest first, and in the order they were created if they
+   * started at the same moment. Follows the game type's bracket completion index, so brackets are read in order
+   * without sorting
+   */
+  private static final Sort REPLAY_ORDER = Sort.by(Order.asc("completedAt"), Order.asc("date"), Order.asc("_id"));
+
+  private final MongoTemplate mongoTemplate;
+
+  private final Clock clock;
+
+  private final AbstractEloManager eloManager;
+
+  private final LeaderboardManager leaderboardManager;
+
+  private final BracketViewManager bracketViewManager;
+
+  /**
+   * Runs the replay of each game type, and the game sets of each round
+   */
+  private final ForkJoinPool forkJoinPool;
+
+  /**
+   * Game set of each thread, reused for every game set the thread works out
+   */
+  private final ThreadLocal<EloSet> eloSets = ThreadLocal.withInitial(EloSet::new);
+
+  public EloReplayer(
+    MongoTemplate mongoTemplate,
+    Clock clock,
+    AbstractEloManager eloManager,
+    LeaderboardManager leaderboardManager,
+    BracketViewManager bracketViewManager,
+    ForkJoinPool forkJoinPool
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.clock = clock;
+    this.eloManager = eloManager;
+    this.leaderboardManager = leaderboardManager;
+    this.bracketViewManager = bracketViewManager;
+    this.forkJoinPool = forkJoinPool;
+  }
+
+  /**
+   * Replay every completed bracket and overwrite the ELO of every player with the result,
+   * writing the rating history again along the way.
+   * Players who never finished a bracket are reset to the starting ELO.
+   * Brackets cannot be completed while this runs.
+   * @return The number of brackets replayed
+   */
+  public int replay() {
+    var replayedCount = new int[1];
+    leaderboardManager.rewriteElo(() -> {
+      // Each game type only ever touches its own slot of a player's ELO array, so they can share the map
+      var elosByPlayerId = new ConcurrentHashMap<String, int[]>();
+      // The history is written again as the brackets are replayed
+      mongoTemplate.remove(new Query(), RatingChange.class);
+      var gameTypeReplays = Arrays.stream(GameType.values())
+        .map(gameType -> forkJoinPool.submit(() -> replayGameType(gameType, elosByPlayerId)))
+        .toList();
+      gameTypeReplays.forEach(gameTypeReplay -> replayedCount[0] += gameTypeReplay.join());
+      writeElos(elosByPlayerId);
+    });
+    // Every bracket shows the ELO of its players
+    bracketViewManager.invalidateAll();
+    return replayedCount[0];
+  }
+
+  /**
+   * Get the moment to record a bracket as completed. This is now, unless the clock is not past the last completed
+   * bracket of the game type, then it is just after that one, so brackets are replayed in the order they completed.
+   * Must be called while changing the game type's ELO, so no other bracket of it completes in the meantime
+   * @param gameType The game type of the bracket being completed
+   */
+  public Instant nextCompletionTime(GameType gameType) {
+    var lastCompletedQuery = new Query(Criteria.where("gameType").is(gameType).and("completedAt").ne(null))
+      .with(Sort.by(Order.desc("completedAt")))
+      .limit(1);
+    lastCompletedQuery.fields().include("completedAt");
+    var lastCompletedDoc = mongoTemplate.findOne(
+      lastCompletedQuery,
+      Document.class,
+      mongoTemplate.getCollectionName(Bracket.class)
+    );
+    var now = clock.instant().truncatedTo(ChronoUnit.MILLIS);
+    if (lastCompletedDoc == null) {
+      return now;
+    }
+    // Stored to the millisecond
+    var lastCompletedAt = lastCompletedDoc.getDate("completedAt").toInstant();
+    return now.isAfter(lastCompletedAt) ? now : lastCompletedAt.plusMillis(1);
+  }
+
+  /**
+   * Delete a bracket, undoing its ELO changes if it was completed.
+   * Rather than replaying every bracket, only the brackets of the same game type completed after it are replayed,
+   * starting from the ELO each of their players had right before the deleted bracket, read from the rating history.
+   * If any of those brackets has no rating history, every bracket has to be replayed instead.
+   * Must be called from the bracket's mailbox, so it cannot be completed in the meantime.
+   * The views of other brackets are not touched, since that waits on their mailboxes,
+   * pass the result to {@link #finishDelete(DeletedBracket)} once out of the mailbox
+   * @param bracketId The ID of the bracket to delete
+   * @param delete Deletes the bracket
+   * @return What is left to do once out of the bracket's mailbox
+   */
+  public DeletedBracket deleteBracket(String bracketId, Runnable delete) {
+    var bracketQuery = new Query(Criteria.where("_id").is(bracketId));
+    bracketQuery.fields().include("gameType", "date", "completedAt", "winners");
+    var bracketCollection = mongoTemplate.getCollectionName(Bracket.class);
+    var bracketDoc = mongoTemplate.findOne(bracketQuery, Document.class, bracketCollection);
+    if (bracketDoc == null || bracketDoc.getList("winners", Object.class, List.of()).isEmpty()) {
+      // Nothing to undo
+      delete.run();
+      return new DeletedBracket(false, Set.of());
+    }
+    var deleted = new DeletedBracket[1];
+    leaderboardManager.rewriteElo(() -> {
+      delete.run();
+      var rolledBack = forkJoinPool.submit(() -> replayAfter(bracketDoc)).join();
+      deleted[0] = rolledBack
+        .map(playerIds -> new DeletedBracket(false, playerIds))
+        .orElse(new DeletedBracket(true, Set.of()));
+    });
+    return deleted[0];
+  }
+
+  /**
+   * Finish deleting a bracket, replaying every bracket if needed and marking the views of the brackets
+   * whose players' ELO changed as outdated. Must not be called from any bracket's mailbox
+   * @param deleted The result of {@link #deleteBracket(String, Runnable)}
+   */
+  public void finishDelete(DeletedBracket deleted) {
+    if (deleted.isReplayNeeded()) {
+      // Other ELO changes may have been made since the bracket was deleted, the replay starts over so includes them
+      replay();
+    } else if (!deleted.getChangedPlayerIds().isEmpty()) {
+      // Other brackets these players were in show their old ELO
+      bracketViewManager.invalidatePlayers(deleted.getChangedPlayerIds());
+    }
+  }
+
+  /**
+   * Replay the completed brackets of the same game type that were completed after a deleted bracket
+   * @param deletedBracketDoc The deleted bracket
+   * @return The IDs of the players whose ELO was replayed,
+   *         or empty if the rating history does not cover every bracket that needs replaying
+   */
+  private Optional<Set<String>> replayAfter(Document deletedBracketDoc) {
+    var gameType = GameType.valueOf(deletedBracketDoc.getString("gameType"));
+    var completedAt = deletedBracketDoc.getDate("completedAt");
+    var date = deletedBracketDoc.getDate("date");
+    // Follows REPLAY_ORDER, brackets without a completion time come before every bracket with one
+    var laterCriteria = completedCriteria(gameType).orOperator(
+      completedAt == null ? Criteria.where("completedAt").ne(null) : Criteria.where("completedAt").gt(completedAt),
+      Criteria.where("completedAt").is(completedAt).and("date").gt(date),
+      Criteria.where("completedAt").is(completedAt).and("date").is(date).and("_id").gt(deletedBracketDoc.get("_id"))
+    );
+    var laterIdsQuery = new Query(laterCriteria).with(REPLAY_ORDER);
+    laterIdsQuery.fields().include("_id");
+    // Position of each bracket in replay order, the deleted bracket first
+    var positionsByBracketId = new HashMap<String, Integer>();
+    positionsByBracketId.put(idOf(deletedBracketDoc), 0);
+    try (
+      var laterIds = mongoTemplate.stream(laterIdsQuery, Document.class, mongoTemplate.getCollectionName(Bracket.class))
+    ) {
+      laterIds.forEach(laterId -> positionsByBracketId.put(idOf(laterId), positionsByBracketId.size()));
+    }
+
+    // The first change to each player's ELO from then on says what their ELO was before the deleted bracket
+    var historyQuery = new Query(Criteria.where("bracketId").in(positionsByBracketId.keySet()));
+    historyQuery.fields().include("playerId", "bracketId", "round", "before");
+    var firstChangesByPlayerId = new HashMap<String, Document>();
+    var bracketIdsWithHistory = new HashSet<String>();
+    Comparator<Document> replayOrder = Comparator.<Document>comparingInt(change ->
+      positionsByBracketId.get(change.getString("bracketId"))
+    ).thenComparingInt(change -> change.getInteger("round"));
+    var historyCollection = mongoTemplate.getCollectionName(RatingChange.class);
+    try (var changes = mongoTemplate.stream(historyQuery, Document.class, historyCollection)) {
+      changes.forEach(change -> {
+        bracketIdsWithHistory.add(change.getString("bracketId"));
+        firstChangesByPlayerId.merge(change.getString("playerId"), change, BinaryOperator.minBy(replayOrder));
+      });
+    }
+    if (bracketIdsWithHistory.size() < positionsByBracketId.size()) {
+      return Optional.empty();
+    }
+    var elosByPlayerId = new HashMap<String, int[]>();
+    firstChangesByPlayerId.forEach((playerId, change) ->
+      eloOf(elosByPlayerId, playerId)[gameType.ordinal()] = change.getInteger("before")
+    );
+
+    mongoTemplate.remove(historyQuery, RatingChange.class);
+    replayBrackets(new Query(laterCriteria), gameType, elosByPlayerId);
+    var writes = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+    elosByPlayerId.forEach((playerId, elos) ->
+      writes.updateOne(
+        new Query(Criteria.where("id").is(playerId)),
+        new Update().set("eloMap." + gameType.name(), elos[gameType.ordinal()])
+      )
+    );
+    if (!elosByPlayerId.isEmpty()) {
+      writes.execute();
+    }
+    return Optional.of(elosByPlayerId.keySet());
+  }
+
+  /**
+   * Replay every completed bracket of a game type, in the order they were completed
+   * @return The number of brackets replayed
+   */
+  private int replayGameType(GameType gameType, Map<String, int[]> elosByPlayerId) {
+    return replayBrackets(new Query(completedCriteria(gameType)), gameType, elosByPlayerId);
+  }
+
+  /**
+   * Replay the brackets matching a query, in the order they were completed
+   * @return The number of brackets replayed
+   */
+  private int replayBrackets(Query query, GameType gameType, Map<String, int[]> elosByPlayerId) {
+    var replayedCount = new int[1];
+    query.with(REPLAY_ORDER).fields().include("date", "teams", "gameSets");
+    var bracketCollection = mongoTemplate.getCollectionName(Bracket.class);
+    try (var bracketDocs = mongoTemplate.stream(query, Document.class, bracketCollection)) {
+      bracketDocs.forEach(bracketDoc -> {
+        replayBracket(bracketDoc, gameType, elosByPlayerId);
+        replayedCount[0]++;
+      });
+    }
+    return replayedCount[0];
+  }
+
+  private static Criteria completedCriteria(GameType gameType) {
+    return Criteria.where("gameType").is(gameType).and("winners.0").exists(true);
+  }
+
+  /**
+   * Replay a single bracket, adding its ELO changes to the players and to their rating history
+   */
+  private void replayBracket(Document bracketDoc, GameType gameType, Map<String, int[]> elosByPlayerId) {
+    Map<String, List<String>> playerIdsByTeamId = new LinkedHashMap<>();
+    for (var teamDoc : bracketDoc.getList("teams", Document.class, List.of())) {
+      playerIdsByTeamId.put(
+        idOf(teamDoc),
+        teamDoc.getList("players", Object.class, List.of()).stream().map(Object::toString).toList()
+      );
+    }
+    var gameSetDocs = findAllById(
+      GameSet.class,
+      bracketDoc.getList("gameSets", Object.class, List.of()),
+      "roundIndex",
+      "games"
+    );
+    var gameDocsById = new HashMap<String, Document>();
+    findAllById(
+      Game.class,
+      gameSetDocs
+        .stream()
+        .flatMap(gameSetDoc -> gameSetDoc.getList("games", Object.class, List.of()).stream())
+        .toList(),
+      "playerSets"
+    ).forEach(gameDoc -> gameDocsById.put(idOf(gameDoc), gameDoc));
+
+    // Round one has the highest round index
+    var gameSetDocsByRound = new TreeMap<Integer, List<Document>>(Comparator.reverseOrder());
+    for (var gameSetDoc : gameSetDocs) {
+      gameSetDocsByRound
+        .computeIfAbsent(gameSetDoc.getInteger("roundIndex"), round -> new ArrayList<>())
+        .add(gameSetDoc);
+    }
+    var ratingChanges = new ArrayList<RatingChange>();
+    var roundNumber = 0;
+    for (var round : gameSetDocsByRound.values()) {
+      roundNumber++;
+      var gameSetReplays = new ArrayList<ForkJoinTask<Map<String, Integer>>>();
+      for (var gameSetDoc : round) {
+        var games = gameSetDoc
+          .getList("games", Object.class, List.of())
+          .stream()
+          .map(gameId -> gameDocsById.get(gameId.toString()))
+          .filter(Objects::nonNull)
+          .map(gameDoc ->
+            gameDoc.getList("playerSets", Object.class, List.of()).stream().map(EloReplayer::teamIdOf).toList()
+          )
+          .toList();
+        // Forfeits and byes do not change ELO
+        if (!games.isEmpty()) {
+          gameSetReplays.add(
+            ForkJoinTask.adapt(() -> calculateEloChange(games, gameType, playerIdsByTeamId, elosByPlayerId))
+          );
+        }
+      }
+      // Every game set in a round is worked out from the ELO at the start of the round,
+      // so they do not depend on each other and are worked out at the same time
+      ForkJoinTask.invokeAll(gameSetReplays);
+      var roundEloChange = new HashMap<String, Integer>();
+      gameSetReplays.forEach(gameSetReplay -> gameSetReplay.join().forEach((teamId, eloChange) ->
+        roundEloChange.merge(teamId, eloChange, Integer::sum)
+      ));
+      // Split each team's points evenly between its players
+      for (var teamEloChange : roundEloChange.entrySet()) {
+        var playerIds = playerIdsByTeamId.get(teamEloChange.getKey());
+        var eloChange = teamEloChange.getValue() / playerIds.size();
+        for (var playerId : playerIds) {
+          var elos = eloOf(elosByPlayerId, playerId);
+          ratingChanges.add(
+            RatingChange.builder()
+              .playerId(playerId)
+              .gameType(gameType)
+              .bracketId(idOf(bracketDoc))
+              .date(bracketDoc.getDate("date").toInstant())
+              .round(roundNumber)
+              .before(elos[gameType.ordinal()])
+              .after(elos[gameType.ordinal()] + eloChange)
+              .build()
+          );
+          elos[gameType.ordinal()] += eloChange;
+        }
+      }
+    }
+    mongoTemplate.insert(ratingChanges, RatingChange.class);
+  }
+
+  /**
+   * Work out the ELO change of each team in a game set
+   * @param games The team IDs of each game, in the order they finished
+   * @return The ELO to add to each team, by team ID
+   */
+  private Map<String, Integer> calculateEloChange(
+    List<List<String>> games,
+    GameType gameType,
+    Map<String, List<String>> playerIdsByTeamId,
+    Map<String, int[]> elosByPlayerId
+  ) {
+    var teamIds = games.get(0);
+    var eloSet = eloSets.get().reset(teamIds.size(), games.size());
+    for (int team = 0; team < teamIds.size(); team++) {
+      var teamElo = 0;
+      for (var playerId : playerIdsByTeamId.get(teamIds.get(team))) {
+        teamElo += eloOf(elosByPlayerId, playerId)[gameType.ordinal()];
+      }
+      eloSet.setTeamElo(team, teamElo);
+    }
+    for (int game = 0; game < games.size(); game++) {
+      for (int place = 0; place < teamIds.size(); place++) {
+        var team = teamIds.indexOf(games.get(game).get(place));
+        if (team == -1) {
+          throw new IllegalArgumentException("All games in a set must have the same players");
+        }
+        eloSet.setPlacement(game, place, team);
+      }
+    }
+    eloManager.calculateEloChange(eloSet, gameType);
+    var eloChange = new HashMap<String, Integer>();
+    for (int team = 0; team < teamIds.size(); team++) {
+      eloChange.put(teamIds.get(team), eloSet.getEloChange(team));
+    }
+    return eloChange;
+  }
+
+  /**
+   * Overwrite the ELO of every player, in batches
+   */
+  private void writeElos(Map<String, int[]> elosByPlayerId) {
+    var query = new Query();
+    query.fields().include("id");
+    var batch = new ArrayList<String>();
+    try (var players = mongoTemplate.stream(query, Player.class)) {
+      players.forEach(player -> {
+        batch.add(player.getId());
+        if (batch.size() == WRITE_BATCH_SIZE) {
+          writeBatch(batch, elosByPlayerId);
+          batch.clear();
+        }
+      });
+    }
+    if (!batch.isEmpty()) {
+      writeBatch(batch, elosByPlayerId);
+    }
+  }
+
+  private void writeBatch(Collection<String> playerIds, Map<String, int[]> elosByPlayerId) {
+    var writes = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+    for (var playerId : playerIds) {
+      var elos = eloOf(elosByPlayerId, playerId);
+      var eloMap = new LinkedHashMap<GameType, Integer>();
+      for (var gameType : GameType.values()) {
+        eloMap.put(gameType, elos[gameType.ordinal()]);
+      }
+      writes.updateOne(new Query(Criteria.where("id").is(playerId)), new Update().set("eloMap", eloMap));
+    }
+    writes.execute();
+  }
+
+  /**
+   * Get the ELO of a player for every game type, indexed by game type ordinal, starting them off if they are new
+   */
+  private static int[] eloOf(Map<String, int[]> elosByPlayerId, String playerId) {
+    return elosByPlayerId.computeIfAbsent(playerId, id -> {
+      var elos = new int[GameType.values().length];
+      Arrays.fill(elos, Player.STARTING_ELO);
+      return elos;
+    });
+  }
+
+  /**
+   * Fetch the raw documents with the given IDs in a single query, with only the given fields
+   */
+  private List<Document> findAllById(Class<?> entityClass, List<Object> ids, String... fields) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    var query = new Query(Criteria.where("_id").in(ids));
+    query.fields().include(fields);
+    return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(entityClass));
+  }
+
+  /**
+   * Get the ID of a stored team, which is stored as an ID, or embedded in full if it was stored before that
+   */
+  private static String teamIdOf(Object storedTeam) {
+    return storedTeam instanceof Document teamDoc ? idOf(teamDoc) : storedTeam.toString();
+  }
+
+  private static String idOf(Document doc) {
+    return doc.get("_id").toString();
+  }
+
+  /**
+   * What is left to do after deleting a bracket, once out of its mailbox
+   */
+  @Value
+  public static class DeletedBracket {
+
+    /**
+     * Whether every bracket has to be replayed, since the rating history did not cover the brackets after it
+     */
+    boolean replayNeeded;
+
+    /**
+     * The IDs of the players whose ELO was rolled back
+     */
+    Set<String> changedPlayerIds;
+  }
+}
@@ -0,0 +1,104 @@
+package mariomonday.backend.managers.leaderboard;
+
+/**
+ * Number of players at each ELO, kept in a Fenwick tree so the number of players above any ELO
+ * is found in logarithmic time.
+ * Covers a range of ELO values, which grows whenever an ELO outside of it is added.
+ */
+class EloCounts {
+
+  /**
+   * Number of ELO values covered when first created
+   */
+  private static final int INITIAL_SIZE = 4096;
+
+  /**
+   * Lowest ELO covered
+   */
+  private int origin;
+
+  /**
+   * Fenwick tree over the covered ELO values, 1-indexed
+   */
+  private int[] tree;
+
+  private int total;
+
+  /**
+   * @param centre An ELO to start the covered range around
+   */
+  EloCounts(int centre) {
+    origin = centre - INITIAL_SIZE / 2;
+    tree = new int[INITIAL_SIZE + 1];
+  }
+
+  /**
+   * Change the number of players at an ELO
+   * @param elo The ELO
+   * @param delta How many players to add, negative to remove
+   */
+  void add(int elo, int delta) {
+    if (elo < origin || elo >= origin + size()) {
+      grow(elo);
+    }
+    for (int i = elo - origin + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+    total += delta;
+  }
+
+  /**
+   * Number of players with an ELO strictly higher than the given one
+   */
+  int countAbove(int elo) {
+    return total - countAtMost(elo);
+  }
+
+  /**
+   * Number of players with an ELO no higher than the given one
+   */
+  private int countAtMost(int elo) {
+    if (elo < origin) {
+      return 0;
+    }
+    var count = 0;
+    for (int i = Math.min(elo - origin + 1, size()); i > 0; i -= i & -i) {
+      count += tree[i];
+    }
+    return count;
+  }
+
+  private int size() {
+    return tree.length - 1;
+  }
+
+  /**
+   * Double the covered range until it covers the given ELO, keeping every count
+   */
+  private void grow(int elo) {
+    var newOrigin = origin;
+    var newSize = size();
+    while (elo < newOrigin || elo >= newOrigin + newSize) {
+      // Grow towards the ELO, so values drifting one way do not keep doubling both ends
+      if (elo < newOrigin) {
+        newOrigin -= newSize;
+      }
+      newSize *= 2;
+    }
+    var counts = new int[newSize];
+    for (int value = origin; value < origin + size(); value++) {
+      counts[value - newOrigin] = countAtMost(value) - countAtMost(value - 1);
+    }
+    // Build the tree in linear time by pushing each node's count up to its parent
+    var newTree = new int[newSize + 1];
+    for (int i = 1; i <= newSize; i++) {
+      newTree[i] += counts[i - 1];
+      var parent = i + (i & -i);
+      if (parent <= newSize) {
+        newTree[parent] += newTree[i];
+      }
+    }
+    origin = newOrigin;
+    tree = newTree;
+  }
+}
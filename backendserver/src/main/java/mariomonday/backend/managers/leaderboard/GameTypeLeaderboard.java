@@ -0,0 +1,158 @@
+package mariomonday.backend.managers.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.Value;
+
+/**
+ * The players of a single game type, ordered by ELO.
+ * Players are kept in a sorted set, so the top players and the players around any player are found
+ * in logarithmic time plus the number of players returned, and ranks come from {@link EloCounts}.
+ * Players with the same ELO share a rank, and are ordered by ID.
+ */
+class GameTypeLeaderboard {
+
+  private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::getElo)
+    .reversed()
+    .thenComparing(Entry::getPlayerId);
+
+  private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+
+  private final Map<String, Integer> elosByPlayerId = new HashMap<>();
+
+  private final EloCounts eloCounts;
+
+  /**
+   * Reads run in parallel, changes run alone
+   */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * @param typicalElo The ELO most players are around
+   */
+  GameTypeLeaderboard(int typicalElo) {
+    eloCounts = new EloCounts(typicalElo);
+  }
+
+  /**
+   * Add a player, or replace their ELO if they are already on the leaderboard
+   */
+  void put(String playerId, int elo) {
+    lock.writeLock().lock();
+    try {
+      removeUnlocked(playerId);
+      entries.add(new Entry(playerId, elo));
+      elosByPlayerId.put(playerId, elo);
+      eloCounts.add(elo, 1);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add to a player's ELO. Players who are not on the leaderboard are left out
+   */
+  void addElo(String playerId, int eloChange) {
+    lock.writeLock().lock();
+    try {
+      var elo = elosByPlayerId.get(playerId);
+      if (elo != null && eloChange != 0) {
+        removeUnlocked(playerId);
+        entries.add(new Entry(playerId, elo + eloChange));
+        elosByPlayerId.put(playerId, elo + eloChange);
+        eloCounts.add(elo + eloChange, 1);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void remove(String playerId) {
+    lock.writeLock().lock();
+    try {
+      removeUnlocked(playerId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get the highest ranked players
+   * @param limit The number of players to get
+   */
+  List<RankedEntry> top(int limit) {
+    lock.readLock().lock();
+    try {
+      return rank(entries.stream().limit(limit).toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get a player along with the players ranked just above and below them
+   * @param playerId The ID of the player
+   * @param range The number of players to get on each side of the player
+   * @return The players in rank order, or empty if the player is not on the leaderboard
+   */
+  Optional<List<RankedEntry>> around(String playerId, int range) {
+    lock.readLock().lock();
+    try {
+      var elo = elosByPlayerId.get(playerId);
+      if (elo == null) {
+        return Optional.empty();
+      }
+      var entry = new Entry(playerId, elo);
+      var result = new ArrayList<Entry>();
+      entries.headSet(entry, false).descendingSet().stream().limit(range).forEach(above -> result.add(0, above));
+      result.add(entry);
+      entries.tailSet(entry, false).stream().limit(range).forEach(result::add);
+      return Optional.of(rank(result));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void removeUnlocked(String playerId) {
+    var elo = elosByPlayerId.remove(playerId);
+    if (elo != null) {
+      entries.remove(new Entry(playerId, elo));
+      eloCounts.add(elo, -1);
+    }
+  }
+
+  private List<RankedEntry> rank(List<Entry> rankedEntries) {
+    return rankedEntries
+      .stream()
+      .map(entry -> new RankedEntry(entry.getPlayerId(), entry.getElo(), eloCounts.countAbove(entry.getElo()) + 1))
+      .toList();
+  }
+
+  @Value
+  private static class Entry {
+
+    String playerId;
+
+    int elo;
+  }
+
+  /**
+   * A player on the leaderboard along with their rank, starting from 1
+   */
+  @Value
+  static class RankedEntry {
+
+    String playerId;
+
+    int elo;
+
+    int rank;
+  }
+}
@@ -0,0 +1,206 @@
+package mariomonday.backend.managers.leaderboard;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiLeaderboardEntry;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.managers.leaderboard.GameTypeLeaderboard.RankedEntry;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Keeps a leaderboard of every game type in memory, so ranks are found without sorting every player.
+ * The leaderboards are read from the player ELO indexes the first time they are needed,
+ * and kept up to date as players are added, removed, and their ELO changes.
+ */
+public class LeaderboardManager {
+
+  /**
+   * Mongo template object, used to read players
+   */
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Leaderboard of each game type, or null until first needed
+   */
+  private volatile Map<GameType, GameTypeLeaderboard> leaderboards;
+
+  /**
+   * Held while loading the leaderboards and while changing them, so a change made while loading
+   * is applied after the load rather than lost or counted twice
+   */
+  private final Lock eloLock = new ReentrantLock();
+
+  public LeaderboardManager(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Get the highest ranked players of a game type
+   * @param gameType The game type
+   * @param limit The number of players to get
+   * @return The players in rank order
+   */
+  public List<ApiLeaderboardEntry> getTop(GameType gameType, int limit) {
+    return toApiEntries(getLeaderboards().get(gameType).top(limit));
+  }
+
+  /**
+   * Get a player's place on the leaderboard of a game type, along with the players ranked just above and below them
+   * @param gameType The game type
+   * @param playerId The ID of the player
+   * @param range The number of players to get on each side of the player
+   * @return The players in rank order, or empty if the player is not on the leaderboard
+   */
+  public Optional<List<ApiLeaderboardEntry>> getAround(GameType gameType, String playerId, int range) {
+    return getLeaderboards().get(gameType).around(playerId, range).map(this::toApiEntries);
+  }
+
+  /**
+   * Add a new player to every leaderboard they have an ELO for
+   */
+  public void addPlayer(Player player) {
+    eloLock.lock();
+    try {
+      var loaded = leaderboards;
+      if (loaded != null && player.getEloMap() != null) {
+        player.getEloMap().forEach((gameType, elo) -> loaded.get(gameType).put(player.getId(), elo));
+      }
+    } finally {
+      eloLock.unlock();
+    }
+  }
+
+  /**
+   * Remove a deleted player from every leaderboard
+   */
+  public void removePlayer(String playerId) {
+    eloLock.lock();
+    try {
+      var loaded = leaderboards;
+      if (loaded != null) {
+        loaded.values().forEach(leaderboard -> leaderboard.remove(playerId));
+      }
+    } finally {
+      eloLock.unlock();
+    }
+  }
+
+  /**
+   * Change the ELO of players, both in the database and on the leaderboard.
+   * No other ELO changes are made while the write runs, so it can read the players' ELO and work out the changes
+   * knowing they stay current. The leaderboard is left alone if the write throws
+   * @param gameType The game type the ELO is for
+   * @param write Adds the ELO changes to the players in the database,
+   *              returning the ELO added to each player, keyed by player ID
+   */
+  public void changeElo(GameType gameType, Supplier<Map<String, Integer>> write) {
+    eloLock.lock();
+    try {
+      var playerEloChange = write.get();
+      var loaded = leaderboards;
+      if (loaded != null) {
+        playerEloChange.forEach((playerId, eloChange) -> loaded.get(gameType).addElo(playerId, eloChange));
+      }
+    } finally {
+      eloLock.unlock();
+    }
+  }
+
+  /**
+   * Rewrite the ELO of players in the database, with no other ELO changes made until it is done.
+   * The leaderboards are read from the database again afterwards
+   * @param write Overwrites the ELO of players in the database
+   */
+  public void rewriteElo(Runnable write) {
+    eloLock.lock();
+    try {
+      write.run();
+      leaderboards = null;
+    } finally {
+      eloLock.unlock();
+    }
+  }
+
+  /**
+   * Drop the leaderboards, so they are read from the database again the next time they are needed.
+   * Only needed if players were changed without going through this class
+   */
+  public void clear() {
+    eloLock.lock();
+    try {
+      leaderboards = null;
+    } finally {
+      eloLock.unlock();
+    }
+  }
+
+  private Map<GameType, GameTypeLeaderboard> getLeaderboards() {
+    var loaded = leaderboards;
+    if (loaded != null) {
+      return loaded;
+    }
+    eloLock.lock();
+    try {
+      if (leaderboards == null) {
+        leaderboards = load();
+      }
+      return leaderboards;
+    } finally {
+      eloLock.unlock();
+    }
+  }
+
+  /**
+   * Read every leaderboard from the database, each in ELO order through its index
+   */
+  private Map<GameType, GameTypeLeaderboard> load() {
+    var loaded = new EnumMap<GameType, GameTypeLeaderboard>(GameType.class);
+    for (var gameType : GameType.values()) {
+      var leaderboard = new GameTypeLeaderboard(Player.STARTING_ELO);
+      var eloField = "eloMap." + gameType.name();
+      var query = new Query(Criteria.where(eloField).exists(true)).with(
+        Sort.by(Order.desc(eloField), Order.asc("id"))
+      );
+      query.fields().include(eloField);
+      try (var players = mongoTemplate.stream(query, Player.class)) {
+        players.forEach(player -> leaderboard.put(player.getId(), player.getEloMap().get(gameType)));
+      }
+      loaded.put(gameType, leaderboard);
+    }
+    return loaded;
+  }
+
+  /**
+   * Attach the players to leaderboard entries, reading all of them in a single query
+   */
+  private List<ApiLeaderboardEntry> toApiEntries(List<RankedEntry> entries) {
+    var playerIds = entries.stream().map(RankedEntry::getPlayerId).toList();
+    Map<String, Player> playersById = mongoTemplate
+      .find(new Query(Criteria.where("id").in(playerIds)), Player.class)
+      .stream()
+      .collect(Collectors.toMap(Player::getId, Function.identity()));
+    return entries
+      .stream()
+      .filter(entry -> playersById.containsKey(entry.getPlayerId()))
+      .map(entry ->
+        ApiLeaderboardEntry.builder()
+          .rank(entry.getRank())
+          .elo(entry.getElo())
+          .player(playersById.get(entry.getPlayerId()))
+          .build()
+      )
+      .toList();
+  }
+}
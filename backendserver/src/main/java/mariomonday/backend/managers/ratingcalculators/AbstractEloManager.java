@@ -1,11 +1,9 @@
 package mariomonday.backend.managers.ratingcalculators;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 import mariomonday.backend.database.schema.GameType;
 import mariomonday.backend.database.schema.PlayerSet;
 
@@ -28,6 +26,7 @@ public abstract class AbstractEloManager {
    * NOTE: The reason this is abstract is that I do not know how we plan to handle Mario Kart
    * and I want to keep it open-ended. We can either treat all winners and losers the same,
    * or order them and treat 3rd place differently from 4th.
+   * Works through {@link #calculateEloChange(EloSet, GameType)}, numbering the teams of the first game.
    * @param gameResults List of lists, where each outer entry is a game,
    *                    and each inner entry is the result of that game as an ordered list of players,
    *                    with the first entry being the player who came first
@@ -39,77 +38,98 @@ public abstract class AbstractEloManager {
     if (gameResults.isEmpty()) {
       throw new IllegalArgumentException("Must have at least one game");
     }
-    var playerCount = gameResults.get(0).size();
-    var players = new HashSet<>(gameResults.get(0));
-    if (!gameResults.stream().allMatch(game -> game.size() == playerCount)) {
-      throw new IllegalArgumentException("All games in a set must have the same number of players");
+    var teams = List.copyOf(new LinkedHashSet<>(gameResults.get(0)));
+    var teamIndexes = new HashMap<PlayerSet, Integer>();
+    var eloSet = new EloSet().reset(teams.size(), gameResults.size());
+    for (int team = 0; team < teams.size(); team++) {
+      teamIndexes.put(teams.get(team), team);
+      eloSet.setTeamElo(
+        team,
+        teams
+          .get(team)
+          .getPlayers()
+          .stream()
+          .mapToInt(p -> p.getEloMap().get(gameType))
+          .sum()
+      );
+    }
+    for (int game = 0; game < gameResults.size(); game++) {
+      var gameResult = gameResults.get(game);
+      if (gameResult.size() != teams.size()) {
+        throw new IllegalArgumentException("All games in a set must have the same number of players");
+      }
+      for (int place = 0; place < teams.size(); place++) {
+        var team = teamIndexes.get(gameResult.get(place));
+        if (team == null) {
+          throw new IllegalArgumentException("All games in a set must have the same players");
+        }
+        eloSet.setPlacement(game, place, team);
+      }
     }
 
-    var playerToScore = calculateActualScores(gameResults, gameType.getPlayerSetsToMoveOn());
-    var playerToExpectedScore = calculateAllExpectedScores(players, gameResults.size(), gameType);
-    return players
-      .stream()
-      .collect(
-        Collectors.toMap(
-          player -> player,
-          player -> (int) Math.round((K_FACTOR * (playerToScore.get(player) - playerToExpectedScore.get(player))))
-        )
-      );
+    calculateEloChange(eloSet, gameType);
+    var result = new HashMap<PlayerSet, Integer>();
+    for (int team = 0; team < teams.size(); team++) {
+      result.put(teams.get(team), eloSet.getEloChange(team));
+    }
+    return result;
   }
 
-  protected abstract Map<PlayerSet, Double> calculateActualScores(
-    List<List<PlayerSet>> gameResults,
-    int winnersPerGame
-  );
-
   /**
-   * Calculates the expected scores for all players in a set.
-   * @param players The players in the game
-   * @param gameCount The number of games being played
+   * Calculate the ELO change after a game set, without allocating anything.
+   * Each team's score is what they earned from their places, and their expected score is the chance they
+   * beat each other team, both scaled to the number of pairs of teams.
+   * @param eloSet The game set, which the ELO to add to each team is written to
    * @param gameType The type of game being played
-   * @return A map from player to the expected score for the game
    */
-  private Map<PlayerSet, Double> calculateAllExpectedScores(Set<PlayerSet> players, int gameCount, GameType gameType) {
-    var playerCount = players.size();
-    var playerToExpectedScore = new HashMap<PlayerSet, Double>();
-    for (var player : players) {
-      playerToExpectedScore.put(player, 0.0);
-      var playerSetElo = player
-        .getPlayers()
-        .stream()
-        .mapToInt(p -> p.getEloMap().get(gameType))
-        .sum();
-      for (var competitor : players) {
-        if (player.equals(competitor)) {
-          continue;
+  public void calculateEloChange(EloSet eloSet, GameType gameType) {
+    var teamCount = eloSet.getTeamCount();
+    var gameCount = eloSet.getGameCount();
+    if (gameCount == 0) {
+      throw new IllegalArgumentException("Must have at least one game");
+    }
+    var pairCount = (teamCount * (teamCount - 1)) / 2;
+    var winnersPerGame = gameType.getPlayerSetsToMoveOn();
+
+    // With strength 10^(ELO / 400), the chance a team beats another is strength / (strength + other strength).
+    // ELO is taken relative to the lowest, to keep strengths small
+    var strengths = eloSet.getStrengths();
+    var lowestElo = Integer.MAX_VALUE;
+    for (int team = 0; team < teamCount; team++) {
+      lowestElo = Math.min(lowestElo, eloSet.getTeamElo(team));
+    }
+    for (int team = 0; team < teamCount; team++) {
+      strengths[team] = Math.pow(10, (double) (eloSet.getTeamElo(team) - lowestElo) / 400);
+    }
+
+    var scores = eloSet.getScores();
+    for (int team = 0; team < teamCount; team++) {
+      scores[team] = 0;
+    }
+    for (int game = 0; game < gameCount; game++) {
+      for (int place = 0; place < teamCount; place++) {
+        scores[eloSet.getPlacement(game, place)] += scoreForPlace(place, teamCount, winnersPerGame) / pairCount;
+      }
+    }
+
+    for (int team = 0; team < teamCount; team++) {
+      var expectedScore = 0.0;
+      for (int competitor = 0; competitor < teamCount; competitor++) {
+        if (competitor != team) {
+          expectedScore += strengths[team] / (strengths[team] + strengths[competitor]);
         }
-        var competitorElo = competitor
-          .getPlayers()
-          .stream()
-          .mapToInt(p -> p.getEloMap().get(gameType))
-          .sum();
-        playerToExpectedScore.put(
-          player,
-          playerToExpectedScore.get(player) + calculateExpectedScore(playerSetElo, competitorElo)
-        );
       }
-      playerToExpectedScore.put(
-        player,
-        (gameCount * playerToExpectedScore.get(player)) / ((playerCount * (playerCount - 1)) / 2)
-      );
+      expectedScore = (gameCount * expectedScore) / pairCount;
+      eloSet.setEloChange(team, (int) Math.round(K_FACTOR * (scores[team] - expectedScore)));
     }
-    return playerToExpectedScore;
   }
 
   /**
-   * Calculate the expected score for a game between player and competitor.
-   * In this case, expected score is a number between 0 and 1 representing the probability
-   * that the player beats their competitor
-   * @param playerElo The ELO of the player to calculate an expected score for
-   * @param competitorElo The ELO of the competitor (whose expected score is not calculated here)
-   * @return The expected score for the player when playing against the competitor
+   * Calculate the score a team earns from a single game, before scaling to the number of pairs of teams.
+   * @param place The place the team finished in, 0 being first
+   * @param teamCount The number of teams in the game
+   * @param winnersPerGame The number of teams who win each game
+   * @return The score, one point per team beaten
    */
-  private double calculateExpectedScore(int playerElo, int competitorElo) {
-    return 1 / (1 + Math.pow(10, (double) (competitorElo - playerElo) / 400));
-  }
+  protected abstract double scoreForPlace(int place, int teamCount, int winnersPerGame);
 }
@@ -0,0 +1,108 @@
+package mariomonday.backend.managers.ratingcalculators;
+
+/**
+ * A game set laid out in primitive arrays for {@link AbstractEloManager}, with teams numbered from 0.
+ * The arrays are reused between game sets and only grow, so replaying many game sets through
+ * one instance allocates nothing once it has seen the largest game set. Not thread safe.
+ */
+public final class EloSet {
+
+  private int teamCount;
+
+  private int gameCount;
+
+  /**
+   * Combined ELO of each team
+   */
+  private int[] teamElos = new int[0];
+
+  /**
+   * Team at each place of each game, first place first, one game after the other
+   */
+  private int[] placements = new int[0];
+
+  /**
+   * Scratch space for the calculation, one entry per team
+   */
+  private double[] strengths = new double[0];
+
+  private double[] scores = new double[0];
+
+  /**
+   * The result, the ELO to add to each team
+   */
+  private int[] eloChanges = new int[0];
+
+  /**
+   * Start a new game set, dropping the previous one
+   * @param teamCount The number of teams, every team plays in every game
+   * @param gameCount The number of games played
+   * @return This game set
+   */
+  public EloSet reset(int teamCount, int gameCount) {
+    this.teamCount = teamCount;
+    this.gameCount = gameCount;
+    if (teamElos.length < teamCount) {
+      teamElos = new int[teamCount];
+      strengths = new double[teamCount];
+      scores = new double[teamCount];
+      eloChanges = new int[teamCount];
+    }
+    if (placements.length < teamCount * gameCount) {
+      placements = new int[teamCount * gameCount];
+    }
+    return this;
+  }
+
+  /**
+   * Set the combined ELO of a team
+   */
+  public void setTeamElo(int team, int elo) {
+    teamElos[team] = elo;
+  }
+
+  /**
+   * Set which team finished in a place of a game
+   * @param game The game, from 0
+   * @param place The place, 0 being first
+   * @param team The team
+   */
+  public void setPlacement(int game, int place, int team) {
+    placements[game * teamCount + place] = team;
+  }
+
+  /**
+   * Get the ELO to add to a team, once calculated
+   */
+  public int getEloChange(int team) {
+    return eloChanges[team];
+  }
+
+  public int getTeamCount() {
+    return teamCount;
+  }
+
+  public int getGameCount() {
+    return gameCount;
+  }
+
+  int getTeamElo(int team) {
+    return teamElos[team];
+  }
+
+  int getPlacement(int game, int place) {
+    return placements[game * teamCount + place];
+  }
+
+  double[] getStrengths() {
+    return strengths;
+  }
+
+  double[] getScores() {
+    return scores;
+  }
+
+  void setEloChange(int team, int eloChange) {
+    eloChanges[team] = eloChange;
+  }
+}
@@ -0,0 +1,276 @@
+package mariomonday.backend.managers.state;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import mariomonday.backend.database.loaders.BracketGraphLoader;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.AlreadyExistsException;
+import mariomonday.backend.error.exceptions.ConflictException;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Keeps every in-progress bracket fully loaded in memory, so updates to it are validated and applied
+ * without reading from the database, and only the changed documents are written back through the
+ * {@link BracketWriteQueue}.
+ * Completed brackets are rarely touched, so they are loaded from the database each time instead.
+ * <p>
+ * Every bracket has a mailbox, and everything done to a bracket runs through it one task at a time, in the order
+ * it was submitted. Concurrent updates to the same bracket therefore never race, without needing transactions,
+ * while different brackets are worked on in parallel.
+ * Anything that changes a bracket's documents directly must do so through {@link #updateInDatabase(String, Supplier)}.
+ * <p>
+ * Writes only succeed if the bracket was not changed by another process since it was loaded.
+ * When it was, the bracket is loaded again and the update is tried again, a few times at most.
+ */
+public class BracketStateEngine {
+
+  /**
+   * Number of times an update is tried while the bracket keeps being changed by another process
+   */
+  static final int MAX_ATTEMPTS = 3;
+
+  private final BracketGraphLoader bracketGraphLoader;
+
+  private final BracketWriteQueue writeQueue;
+
+  /**
+   * Executor shared by every mailbox
+   */
+  private final Executor executor;
+
+  /**
+   * In-progress brackets by bracket ID. Each entry is only touched from its bracket's mailbox
+   */
+  private final Map<String, LiveBracket> liveBrackets = new ConcurrentHashMap<>();
+
+  /**
+   * Mailboxes of brackets with tasks waiting or running, by bracket ID
+   */
+  private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+  public BracketStateEngine(BracketGraphLoader bracketGraphLoader, BracketWriteQueue writeQueue, Executor executor) {
+    this.bracketGraphLoader = bracketGraphLoader;
+    this.writeQueue = writeQueue;
+    this.executor = executor;
+    // The writes after a dropped write are based on the outdated bracket too, so stop writing from it
+    writeQueue.setConflictListener(bracketId -> submit(bracketId, () -> liveBrackets.remove(bracketId)));
+  }
+
+  /**
+   * Read a bracket, in order with the updates to it
+   * @param bracketId The ID of the bracket
+   * @param reader Reads what is needed from the bracket. Must not change it
+   * @return What was read, or empty if the bracket does not exist
+   */
+  public <T> Optional<T> read(String bracketId, Function<Bracket, T> reader) {
+    return call(bracketId, () -> getOrLoad(bracketId).map(liveBracket -> reader.apply(liveBracket.getBracket())));
+  }
+
+  /**
+   * Update a bracket, in order with the other updates to it.
+   * If the update throws after changing the bracket, the bracket is dropped from memory, since it may have been
+   * partially changed. Requests rejected by validation before anything was changed keep the bracket in memory
+   * @param bracketId The ID of the bracket
+   * @param update Validates and changes the bracket, adding every changed document to the write.
+   *               Must finish validating before changing anything.
+   *               May run more than once, on a freshly loaded bracket each time
+   * @return The result of the update
+   * @throws NotFoundException If the bracket does not exist
+   * @throws ConflictException If the bracket kept being changed by another process
+   */
+  public <T> T update(String bracketId, BiFunction<LiveBracket, BracketWrite, T> update) {
+    return call(bracketId, () ->
+      withRetries(() -> {
+        var liveBracket = getOrLoad(bracketId).orElseThrow(() -> new NotFoundException("Bracket not found"));
+        var write = new BracketWrite();
+        try {
+          var result = update.apply(liveBracket, write);
+          if (!write.isEmpty()) {
+            writeQueue.submit(bracketId, write);
+          }
+          return result;
+        } catch (RuntimeException e) {
+          if (!write.isEmpty() || !isRejectedRequest(e)) {
+            liveBrackets.remove(bracketId);
+          }
+          throw e;
+        }
+      })
+    );
+  }
+
+  /**
+   * Work on a bracket's documents in the database directly, in order with the other updates to it.
+   * The bracket is dropped from memory and its queued writes are applied first
+   * @param bracketId The ID of the bracket
+   * @param work Reads and changes the bracket in the database. Tried again if it throws an
+   *             {@link OptimisticLockingFailureException}, so it must read the bracket itself
+   * @return The result of the work
+   * @throws ConflictException If the bracket kept being changed by another process
+   */
+  public <T> T updateInDatabase(String bracketId, Supplier<T> work) {
+    return call(bracketId, () -> {
+      liveBrackets.remove(bracketId);
+      writeQueue.flush(bracketId);
+      return withRetries(work);
+    });
+  }
+
+  /**
+   * Drop a bracket from memory and wait for its writes to be applied
+   * @param bracketId The ID of the bracket
+   */
+  public void evict(String bracketId) {
+    call(bracketId, () -> liveBrackets.remove(bracketId));
+    writeQueue.flush(bracketId);
+  }
+
+  /**
+   * Drop every bracket containing any of the given players, since the copies of the players held in memory
+   * are outdated
+   * @param playerIds The IDs of the players that changed
+   */
+  public void evictPlayers(Collection<String> playerIds) {
+    var bracketIds = List.copyOf(liveBrackets.keySet());
+    var evictions = bracketIds
+      .stream()
+      .map(bracketId ->
+        submit(bracketId, () -> {
+          var liveBracket = liveBrackets.get(bracketId);
+          var containsPlayer =
+            liveBracket != null &&
+            liveBracket
+              .getBracket()
+              .getTeams()
+              .stream()
+              .flatMap(team -> team.getPlayers().stream())
+              .map(Player::getId)
+              .anyMatch(playerIds::contains);
+          return containsPlayer ? liveBrackets.remove(bracketId) : null;
+        })
+      )
+      .toList();
+    evictions.forEach(BracketStateEngine::join);
+    bracketIds.forEach(writeQueue::flush);
+  }
+
+  /**
+   * Drop every bracket from memory. Only needed if brackets were changed without going through this class
+   */
+  public void clear() {
+    liveBrackets.keySet().forEach(this::evict);
+    writeQueue.flush();
+  }
+
+  /**
+   * Must be called from the bracket's mailbox
+   */
+  private Optional<LiveBracket> getOrLoad(String bracketId) {
+    var liveBracket = liveBrackets.get(bracketId);
+    if (liveBracket != null) {
+      return Optional.of(liveBracket);
+    }
+    // The bracket may have writes queued from before it was last dropped
+    writeQueue.flush(bracketId);
+    var loaded = bracketGraphLoader.findById(bracketId).map(LiveBracket::new);
+    loaded.filter(LiveBracket::isInProgress).ifPresent(inProgress -> liveBrackets.put(bracketId, inProgress));
+    return loaded;
+  }
+
+  /**
+   * Whether the exception rejects the request itself, which is only thrown while validating, before anything changed
+   */
+  private static boolean isRejectedRequest(RuntimeException e) {
+    return (
+      e instanceof InvalidRequestException || e instanceof NotFoundException || e instanceof AlreadyExistsException
+    );
+  }
+
+  /**
+   * Run a task, running it again whenever a write fails because the bracket was changed by another process
+   */
+  private static <T> T withRetries(Supplier<T> task) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return task.get();
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt == MAX_ATTEMPTS) {
+          throw new ConflictException("Bracket was changed by another process while updating, please try again");
+        }
+      }
+    }
+  }
+
+  /**
+   * Run a task in the bracket's mailbox and wait for it
+   */
+  private <T> T call(String bracketId, Supplier<T> task) {
+    return join(submit(bracketId, task));
+  }
+
+  /**
+   * Add a task to the bracket's mailbox
+   */
+  private <T> CompletableFuture<T> submit(String bracketId, Supplier<T> task) {
+    var mailbox = mailboxes.compute(bracketId, (id, existing) -> {
+      var result = existing == null ? new Mailbox(executor) : existing;
+      result.pendingTasks++;
+      return result;
+    });
+    return CompletableFuture.supplyAsync(
+      () -> {
+        try {
+          return task.get();
+        } finally {
+          // Idle mailboxes are dropped, so they do not pile up for every bracket ever touched
+          mailboxes.computeIfPresent(bracketId, (id, existing) -> --existing.pendingTasks == 0 ? null : existing);
+        }
+      },
+      mailbox.executor
+    );
+  }
+
+  /**
+   * Wait for a task, throwing whatever it threw
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Runs the tasks of a single bracket one at a time, in order
+   */
+  private static class Mailbox {
+
+    private final Executor executor;
+
+    /**
+     * Number of tasks submitted but not yet finished. Only changed while computing the mailbox's map entry
+     */
+    private int pendingTasks;
+
+    private Mailbox(Executor sharedExecutor) {
+      this.executor = MoreExecutors.newSequentialExecutor(sharedExecutor);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package mariomonday.backend.managers.state;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.Value;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * The documents changed by a single update to a bracket, which are persisted together
+ */
+public class BracketWrite {
+
+  private final List<Object> saved = new ArrayList<>();
+
+  private final List<EntityUpdate> updated = new ArrayList<>();
+
+  private final List<Object> deleted = new ArrayList<>();
+
+  /**
+   * Save an entity, replacing its current document
+   */
+  public BracketWrite save(Object entity) {
+    saved.add(entity);
+    return this;
+  }
+
+  public BracketWrite saveAll(Collection<?> entities) {
+    saved.addAll(entities);
+    return this;
+  }
+
+  /**
+   * Change only some fields of an entity's document, rather than replacing all of it.
+   * Much smaller than saving the entity when only a few of its fields changed
+   * @param entity The entity, which must already have the same changes made to it
+   * @param update The changes to its document
+   */
+  public BracketWrite update(Object entity, Update update) {
+    updated.add(new EntityUpdate(entity, update));
+    return this;
+  }
+
+  /**
+   * Delete an entity's document
+   */
+  public BracketWrite delete(Object entity) {
+    deleted.add(entity);
+    return this;
+  }
+
+  public BracketWrite deleteAll(Collection<?> entities) {
+    deleted.addAll(entities);
+    return this;
+  }
+
+  List<Object> getSaved() {
+    return saved;
+  }
+
+  List<EntityUpdate> getUpdated() {
+    return updated;
+  }
+
+  List<Object> getDeleted() {
+    return deleted;
+  }
+
+  boolean isEmpty() {
+    return saved.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+  }
+
+  /**
+   * Changes to some fields of an entity's document
+   */
+  @Value
+  static class EntityUpdate {
+
+    Object entity;
+
+    Update update;
+  }
+}
@@ -0,0 +1,352 @@
+package mariomonday.backend.managers.state;
+
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Persists {@link BracketWrite}s to the database.
+ * With write-behind enabled, each write is first recorded in a journal collection with a single insert,
+ * then applied in the background in the order it was submitted to its bracket. Writes still in the journal
+ * when the server stops are applied by {@link #replayPending()} the next time it starts.
+ * Without write-behind, writes are applied right away.
+ * <p>
+ * Documents with a version are only replaced or updated if their version has not changed since they were read,
+ * otherwise the write fails with an {@link OptimisticLockingFailureException}.
+ * Without write-behind that is thrown to whoever submitted the write. With write-behind the write has already
+ * been acknowledged, so it is dropped and logged, and the conflict listener is told about it.
+ * Write-behind should therefore only be enabled where no other process writes to brackets.
+ * It is turned on with the {@code bracketstate.write-behind} property, see the README.
+ */
+@Slf4j
+public class BracketWriteQueue {
+
+  /**
+   * Collection writes are recorded in until they are applied
+   */
+  static final String JOURNAL_COLLECTION = "pendingBracketWrite";
+
+  /**
+   * How long to wait before trying a failed write again
+   */
+  private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+  /**
+   * Number of times a write is tried in the background before it is given up on
+   */
+  static final int MAX_ATTEMPTS = 5;
+
+  private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+
+  /**
+   * Field versioned documents store their version in
+   */
+  private static final String VERSION_FIELD = "version";
+
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Converts targeted updates to the documents the database expects, the same way {@link MongoTemplate} does
+   */
+  private final UpdateMapper updateMapper;
+
+  /**
+   * Executor writes are applied on, or null to apply them right away
+   */
+  private final Executor executor;
+
+  /**
+   * The last write submitted to each bracket that has writes still being applied, by bracket ID.
+   * Each write is applied after the one before it, while different brackets are written in parallel
+   */
+  private final Map<String, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
+
+  /**
+   * Told the ID of the bracket whenever a write in the background is dropped
+   */
+  private volatile Consumer<String> conflictListener = bracketId -> {};
+
+  public BracketWriteQueue(MongoTemplate mongoTemplate, Executor executor) {
+    this.mongoTemplate = mongoTemplate;
+    this.updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+    this.executor = executor;
+  }
+
+  /**
+   * Persist the changes made by an update to a bracket
+   * @param bracketId The ID of the bracket that was updated
+   * @param write The documents that changed
+   */
+  public void submit(String bracketId, BracketWrite write) {
+    // Documents are captured now, since the entities keep changing in memory
+    var entry = toJournalEntry(bracketId, write);
+    if (executor == null) {
+      apply(entry);
+      return;
+    }
+    mongoTemplate.insert(entry, JOURNAL_COLLECTION);
+    var applied = pendingWrites.compute(bracketId, (id, previous) ->
+      (previous == null ? CompletableFuture.<Void>completedFuture(null) : previous).thenRunAsync(
+        () -> applyUntilDone(entry),
+        executor
+      )
+    );
+    // Brackets with nothing left to write are dropped, so they do not pile up for every bracket ever written
+    applied.thenRun(() -> pendingWrites.remove(bracketId, applied));
+  }
+
+  /**
+   * Set what to do when a write in the background is dropped, because the bracket was changed by another process
+   * or the write kept failing
+   * @param conflictListener Told the ID of the bracket
+   */
+  public void setConflictListener(Consumer<String> conflictListener) {
+    this.conflictListener = conflictListener;
+  }
+
+  /**
+   * Wait for every submitted write to be applied
+   */
+  public void flush() {
+    pendingWrites.values().forEach(CompletableFuture::join);
+  }
+
+  /**
+   * Wait for the writes submitted to a bracket to be applied, without waiting on any other bracket
+   * @param bracketId The ID of the bracket
+   */
+  public void flush(String bracketId) {
+    var pending = pendingWrites.get(bracketId);
+    if (pending != null) {
+      pending.join();
+    }
+  }
+
+  /**
+   * Apply every write left in the journal, in the order they were submitted.
+   * Writes based on documents another process changed since are dropped and logged in full,
+   * the same way as writes in the background, and the conflict listener is told about them.
+   * Must run before any new writes are submitted
+   * @return The number of writes that were applied
+   */
+  public int replayPending() {
+    var entries = mongoTemplate.find(new Query().with(Sort.by("_id")), Document.class, JOURNAL_COLLECTION);
+    var applied = 0;
+    for (var entry : entries) {
+      var bracketId = entry.getString("bracketId");
+      try {
+        apply(entry);
+        applied++;
+      } catch (OptimisticLockingFailureException e) {
+        // Based on outdated documents, so it can never be applied
+        log.error("Dropped write to bracket {} changed by another process: {}", bracketId, entry.toJson(), e);
+        conflictListener.accept(bracketId);
+      }
+      removeFromJournal(entry);
+    }
+    return applied;
+  }
+
+  /**
+   * Try to apply a write a few times, so later writes to the bracket are never applied before it.
+   * If it can not be applied it is dropped and logged in full, and the bracket's copy in memory is given up on
+   */
+  private void applyUntilDone(Document entry) {
+    var bracketId = entry.getString("bracketId");
+    for (int attempt = 1; ; attempt++) {
+      try {
+        apply(entry);
+        removeFromJournal(entry);
+        return;
+      } catch (OptimisticLockingFailureException e) {
+        // Trying again can never succeed, the bracket's copy in memory is outdated
+        log.error("Dropped write to bracket {} changed by another process: {}", bracketId, entry.toJson(), e);
+        removeFromJournal(entry);
+        conflictListener.accept(bracketId);
+        return;
+      } catch (RuntimeException e) {
+        if (attempt == MAX_ATTEMPTS) {
+          log.error("Dropped write to bracket {} after {} attempts: {}", bracketId, attempt, entry.toJson(), e);
+          removeFromJournal(entry);
+          conflictListener.accept(bracketId);
+          return;
+        }
+        try {
+          Thread.sleep(RETRY_DELAY.toMillis());
+        } catch (InterruptedException interrupted) {
+          // Shutting down, the write is replayed from the journal on the next start
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private Document toJournalEntry(String bracketId, BracketWrite write) {
+    var writes = new ArrayList<Document>();
+    for (var entity : write.getSaved()) {
+      var savedWrite = new Document("collection", collectionOf(entity));
+      nextVersion(entity, savedWrite);
+      writes.add(savedWrite.append("replace", toDocument(entity)));
+    }
+    for (var entityUpdate : write.getUpdated()) {
+      var entity = entityUpdate.getEntity();
+      var persistentEntity = persistentEntityOf(entity);
+      var update = entityUpdate.getUpdate();
+      var updatedWrite = new Document("collection", collectionOf(entity));
+      if (nextVersion(entity, updatedWrite)) {
+        // Set rather than incremented, so documents stored before they had a version get the version held in memory
+        var versionProperty = persistentEntity.getRequiredVersionProperty();
+        var version = persistentEntity.getPropertyAccessor(entity).getProperty(versionProperty);
+        update.set(versionProperty.getFieldName(), version);
+      }
+      var id = persistentEntity.getIdentifierAccessor(entity).getRequiredIdentifier();
+      var idType = persistentEntity.getRequiredIdProperty().getFieldType();
+      writes.add(
+        updatedWrite
+          .append("id", mongoTemplate.getConverter().convertId(id, idType))
+          .append("update", updateMapper.getMappedObject(update.getUpdateObject(), persistentEntity))
+      );
+    }
+    for (var entity : write.getDeleted()) {
+      writes.add(new Document("collection", collectionOf(entity)).append("delete", toDocument(entity).get("_id")));
+    }
+    return new Document("_id", new ObjectId()).append("bracketId", bracketId).append("writes", writes);
+  }
+
+  /**
+   * Move a versioned entity on to its next version, which is only written if its current version is still stored
+   * @param entity The entity being written
+   * @param write Where to record the version that must still be stored
+   * @return Whether the entity is versioned
+   */
+  private boolean nextVersion(Object entity, Document write) {
+    var persistentEntity = persistentEntityOf(entity);
+    if (!persistentEntity.hasVersionProperty()) {
+      return false;
+    }
+    var accessor = persistentEntity.getPropertyAccessor(entity);
+    var versionProperty = persistentEntity.getRequiredVersionProperty();
+    var expectedVersion = (Long) accessor.getProperty(versionProperty);
+    accessor.setProperty(versionProperty, expectedVersion == null ? 0L : expectedVersion + 1);
+    write.append("expectedVersion", expectedVersion);
+    return true;
+  }
+
+  /**
+   * Apply a write with one bulk write per collection.
+   * Every versioned document is checked before anything is written, so nothing is written when one of them was
+   * changed. Brackets are not written in transactions, so another process changing one of them between the check
+   * and the writes can still leave the write partly applied. It then fails the same way, and the bracket must be
+   * loaded again from the database
+   * @throws OptimisticLockingFailureException If a versioned document was changed by another process
+   */
+  private void apply(Document entry) {
+    checkVersions(entry);
+    Map<String, List<WriteModel<Document>>> checkedWritesByCollection = new LinkedHashMap<>();
+    Map<String, List<WriteModel<Document>>> writesByCollection = new LinkedHashMap<>();
+    for (var write : entry.getList("writes", Document.class)) {
+      var replacement = write.get("replace", Document.class);
+      var update = write.get("update", Document.class);
+      if (write.containsKey("expectedVersion")) {
+        var id = replacement != null ? replacement.get("_id") : write.get("id");
+        var filter = Filters.and(Filters.eq("_id", id), Filters.eq(VERSION_FIELD, write.get("expectedVersion")));
+        checkedWritesByCollection
+          .computeIfAbsent(write.getString("collection"), collection -> new ArrayList<>())
+          .add(replacement != null ? new ReplaceOneModel<>(filter, replacement) : new UpdateOneModel<>(filter, update));
+        continue;
+      }
+      WriteModel<Document> model;
+      if (replacement != null) {
+        model = new ReplaceOneModel<>(Filters.eq("_id", replacement.get("_id")), replacement, UPSERT);
+      } else if (update != null) {
+        model = new UpdateOneModel<>(Filters.eq("_id", write.get("id")), update);
+      } else {
+        model = new DeleteOneModel<>(Filters.eq("_id", write.get("delete")));
+      }
+      writesByCollection.computeIfAbsent(write.getString("collection"), collection -> new ArrayList<>()).add(model);
+    }
+    checkedWritesByCollection.forEach((collection, writes) -> {
+      var result = mongoTemplate.getCollection(collection).bulkWrite(writes);
+      if (result.getMatchedCount() < writes.size()) {
+        throw new OptimisticLockingFailureException(
+          "Bracket " + entry.getString("bracketId") + " was changed by another process"
+        );
+      }
+    });
+    writesByCollection.forEach((collection, writes) -> mongoTemplate.getCollection(collection).bulkWrite(writes));
+  }
+
+  /**
+   * Check every versioned document in a write still has the version it was read at, with one query per collection
+   * @throws OptimisticLockingFailureException If a versioned document was changed by another process
+   */
+  private void checkVersions(Document entry) {
+    Map<String, Map<Object, Object>> expectedVersionsByCollection = new LinkedHashMap<>();
+    for (var write : entry.getList("writes", Document.class)) {
+      if (!write.containsKey("expectedVersion")) {
+        continue;
+      }
+      var replacement = write.get("replace", Document.class);
+      var id = replacement != null ? replacement.get("_id") : write.get("id");
+      // A document written more than once must still have the version expected by its first write
+      expectedVersionsByCollection
+        .computeIfAbsent(write.getString("collection"), collection -> new LinkedHashMap<>())
+        .putIfAbsent(id, write.get("expectedVersion"));
+    }
+    expectedVersionsByCollection.forEach((collection, expectedVersions) -> {
+      var filters = expectedVersions
+        .entrySet()
+        .stream()
+        .map(expected ->
+          Filters.and(Filters.eq("_id", expected.getKey()), Filters.eq(VERSION_FIELD, expected.getValue()))
+        )
+        .toList();
+      if (mongoTemplate.getCollection(collection).countDocuments(Filters.or(filters)) < expectedVersions.size()) {
+        throw new OptimisticLockingFailureException(
+          "Bracket " + entry.getString("bracketId") + " was changed by another process"
+        );
+      }
+    });
+  }
+
+  private void removeFromJournal(Document entry) {
+    mongoTemplate.remove(new Query(Criteria.where("_id").is(entry.get("_id"))), JOURNAL_COLLECTION);
+  }
+
+  private MongoPersistentEntity<?> persistentEntityOf(Object entity) {
+    return mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entity.getClass());
+  }
+
+  private String collectionOf(Object entity) {
+    return mongoTemplate.getCollectionName(entity.getClass());
+  }
+
+  private Document toDocument(Object entity) {
+    var document = new Document();
+    mongoTemplate.getConverter().write(entity, document);
+    return document;
+  }
+}
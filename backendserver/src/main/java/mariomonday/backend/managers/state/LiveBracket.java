@@ -0,0 +1,73 @@
+package mariomonday.backend.managers.state;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.GameSet;
+
+/**
+ * A fully loaded bracket held in memory by the {@link BracketStateEngine}.
+ * Game sets are stored in an array, with the tree between them kept as array indexes,
+ * so finding a game set or the game set after it never needs to walk the bracket.
+ * Only accessed from its bracket's mailbox, so it is never used by two threads at once.
+ */
+public class LiveBracket {
+
+  private final Bracket bracket;
+
+  private final GameSet[] gameSets;
+
+  /**
+   * Index of the game set the winners of each game set move on to, or -1 for the final game set
+   */
+  private final int[] nextGameSetIndexes;
+
+  private final Map<String, Integer> gameSetIndexesById = new HashMap<>();
+
+  LiveBracket(Bracket bracket) {
+    this.bracket = bracket;
+    this.gameSets = bracket.getGameSets().toArray(GameSet[]::new);
+    this.nextGameSetIndexes = new int[gameSets.length];
+    Arrays.fill(nextGameSetIndexes, -1);
+    for (int i = 0; i < gameSets.length; i++) {
+      gameSetIndexesById.put(gameSets[i].getId(), i);
+    }
+    for (int i = 0; i < gameSets.length; i++) {
+      for (var previousGameSet : gameSets[i].getPreviousGameSets()) {
+        nextGameSetIndexes[gameSetIndexesById.get(previousGameSet.getId())] = i;
+      }
+    }
+  }
+
+  /**
+   * Get the bracket itself. Changes made to it must also be written through a {@link BracketWrite}
+   */
+  public Bracket getBracket() {
+    return bracket;
+  }
+
+  /**
+   * Find a game set within this bracket
+   * @param gameSetId The ID of the game set
+   * @return The game set, or empty if it is not part of this bracket
+   */
+  public Optional<GameSet> findGameSet(String gameSetId) {
+    return Optional.ofNullable(gameSetIndexesById.get(gameSetId)).map(index -> gameSets[index]);
+  }
+
+  /**
+   * Find the game set the winners of the given game set move on to
+   * @param gameSet A game set within this bracket
+   * @return The next game set, or empty for the final game set
+   */
+  public Optional<GameSet> findNextGameSet(GameSet gameSet) {
+    var nextIndex = nextGameSetIndexes[gameSetIndexesById.get(gameSet.getId())];
+    return nextIndex == -1 ? Optional.empty() : Optional.of(gameSets[nextIndex]);
+  }
+
+  boolean isInProgress() {
+    return bracket.getWinners().isEmpty();
+  }
+}
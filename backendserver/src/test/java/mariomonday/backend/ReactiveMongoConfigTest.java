@@ -0,0 +1,26 @@
+package mariomonday.backend;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import mariomonday.backend.utils.BaseSpringTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+public class ReactiveMongoConfigTest extends BaseSpringTest {
+
+  @Autowired
+  private ApplicationContext applicationContext;
+
+  @Test
+  public void testReactiveMongo_shouldNotBeSetUp_whenReactiveApiDisabled() {
+    // Act
+    var reactiveClients = applicationContext.getBeanNamesForType(MongoClient.class);
+    var reactiveTemplates = applicationContext.getBeanNamesForType(ReactiveMongoTemplate.class);
+
+    // Verify
+    Assertions.assertEquals(0, reactiveClients.length);
+    Assertions.assertEquals(0, reactiveTemplates.length);
+  }
+}
@@ -0,0 +1,174 @@
+package mariomonday.backend;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Shows that with virtual threads the server handles more requests at once than it has Tomcat threads.
+ * Every request reads a large listing of players and a bracket from Mongo, so requests spend most of their time
+ * waiting on Mongo, which would exhaust a small thread pool. There are more requests than Mongo connections,
+ * so the ones past the pool size have to wait their turn rather than fail.
+ * Virtual threads need Java 21, run with the virtual-threads Maven profile.
+ */
+@SpringBootTest(
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = {
+    "spring.threads.virtual.enabled=true",
+    "server.tomcat.threads.max=" + VirtualThreadLoadTest.TOMCAT_THREADS,
+    "mongo.pool.max-size=" + VirtualThreadLoadTest.MONGO_CONNECTIONS,
+  }
+)
+@EnabledForJreRange(min = JRE.JAVA_21)
+@Import(VirtualThreadLoadTest.InFlightRequestConfig.class)
+public class VirtualThreadLoadTest extends BaseSpringTest {
+
+  static final int TOMCAT_THREADS = 8;
+
+  static final int MONGO_CONNECTIONS = 50;
+
+  private static final int CONCURRENT_REQUESTS = 200;
+
+  private static final int PLAYER_COUNT = 2000;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private InFlightRequestFilter inFlightRequestFilter;
+
+  @Test
+  public void testGetEndpoints_shouldHandleMoreRequestsThanTomcatThreads_whenOnVirtualThreads() throws Exception {
+    // Setup
+    var players = TestDataUtil.createNFakePlayers(PLAYER_COUNT)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(
+          players
+            .subList(0, 16)
+            .stream()
+            .collect(Collectors.toMap(Player::getId, player -> List.of(player.getId())))
+        )
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    var client = HttpClient.newHttpClient();
+    var baseUri = "http://localhost:" + port + "/api";
+    var requests = List.of(
+      HttpRequest.newBuilder(URI.create(baseUri + "/player")).build(),
+      HttpRequest.newBuilder(URI.create(baseUri + "/player?sort=ELO&gameType=SMASH_ULTIMATE_SINGLES")).build(),
+      HttpRequest.newBuilder(URI.create(baseUri + "/bracket/" + bracket.getId())).build()
+    );
+
+    // Act
+    var responses = IntStream.range(0, CONCURRENT_REQUESTS)
+      .mapToObj(i -> client.sendAsync(requests.get(i % requests.size()), BodyHandlers.discarding()))
+      .toList();
+    CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+
+    // Verify
+    for (var response : responses) {
+      Assertions.assertEquals(200, response.get().statusCode());
+    }
+    Assertions.assertTrue(
+      inFlightRequestFilter.getPeakInFlight() > TOMCAT_THREADS,
+      "At most " + inFlightRequestFilter.getPeakInFlight() + " requests were handled at once"
+    );
+    // Requests past the connection pool size wait their turn rather than failing to get a connection
+    Assertions.assertTrue(
+      inFlightRequestFilter.getPeakInFlight() <= MONGO_CONNECTIONS,
+      inFlightRequestFilter.getPeakInFlight() + " requests were handled at once"
+    );
+  }
+
+  @TestConfiguration
+  static class InFlightRequestConfig {
+
+    @Bean
+    InFlightRequestFilter inFlightRequestFilter() {
+      return new InFlightRequestFilter();
+    }
+  }
+
+  /**
+   * Records the most requests that were being handled at once, counting streamed responses until they finish
+   */
+  static class InFlightRequestFilter extends OncePerRequestFilter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    int getPeakInFlight() {
+      return peakInFlight.get();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+      peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        filterChain.doFilter(request, response);
+      } finally {
+        if (request.isAsyncStarted()) {
+          request
+            .getAsyncContext()
+            .addListener(
+              new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                  inFlight.decrementAndGet();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {}
+
+                @Override
+                public void onError(AsyncEvent event) {}
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {}
+              }
+            );
+        } else {
+          inFlight.decrementAndGet();
+        }
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package mariomonday.backend.apis;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -10,12 +11,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import mariomonday.backend.apis.schema.AddPlayerSetToBracketRequest;
 import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.ApiBracketSummary;
 import mariomonday.backend.apis.schema.ApiGameSet;
 import mariomonday.backend.apis.schema.CompleteGameSetRequest;
 import mariomonday.backend.apis.schema.CreateBracketRequest;
@@ -25,6 +30,7 @@ import mariomonday.backend.database.schema.GameSet;
 import mariomonday.backend.database.schema.GameType;
 import mariomonday.backend.database.schema.Player;
 import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.database.schema.RatingChange;
 import mariomonday.backend.error.exceptions.InvalidRequestException;
 import mariomonday.backend.error.exceptions.NotFoundException;
 import mariomonday.backend.managers.ratingcalculators.AbstractEloManager;
@@ -34,6 +40,8 @@ import mariomonday.backend.utils.TestDataUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 public class BracketControllerTest extends BaseSpringTest {
 
@@ -302,7 +310,7 @@ public class BracketControllerTest extends BaseSpringTest {
           "Zach",
           List.of(playerNameToPlayer.get("Zach").getId()),
           "Noah",
-          List.of(playerNameToPlayer.get("Noah").getId()),
+          List.of("another fake ID"),
           "Jack",
           List.of(playerNameToPlayer.get("Jack").getId())
         )
@@ -311,7 +319,15 @@ public class BracketControllerTest extends BaseSpringTest {
       .build();
 
     // Act & Verify
-    Assertions.assertThrows(InvalidRequestException.class, () -> bracketController.postBracket(bracketReq));
+    var exception = Assertions.assertThrows(InvalidRequestException.class, () ->
+      bracketController.postBracket(bracketReq)
+    );
+    Assertions.assertEquals(
+      "Some players cannot be found: another fake ID, haha fake ID bitch",
+      exception.getMessage()
+    );
+    Assertions.assertEquals(0, bracketRepository.count());
+    Assertions.assertEquals(0, gameSetRepository.count());
   }
 
   @Test
@@ -335,10 +351,51 @@ public class BracketControllerTest extends BaseSpringTest {
     var expectedBracket = bracketController.postBracket(bracketReq);
 
     // Act
-    var actualBracket = bracketController.getBracket(expectedBracket.getId());
+    var response = bracketController.getBracket(expectedBracket.getId(), null);
+
+    // Verify
+    Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+    Assertions.assertNotNull(response.getHeaders().getETag());
+    Assertions.assertEquals(expectedBracket, readBracket(response));
+  }
+
+  @Test
+  public void testGetBracket_shouldReturnNotModified_whenETagMatches() {
+    // Setup
+    var bracket = createPredictableBracket(4, GameType.SMASH_ULTIMATE_SINGLES);
+    var eTag = bracketController.getBracket(bracket.getId(), null).getHeaders().getETag();
+
+    // Act
+    var response = bracketController.getBracket(bracket.getId(), "\"someOtherTag\", " + eTag);
 
     // Verify
-    Assertions.assertEquals(expectedBracket, actualBracket);
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    Assertions.assertEquals(eTag, response.getHeaders().getETag());
+    Assertions.assertNull(response.getBody());
+  }
+
+  @Test
+  public void testGetBracket_shouldReturnNewVersion_whenBracketUpdated() {
+    // Setup
+    var bracket = createPredictableBracket(4, GameType.SMASH_ULTIMATE_SINGLES);
+    var eTag = bracketController.getBracket(bracket.getId(), null).getHeaders().getETag();
+    var gameSet = bracket.getGameSets().get(0).get(0);
+    var updatedBracket = bracketController.completeGameSet(
+      bracket.getId(),
+      gameSet.getId(),
+      CompleteGameSetRequest.builder()
+        .games(List.of(gameSet.getPlayerSets()))
+        .winners(gameSet.getPlayerSets().subList(0, 1))
+        .build()
+    );
+
+    // Act
+    var response = bracketController.getBracket(bracket.getId(), eTag);
+
+    // Verify
+    Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+    Assertions.assertNotEquals(eTag, response.getHeaders().getETag());
+    Assertions.assertEquals(updatedBracket, readBracket(response));
   }
 
   @Test
@@ -350,16 +407,115 @@ public class BracketControllerTest extends BaseSpringTest {
     }
 
     // Act
-    var actualBracket = bracketController.getCurrentBracket();
+    var response = bracketController.getCurrentBracket(null, null);
 
     // Verify
-    Assertions.assertEquals(lastBracket, actualBracket);
+    Assertions.assertEquals(lastBracket, readBracket(response));
   }
 
   @Test
   public void testGetRecentBracket_shouldComplain_whenNoBrackets() {
     // Act & Verify
-    Assertions.assertThrows(NotFoundException.class, () -> bracketController.getCurrentBracket());
+    Assertions.assertThrows(NotFoundException.class, () -> bracketController.getCurrentBracket(null, null));
+  }
+
+  @Test
+  public void testGetBrackets_shouldPageThroughBracketsNewestFirst() {
+    // Setup
+    var brackets = new ArrayList<ApiBracket>();
+    for (int i = 0; i < 5; i++) {
+      brackets.add(createBracketWithRandomPlayers());
+    }
+    var expectedIds = brackets
+      .stream()
+      .sorted(Comparator.comparing(ApiBracket::getDate).reversed().thenComparing(ApiBracket::getId))
+      .map(ApiBracket::getId)
+      .toList();
+
+    // Act
+    var firstPage = bracketController.getBrackets(null, null, 2);
+    var secondPage = bracketController.getBrackets(null, firstPage.getNext(), 2);
+    var lastPage = bracketController.getBrackets(null, secondPage.getNext(), 2);
+
+    // Verify
+    var actualIds = Stream.of(firstPage, secondPage, lastPage)
+      .flatMap(page -> page.getBrackets().stream())
+      .map(ApiBracketSummary::getId)
+      .toList();
+    Assertions.assertEquals(expectedIds, actualIds);
+    Assertions.assertNull(lastPage.getNext());
+    var summary = firstPage.getBrackets().get(0);
+    Assertions.assertEquals(GameType.SMASH_ULTIMATE_SINGLES, summary.getGameType());
+    Assertions.assertEquals(randomPlayers.size(), summary.getTeamCount());
+    Assertions.assertTrue(summary.getWinners().isEmpty());
+  }
+
+  @Test
+  public void testGetBrackets_shouldOnlyReturnGameType_whenGameTypeGiven() {
+    // Setup
+    createBracketWithRandomPlayers(GameType.SMASH_ULTIMATE_SINGLES);
+    var kartBracket = createBracketWithRandomPlayers(GameType.MARIO_KART_8);
+    createBracketWithRandomPlayers(GameType.SMASH_ULTIMATE_SINGLES);
+
+    // Act
+    var page = bracketController.getBrackets(GameType.MARIO_KART_8, null, 20);
+
+    // Verify
+    Assertions.assertEquals(
+      List.of(kartBracket.getId()),
+      page.getBrackets().stream().map(ApiBracketSummary::getId).toList()
+    );
+    Assertions.assertNull(page.getNext());
+  }
+
+  @Test
+  public void testGetBrackets_shouldIncludeWinners_whenBracketCompleted() {
+    // Setup
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(
+          Map.of(
+            "Reed",
+            List.of(playerNameToPlayer.get("Reed").getId()),
+            "Zach",
+            List.of(playerNameToPlayer.get("Zach").getId())
+          )
+        )
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    var teamIdsByName = bracket.getTeams().stream().collect(Collectors.toMap(PlayerSet::getName, PlayerSet::getId));
+    completeGameSet(
+      bracket.getId(),
+      bracket.getGameSets().get(0).get(0),
+      List.of(teamIdsByName.get("Reed"), teamIdsByName.get("Zach"))
+    );
+    bracketController.completeBracket(bracket.getId());
+
+    // Act
+    var page = bracketController.getBrackets(null, null, 20);
+
+    // Verify
+    var winnerIds = page.getBrackets().get(0).getWinners().stream().map(Player::getId).toList();
+    Assertions.assertEquals(List.of(playerNameToPlayer.get("Reed").getId()), winnerIds);
+    Assertions.assertEquals(2, page.getBrackets().get(0).getTeamCount());
+  }
+
+  @Test
+  public void testGetBrackets_shouldComplain_whenLimitInvalid() {
+    // Act & Verify
+    Assertions.assertThrows(InvalidRequestException.class, () -> bracketController.getBrackets(null, null, 0));
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      bracketController.getBrackets(null, null, BracketController.MAX_PAGE_SIZE + 1)
+    );
+  }
+
+  @Test
+  public void testGetBrackets_shouldComplain_whenCursorInvalid() {
+    // Act & Verify
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      bracketController.getBrackets(null, "Fake cursor", 20)
+    );
   }
 
   @Test
@@ -813,6 +969,19 @@ public class BracketControllerTest extends BaseSpringTest {
     );
   }
 
+  @Test
+  public void testCompleteGameSet_shouldComplain_whenPreviousGameSetNotCompleted() {
+    // Setup
+    var bracket = createPredictableBracket(16, GameType.SMASH_ULTIMATE_SINGLES);
+    advancePredictableBracket(bracket.getId(), "0v15");
+
+    // Act & Verify
+    var exception = Assertions.assertThrows(InvalidRequestException.class, () ->
+      advancePredictableBracket(bracket.getId(), "0v7")
+    );
+    Assertions.assertEquals("Previous games must have been completed first!", exception.getMessage());
+  }
+
   @Test
   public void testCompleteBracket_shouldUpdateWinnersAndElo_whenHappyPath() {
     // Setup
@@ -849,7 +1018,7 @@ public class BracketControllerTest extends BaseSpringTest {
     bracketController.completeBracket(bracket.getId());
 
     // Verify
-    var completedBracket = Bracket.loadLazyBracket(bracketRepository.findById(bracket.getId()).get());
+    var completedBracket = bracketGraphLoader.findById(bracket.getId()).get();
     // Assert bracket winners are set and are the same as the winners of the final game set
     Assertions.assertEquals(
       completedBracket.getWinners(),
@@ -904,7 +1073,7 @@ public class BracketControllerTest extends BaseSpringTest {
     bracketController.completeBracket(bracket.getId());
 
     // Verify
-    var completedBracket = Bracket.loadLazyBracket(bracketRepository.findById(bracket.getId()).get());
+    var completedBracket = bracketGraphLoader.findById(bracket.getId()).get();
     // Assert bracket winners are set and are the same as the winners of the final game set
     Assertions.assertEquals(
       completedBracket.getWinners(),
@@ -977,7 +1146,7 @@ public class BracketControllerTest extends BaseSpringTest {
     bracketController.completeBracket(bracket.getId());
 
     // Verify
-    var completedBracket = Bracket.loadLazyBracket(bracketRepository.findById(bracket.getId()).get());
+    var completedBracket = bracketGraphLoader.findById(bracket.getId()).get();
     // Assert bracket winners are set and are the same as the winners of the final game set
     Assertions.assertEquals(
       completedBracket.getWinners(),
@@ -1056,7 +1225,7 @@ public class BracketControllerTest extends BaseSpringTest {
     bracketController.completeBracket(bracket.getId());
 
     // Verify
-    var completedBracket = Bracket.loadLazyBracket(bracketRepository.findById(bracket.getId()).get());
+    var completedBracket = bracketGraphLoader.findById(bracket.getId()).get();
     // Assert bracket winners are set and are the same as the winners of the final game set
     Assertions.assertEquals(
       completedBracket.getWinners(),
@@ -1141,6 +1310,80 @@ public class BracketControllerTest extends BaseSpringTest {
     Assertions.assertEquals(Player.STARTING_ELO, loser2.getEloMap().get(GameType.SMASH_ULTIMATE_SINGLES));
     var loser3 = playerRepository.findById(playerNameToPlayer.get("Noah").getId()).get();
     Assertions.assertEquals(Player.STARTING_ELO - 16, loser3.getEloMap().get(GameType.SMASH_ULTIMATE_SINGLES));
+    // Assert every round each player played was added to the rating history
+    var historyByPlayerId = ratingChangeRepository
+      .findAll()
+      .stream()
+      .sorted(Comparator.comparingInt(RatingChange::getRound))
+      .collect(Collectors.groupingBy(RatingChange::getPlayerId));
+    Assertions.assertEquals(
+      List.of(Player.STARTING_ELO + 16, Player.STARTING_ELO + 32),
+      historyByPlayerId.get("Reed").stream().map(RatingChange::getAfter).toList()
+    );
+    Assertions.assertEquals(
+      List.of(Player.STARTING_ELO, Player.STARTING_ELO + 16),
+      historyByPlayerId.get("Reed").stream().map(RatingChange::getBefore).toList()
+    );
+    Assertions.assertEquals(List.of(1), historyByPlayerId.get("Zach").stream().map(RatingChange::getRound).toList());
+    Assertions.assertEquals(List.of(1, 2), historyByPlayerId.get("Jack").stream().map(RatingChange::getRound).toList());
+    Assertions.assertEquals(
+      bracketRepository.findById(apiBracket.getId()).get().getDate(),
+      historyByPlayerId.get("Jack").get(0).getDate()
+    );
+  }
+
+  @Test
+  public void testCompleteBracket_shouldChainEloHistory_whenBracketsSharingPlayerCompletedAtOnce() throws Exception {
+    // Setup
+    var brackets = new ArrayList<ApiBracket>();
+    for (var opponent : List.of("Zach", "Jack")) {
+      var bracket = bracketController.postBracket(
+        CreateBracketRequest.builder()
+          .teams(Map.of("Reed", List.of("Reed"), opponent, List.of(opponent)))
+          .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+          .build()
+      );
+      var winningOrder = bracket
+        .getTeams()
+        .stream()
+        .sorted(Comparator.comparing(team -> !team.getName().equals("Reed")))
+        .map(PlayerSet::getId)
+        .toList();
+      completeGameSet(bracket.getId(), bracket.getGameSets().get(0).get(0), winningOrder);
+      brackets.add(bracket);
+    }
+    var start = new CountDownLatch(1);
+    var completions = brackets
+      .stream()
+      .map(bracket ->
+        CompletableFuture.runAsync(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+          bracketController.completeBracket(bracket.getId());
+        })
+      )
+      .toList();
+
+    // Act
+    start.countDown();
+    CompletableFuture.allOf(completions.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+    // Verify
+    // Whichever bracket completed second started from the ELO the first one left Reed with
+    var reedHistory = ratingChangeRepository
+      .findAll()
+      .stream()
+      .filter(ratingChange -> ratingChange.getPlayerId().equals("Reed"))
+      .sorted(Comparator.comparingInt(RatingChange::getBefore))
+      .toList();
+    Assertions.assertEquals(2, reedHistory.size());
+    Assertions.assertEquals(Player.STARTING_ELO, reedHistory.get(0).getBefore());
+    Assertions.assertEquals(reedHistory.get(0).getAfter(), reedHistory.get(1).getBefore());
+    var reed = playerRepository.findById("Reed").get();
+    Assertions.assertEquals(reedHistory.get(1).getAfter(), reed.getEloMap().get(GameType.SMASH_ULTIMATE_SINGLES));
   }
 
   @Test
@@ -1281,7 +1524,7 @@ public class BracketControllerTest extends BaseSpringTest {
       .get();
     // Assert player set was added for new player
     Assertions.assertNotNull(addedPlayerSet);
-    var newGameSet = GameSet.loadLazyGameSet(gameSetRepository.findById("0").get());
+    var newGameSet = loadGameSet(bracket.getId(), "0");
     // Assert player set was added to game set
     Assertions.assertTrue(
       newGameSet
@@ -1307,7 +1550,7 @@ public class BracketControllerTest extends BaseSpringTest {
     var newBracket = bracketRepository.findById(bracket.getId()).get();
     // No new teams should have been added
     Assertions.assertEquals(newBracket.getTeams().size(), 15);
-    var newGameSet = GameSet.loadLazyGameSet(gameSetRepository.findById("0").get());
+    var newGameSet = loadGameSet(bracket.getId(), "0");
     // Assert player set was added to game set
     Assertions.assertTrue(
       newGameSet.getAddedPlayerSets().stream().map(PlayerSet::getId).collect(Collectors.toSet()).contains("14")
@@ -1347,7 +1590,7 @@ public class BracketControllerTest extends BaseSpringTest {
         .collect(Collectors.toSet())
         .containsAll(List.of("Reed", "Zach"))
     );
-    var newGameSet = GameSet.loadLazyGameSet(gameSetRepository.findById("0x1").get());
+    var newGameSet = loadGameSet(bracket.getId(), "0x1");
     // Assert player set was added to game set
     Assertions.assertTrue(
       newGameSet
@@ -1392,7 +1635,7 @@ public class BracketControllerTest extends BaseSpringTest {
         .collect(Collectors.toSet())
         .containsAll(List.of("Reed", "29"))
     );
-    var newGameSet = GameSet.loadLazyGameSet(gameSetRepository.findById("0x1").get());
+    var newGameSet = loadGameSet(bracket.getId(), "0x1");
     // Assert player set was added to game set
     Assertions.assertTrue(
       newGameSet
@@ -1422,7 +1665,7 @@ public class BracketControllerTest extends BaseSpringTest {
     var newBracket = bracketRepository.findById(bracket.getId()).get();
     // No new teams should have been added
     Assertions.assertEquals(newBracket.getTeams().size(), 15);
-    var newGameSet = GameSet.loadLazyGameSet(gameSetRepository.findById("0x1").get());
+    var newGameSet = loadGameSet(bracket.getId(), "0x1");
     // Assert loser team was added to game set
     Assertions.assertTrue(
       newGameSet.getAddedPlayerSets().stream().map(PlayerSet::getId).collect(Collectors.toSet()).contains("28x29")
@@ -1464,7 +1707,7 @@ public class BracketControllerTest extends BaseSpringTest {
         .collect(Collectors.toSet())
         .containsAll(List.of("26", "29"))
     );
-    var newGameSet = GameSet.loadLazyGameSet(gameSetRepository.findById("0x1").get());
+    var newGameSet = loadGameSet(bracket.getId(), "0x1");
     // Assert player set was added to game set
     Assertions.assertTrue(
       newGameSet
@@ -1680,6 +1923,7 @@ public class BracketControllerTest extends BaseSpringTest {
     Assertions.assertEquals("1v14", game2.getId());
     Assertions.assertTrue(game2.getPlayerSets().contains("0"));
     Assertions.assertFalse(game2.getPlayerSets().contains("1"));
+    Assertions.assertTrue(game2.getPlayerSets().contains("14"));
 
     // Check change is made in DB as well
     var gameOneAddedPlayers = gameSetRepository
@@ -1699,8 +1943,7 @@ public class BracketControllerTest extends BaseSpringTest {
       .stream()
       .map(PlayerSet::getId)
       .collect(Collectors.toSet());
-    Assertions.assertTrue(gameTwoAddedPlayers.contains("0"));
-    Assertions.assertFalse(gameTwoAddedPlayers.contains("1"));
+    Assertions.assertEquals(Set.of("0", "14"), gameTwoAddedPlayers);
   }
 
   @Test
@@ -1810,7 +2053,7 @@ public class BracketControllerTest extends BaseSpringTest {
   @Test
   public void testDeleteBracket_shouldThrow_whenBracketNotExist() {
     // Act & Verify
-    Assertions.assertThrows(NotFoundException.class, () -> bracketController.deleteBracket("fakeBracket"));
+    Assertions.assertThrows(NotFoundException.class, () -> bracketController.deleteBracket("fakeBracket", false));
   }
 
   @Test
@@ -1841,7 +2084,7 @@ public class BracketControllerTest extends BaseSpringTest {
       .collect(Collectors.toSet());
 
     // Act
-    bracketController.deleteBracket(bracket1.getId());
+    bracketController.deleteBracket(bracket1.getId(), false);
 
     // Verify
     // Make sure bracket was deleted as expected and other bracket was not.
@@ -1890,7 +2133,7 @@ public class BracketControllerTest extends BaseSpringTest {
     bracketController.completeBracket(bracket.getId());
 
     // Verify
-    var completedBracket = Bracket.loadLazyBracket(bracketRepository.findById(bracket.getId()).get());
+    var completedBracket = bracketGraphLoader.findById(bracket.getId()).get();
     Assertions.assertEquals(1, completedBracket.getWinners().size());
     Assertions.assertEquals("0", completedBracket.getWinners().stream().findFirst().get().getName());
   }
@@ -1906,7 +2149,7 @@ public class BracketControllerTest extends BaseSpringTest {
     bracketController.completeBracket(bracket.getId());
 
     // Verify
-    var completedBracket = Bracket.loadLazyBracket(bracketRepository.findById(bracket.getId()).get());
+    var completedBracket = bracketGraphLoader.findById(bracket.getId()).get();
     Assertions.assertEquals(1, completedBracket.getWinners().size());
     Assertions.assertEquals("0", completedBracket.getWinners().stream().findFirst().get().getName());
   }
@@ -1922,7 +2165,7 @@ public class BracketControllerTest extends BaseSpringTest {
     bracketController.completeBracket(bracket.getId());
 
     // Verify
-    var completedBracket = Bracket.loadLazyBracket(bracketRepository.findById(bracket.getId()).get());
+    var completedBracket = bracketGraphLoader.findById(bracket.getId()).get();
     Assertions.assertEquals(2, completedBracket.getWinners().size());
     Assertions.assertTrue(
       completedBracket.getWinners().stream().map(Player::getId).collect(Collectors.toSet()).contains("0")
@@ -1961,6 +2204,14 @@ public class BracketControllerTest extends BaseSpringTest {
     return bracketController.postBracket(bracketReq);
   }
 
+  private ApiBracket readBracket(ResponseEntity<byte[]> response) {
+    try {
+      return objectMapper.readValue(response.getBody(), ApiBracket.class);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * Generates a bracket in a predictable manner, with predictable IDs for easy access.
    * The players will have IDs 0 to N - 1, where N is the number of players requested.
@@ -2031,12 +2282,28 @@ public class BracketControllerTest extends BaseSpringTest {
             )
             .collect(Collectors.joining("v"))
         );
+        // Predictable brackets share game set IDs, so replace any game set left by an earlier one
+        gameSetRepository.deleteById(gameSet.getId());
         gameSetRepository.save(gameSet);
       }
     }
     bracket = bracketRepository.save(bracket);
     // MongoDB does some time truncation and such so we want to get it in that state
-    return ApiBracket.fromBracket(bracketRepository.findById(bracket.getId()).get());
+    return ApiBracket.fromBracket(bracketGraphLoader.findById(bracket.getId()).get());
+  }
+
+  /**
+   * Load a game set with all of its references resolved
+   */
+  private GameSet loadGameSet(String bracketId, String gameSetId) {
+    return bracketGraphLoader
+      .findById(bracketId)
+      .get()
+      .getGameSets()
+      .stream()
+      .filter(gameSet -> gameSet.getId().equals(gameSetId))
+      .findFirst()
+      .get();
   }
 
   /**
@@ -0,0 +1,86 @@
+package mariomonday.backend.apis;
+
+import java.util.List;
+import mariomonday.backend.apis.schema.ApiLeaderboardEntry;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class LeaderboardControllerTest extends BaseSpringTest {
+
+  @Autowired
+  LeaderboardController leaderboardController;
+
+  @Autowired
+  PlayerController playerController;
+
+  private List<Player> players;
+
+  @BeforeEach
+  public void setUp() {
+    players = TestDataUtil.createNFakePlayers(5)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+  }
+
+  @Test
+  public void testGetLeaderboard_shouldReturnLimitedPlayers() {
+    // Act
+    var leaderboard = leaderboardController.getLeaderboard(GameType.SMASH_ULTIMATE_SINGLES, 3);
+
+    // Verify
+    Assertions.assertEquals(3, leaderboard.size());
+  }
+
+  @Test
+  public void testGetLeaderboard_shouldIncludePlayer_whenPlayerCreatedAndDeleted() {
+    // Setup
+    leaderboardController.getLeaderboard(GameType.SMASH_ULTIMATE_SINGLES, 10);
+
+    // Act
+    var newPlayer = playerController.postPlayer(Player.builder().name("New guy in town").build());
+    var withNewPlayer = leaderboardController.getLeaderboardAround(
+      GameType.SMASH_ULTIMATE_SINGLES,
+      newPlayer.getId(),
+      0
+    );
+    playerController.deletePlayer(newPlayer.getId());
+
+    // Verify
+    Assertions.assertEquals(newPlayer.getId(), withNewPlayer.get(0).getPlayer().getId());
+    Assertions.assertEquals(Player.STARTING_ELO, withNewPlayer.get(0).getElo());
+    Assertions.assertThrows(NotFoundException.class, () ->
+      leaderboardController.getLeaderboardAround(GameType.SMASH_ULTIMATE_SINGLES, newPlayer.getId(), 0)
+    );
+  }
+
+  @Test
+  public void testGetLeaderboardAround_shouldRankPlayer() {
+    // Act
+    var around = leaderboardController.getLeaderboardAround(GameType.MARIO_KART_8, players.get(0).getId(), 2);
+
+    // Verify
+    Assertions.assertTrue(around.stream().map(ApiLeaderboardEntry::getPlayer).anyMatch(players.get(0)::equals));
+    Assertions.assertTrue(around.size() >= 3);
+  }
+
+  @Test
+  public void testGetLeaderboard_shouldComplain_whenLimitInvalid() {
+    // Act & Verify
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      leaderboardController.getLeaderboard(GameType.SMASH_ULTIMATE_SINGLES, 0)
+    );
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      leaderboardController.getLeaderboardAround(GameType.SMASH_ULTIMATE_SINGLES, players.get(0).getId(), -1)
+    );
+  }
+}
@@ -1,13 +1,25 @@
 package mariomonday.backend.apis;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.PlayerSort;
 import mariomonday.backend.database.schema.GameType;
 import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.RatingChange;
 import mariomonday.backend.database.tables.PlayerRepository;
+import mariomonday.backend.database.tables.RatingChangeRepository;
 import mariomonday.backend.error.exceptions.AlreadyExistsException;
 import mariomonday.backend.error.exceptions.InvalidRequestException;
 import mariomonday.backend.error.exceptions.NotFoundException;
@@ -17,6 +29,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @SpringBootTest
 public class PlayerControllerTest {
@@ -27,6 +41,12 @@ public class PlayerControllerTest {
   @Autowired
   PlayerController playerController;
 
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  RatingChangeRepository ratingChangeRepository;
+
   Map<String, Player> playerNameToPlayer;
 
   @BeforeEach
@@ -45,18 +65,194 @@ public class PlayerControllerTest {
   @AfterEach
   public void cleanUp() {
     playerRepository.deleteAll();
+    ratingChangeRepository.deleteAll();
   }
 
   @Test
-  public void testGetAllPlayers_shouldReturnAllPlayers_whenCalled() {
+  public void testGetAllPlayers_shouldReturnAllPlayers_whenCalled() throws Exception {
     // Act
-    var players = playerController.getAllPlayers();
+    var players = readPlayers(playerController.getAllPlayers(PlayerSort.NAME, null, null, null, null));
 
     // Verify
     Assertions.assertEquals(players.size(), 4);
     Assertions.assertTrue(players.containsAll(playerNameToPlayer.values()));
   }
 
+  @Test
+  public void testGetAllPlayers_shouldPageByName_whenLimitGiven() throws Exception {
+    // Act
+    var firstResponse = playerController.getAllPlayers(PlayerSort.NAME, null, null, 3, null);
+    var lastResponse = playerController.getAllPlayers(PlayerSort.NAME, null, nextCursor(firstResponse), 3, null);
+
+    // Verify
+    Assertions.assertEquals(List.of("Jack", "Noah", "Reed"), names(readPlayers(firstResponse)));
+    Assertions.assertEquals(List.of("Zach"), names(readPlayers(lastResponse)));
+    Assertions.assertNull(nextCursor(lastResponse));
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldPageByName_whenLastPlayerRenamed() throws Exception {
+    // Setup
+    var firstResponse = playerController.getAllPlayers(PlayerSort.NAME, null, null, 2, null);
+    var noahId = playerNameToPlayer.get("Noah").getId();
+    playerController.patchPlayer(noahId, Player.builder().name("Aaron").build());
+
+    // Act
+    var lastPage = readPlayers(
+      playerController.getAllPlayers(PlayerSort.NAME, null, nextCursor(firstResponse), 2, null)
+    );
+
+    // Verify
+    Assertions.assertEquals(List.of("Jack", "Noah"), names(readPlayers(firstResponse)));
+    Assertions.assertEquals(List.of("Reed", "Zach"), names(lastPage));
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldPageByElo_whenLastPlayerDeleted() throws Exception {
+    // Setup
+    setElo("Reed", 1600);
+    setElo("Jack", 1550);
+    setElo("Zach", 1400);
+    var firstResponse = playerController.getAllPlayers(PlayerSort.ELO, GameType.SMASH_ULTIMATE_SINGLES, null, 2, null);
+    playerController.deletePlayer(playerNameToPlayer.get("Jack").getId());
+
+    // Act
+    var lastPage = readPlayers(
+      playerController.getAllPlayers(
+        PlayerSort.ELO,
+        GameType.SMASH_ULTIMATE_SINGLES,
+        nextCursor(firstResponse),
+        2,
+        null
+      )
+    );
+
+    // Verify
+    Assertions.assertEquals(List.of("Reed", "Jack"), names(readPlayers(firstResponse)));
+    Assertions.assertEquals(List.of("Noah", "Zach"), names(lastPage));
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldLeaveOutSortField_whenPagedWithoutIt() throws Exception {
+    // Setup
+    setElo("Reed", 1600);
+
+    // Act
+    var firstResponse = playerController.getAllPlayers(
+      PlayerSort.ELO,
+      GameType.SMASH_ULTIMATE_SINGLES,
+      null,
+      1,
+      Set.of("name")
+    );
+    var nextPage = readPlayers(
+      playerController.getAllPlayers(
+        PlayerSort.ELO,
+        GameType.SMASH_ULTIMATE_SINGLES,
+        nextCursor(firstResponse),
+        1,
+        null
+      )
+    );
+
+    // Verify
+    var firstPage = readPlayers(firstResponse);
+    Assertions.assertEquals(List.of("Reed"), names(firstPage));
+    Assertions.assertNull(firstPage.get(0).getEloMap());
+    Assertions.assertEquals(1, nextPage.size());
+    Assertions.assertNotEquals("Reed", nextPage.get(0).getName());
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldPageByElo_whenSortedByElo() throws Exception {
+    // Setup
+    setElo("Reed", 1600);
+    setElo("Zach", 1400);
+    // Noah and Jack share an ELO, so they are ordered by ID
+    var tiedNames = List.of("Noah", "Jack")
+      .stream()
+      .sorted(Comparator.comparing(name -> playerNameToPlayer.get(name).getId()))
+      .toList();
+
+    // Act
+    var firstResponse = playerController.getAllPlayers(PlayerSort.ELO, GameType.SMASH_ULTIMATE_SINGLES, null, 2, null);
+    var lastPage = readPlayers(
+      playerController.getAllPlayers(
+        PlayerSort.ELO,
+        GameType.SMASH_ULTIMATE_SINGLES,
+        nextCursor(firstResponse),
+        2,
+        null
+      )
+    );
+
+    // Verify
+    Assertions.assertEquals(List.of("Reed", tiedNames.get(0)), names(readPlayers(firstResponse)));
+    Assertions.assertEquals(List.of(tiedNames.get(1), "Zach"), names(lastPage));
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldPageByElo_whenPlayerHasNoEloForGameType() throws Exception {
+    // Setup
+    setElo("Reed", 1600);
+    setElo("Zach", 1400);
+    var noah = playerNameToPlayer.get("Noah");
+    noah.getEloMap().remove(GameType.SMASH_ULTIMATE_SINGLES);
+    playerRepository.save(noah);
+
+    // Act
+    var listedNames = new ArrayList<String>();
+    String after = null;
+    for (int page = 0; page < 5; page++) {
+      var response = playerController.getAllPlayers(PlayerSort.ELO, GameType.SMASH_ULTIMATE_SINGLES, after, 1, null);
+      listedNames.addAll(names(readPlayers(response)));
+      after = nextCursor(response);
+      if (after == null) {
+        break;
+      }
+    }
+
+    // Verify
+    Assertions.assertEquals(List.of("Reed", "Jack", "Zach", "Noah"), listedNames);
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldOnlyIncludeFields_whenFieldsGiven() throws Exception {
+    // Act
+    var response = playerController.getAllPlayers(PlayerSort.NAME, null, null, null, Set.of("name"));
+
+    // Verify
+    var json = objectMapper.readTree(write(response));
+    Assertions.assertEquals(4, json.size());
+    for (var player : json) {
+      Assertions.assertTrue(player.has("id"));
+      Assertions.assertTrue(player.has("name"));
+      Assertions.assertFalse(player.has("eloMap"));
+    }
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldThrow_whenSortedByEloWithoutGameType() {
+    // Act & Verify
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      playerController.getAllPlayers(PlayerSort.ELO, null, null, null, null)
+    );
+  }
+
+  @Test
+  public void testGetAllPlayers_shouldThrow_whenInvalidPage() {
+    // Act & Verify
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      playerController.getAllPlayers(PlayerSort.NAME, null, null, 0, null)
+    );
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      playerController.getAllPlayers(PlayerSort.ELO, GameType.SMASH_ULTIMATE_SINGLES, "Not a cursor", 10, null)
+    );
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      playerController.getAllPlayers(PlayerSort.NAME, null, null, null, Set.of("password"))
+    );
+  }
+
   @Test
   public void testGetPlayer_shouldReturnPlayer_whenCalled() {
     // Act
@@ -66,6 +262,43 @@ public class PlayerControllerTest {
     Assertions.assertEquals(player, playerNameToPlayer.get("Reed"));
   }
 
+  @Test
+  public void testGetRatingHistory_shouldReturnChangesInOrder_whenInRange() {
+    // Setup
+    var reedId = playerNameToPlayer.get("Reed").getId();
+    var start = Instant.parse("2025-01-06T18:00:00Z");
+    ratingChangeRepository.saveAll(
+      List.of(
+        ratingChange(reedId, GameType.SMASH_ULTIMATE_SINGLES, start.plus(Duration.ofDays(7)), 1, 1516, 1500),
+        ratingChange(reedId, GameType.SMASH_ULTIMATE_SINGLES, start, 2, 1516, 1532),
+        ratingChange(reedId, GameType.SMASH_ULTIMATE_SINGLES, start, 1, 1500, 1516),
+        ratingChange(reedId, GameType.SMASH_ULTIMATE_DOUBLES, start, 1, 1500, 1484),
+        ratingChange(playerNameToPlayer.get("Zach").getId(), GameType.SMASH_ULTIMATE_SINGLES, start, 1, 1500, 1484)
+      )
+    );
+
+    // Act
+    var history = playerController.getRatingHistory(reedId, GameType.SMASH_ULTIMATE_SINGLES, null, null);
+    var firstWeek = playerController.getRatingHistory(
+      reedId,
+      GameType.SMASH_ULTIMATE_SINGLES,
+      start,
+      start.plus(Duration.ofDays(7))
+    );
+
+    // Verify
+    Assertions.assertEquals(List.of(1516, 1532, 1500), history.stream().map(RatingChange::getAfter).toList());
+    Assertions.assertEquals(List.of(1516, 1532), firstWeek.stream().map(RatingChange::getAfter).toList());
+  }
+
+  @Test
+  public void testGetRatingHistory_shouldThrow_whenPlayerDoesNotExist() {
+    // Act & Verify
+    Assertions.assertThrows(NotFoundException.class, () ->
+      playerController.getRatingHistory("Fake player", GameType.SMASH_ULTIMATE_SINGLES, null, null)
+    );
+  }
+
   @Test
   public void testGetPlayer_shouldThrow_whenPlayerDoesNotExist() {
     // Act & Verify
@@ -224,6 +457,30 @@ public class PlayerControllerTest {
     );
   }
 
+  private void setElo(String name, int elo) {
+    var player = playerNameToPlayer.get(name);
+    player.getEloMap().put(GameType.SMASH_ULTIMATE_SINGLES, elo);
+    playerRepository.save(player);
+  }
+
+  private byte[] write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+    var outputStream = new ByteArrayOutputStream();
+    response.getBody().writeTo(outputStream);
+    return outputStream.toByteArray();
+  }
+
+  private List<Player> readPlayers(ResponseEntity<StreamingResponseBody> response) throws IOException {
+    return objectMapper.readValue(write(response), new TypeReference<List<Player>>() {});
+  }
+
+  private static String nextCursor(ResponseEntity<StreamingResponseBody> response) {
+    return response.getHeaders().getFirst(PlayerController.NEXT_CURSOR_HEADER);
+  }
+
+  private static List<String> names(List<Player> players) {
+    return players.stream().map(Player::getName).toList();
+  }
+
   private Map<GameType, Integer> generateDefaultEloMap() {
     var result = new HashMap<GameType, Integer>();
     for (var gameType : GameType.values()) {
@@ -231,4 +488,23 @@ public class PlayerControllerTest {
     }
     return result;
   }
+
+  private static RatingChange ratingChange(
+    String playerId,
+    GameType gameType,
+    Instant date,
+    int round,
+    int before,
+    int after
+  ) {
+    return RatingChange.builder()
+      .playerId(playerId)
+      .gameType(gameType)
+      .bracketId(date.toString())
+      .date(date)
+      .round(round)
+      .before(before)
+      .after(after)
+      .build();
+  }
 }
@@ -0,0 +1,158 @@
+package mariomonday.backend.apis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "reactiveapi.enabled=true")
+public class ReactiveBracketControllerTest extends BaseSpringTest {
+
+  @Autowired
+  private ReactiveBracketController reactiveBracketController;
+
+  private List<Player> players;
+
+  @BeforeEach
+  public void setUp() {
+    players = TestDataUtil.createNFakePlayers(8)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+  }
+
+  @Test
+  public void testGetBracket_shouldMatchBlockingApi_whenBracketPartiallyCompleted() throws Exception {
+    // Setup
+    var bracket = bracketController.postBracket(createBracketRequest());
+    var gameSet = bracket.getGameSets().get(0).get(0);
+    var expectedBracket = bracketController.completeGameSet(
+      bracket.getId(),
+      gameSet.getId(),
+      CompleteGameSetRequest.builder()
+        .games(List.of(gameSet.getPlayerSets()))
+        .winners(gameSet.getPlayerSets().subList(0, 1))
+        .build()
+    );
+
+    // Act
+    var response = reactiveBracketController.getBracket(bracket.getId(), null).block();
+
+    // Verify
+    Assertions.assertEquals(expectedBracket, objectMapper.readValue(response.getBody(), ApiBracket.class));
+    Assertions.assertArrayEquals(bracketController.getBracket(bracket.getId(), null).getBody(), response.getBody());
+  }
+
+  @Test
+  public void testGetBracket_shouldShareETagWithBlockingApi() {
+    // Setup
+    var bracket = bracketController.postBracket(createBracketRequest());
+    var eTag = bracketController.getBracket(bracket.getId(), null).getHeaders().getETag();
+
+    // Act
+    var response = reactiveBracketController.getBracket(bracket.getId(), null).block();
+    var notModifiedResponse = reactiveBracketController.getBracket(bracket.getId(), eTag).block();
+
+    // Verify
+    Assertions.assertEquals(eTag, response.getHeaders().getETag());
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED, notModifiedResponse.getStatusCode());
+    Assertions.assertNull(notModifiedResponse.getBody());
+  }
+
+  @Test
+  public void testGetBracket_shouldComplain_whenBracketDoesNotExist() {
+    // Act & Verify
+    Assertions.assertThrows(NotFoundException.class, () ->
+      reactiveBracketController.getBracket("Fake bracket", null).block()
+    );
+  }
+
+  @Test
+  public void testGetCurrentBracket_shouldReturnMostRecentBracket() throws Exception {
+    // Setup
+    bracketController.postBracket(createBracketRequest());
+    var expectedBracket = bracketController.postBracket(createBracketRequest());
+
+    // Act
+    var response = reactiveBracketController.getCurrentBracket(null, null).block();
+
+    // Verify
+    Assertions.assertEquals(expectedBracket, objectMapper.readValue(response.getBody(), ApiBracket.class));
+  }
+
+  @Test
+  public void testGetCurrentBracket_shouldComplain_whenNoBrackets() {
+    // Act & Verify
+    Assertions.assertThrows(NotFoundException.class, () ->
+      reactiveBracketController.getCurrentBracket(null, null).block()
+    );
+  }
+
+  @Test
+  public void testPostBracket_shouldCreateBracket() throws Exception {
+    // Setup
+    var blockingBracket = bracketController.postBracket(createBracketRequest());
+    Assertions.assertEquals(
+      blockingBracket.getId(),
+      objectMapper.readValue(bracketController.getCurrentBracket(null, null).getBody(), ApiBracket.class).getId()
+    );
+
+    // Act
+    var bracket = reactiveBracketController.postBracket(createBracketRequest()).block();
+
+    // Verify
+    Assertions.assertEquals(8, bracket.getTeams().size());
+    Assertions.assertEquals(3, bracket.getRounds());
+    var response = reactiveBracketController.getBracket(bracket.getId(), null).block();
+    Assertions.assertEquals(bracket, objectMapper.readValue(response.getBody(), ApiBracket.class));
+    // The blocking API sees the new bracket as well
+    Assertions.assertEquals(
+      bracket,
+      objectMapper.readValue(bracketController.getCurrentBracket(null, null).getBody(), ApiBracket.class)
+    );
+  }
+
+  @Test
+  public void testPostBracket_shouldComplain_whenPlayerDoesNotExist() {
+    // Setup
+    var request = CreateBracketRequest.builder()
+      .teams(Map.of("Real", List.of(players.get(0).getId()), "Fake", List.of("Fake player")))
+      .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+      .build();
+
+    // Act & Verify
+    Assertions.assertThrows(InvalidRequestException.class, () -> reactiveBracketController.postBracket(request).block());
+    Assertions.assertEquals(0, bracketRepository.count());
+  }
+
+  @Test
+  public void testPostBracket_shouldComplain_whenRequestInvalid() {
+    // Setup
+    var request = CreateBracketRequest.builder().teams(Map.of()).gameType(GameType.SMASH_ULTIMATE_SINGLES).build();
+
+    // Act & Verify
+    Assertions.assertThrows(InvalidRequestException.class, () -> reactiveBracketController.postBracket(request));
+  }
+
+  private CreateBracketRequest createBracketRequest() {
+    return CreateBracketRequest.builder()
+      .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+      .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+      .build();
+  }
+}
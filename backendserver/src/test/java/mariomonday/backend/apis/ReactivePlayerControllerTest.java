@@ -0,0 +1,50 @@
+package mariomonday.backend.apis;
+
+import java.util.Set;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "reactiveapi.enabled=true")
+public class ReactivePlayerControllerTest extends BaseSpringTest {
+
+  @Autowired
+  private ReactivePlayerController reactivePlayerController;
+
+  @Test
+  public void testGetAllPlayers_shouldReturnAllPlayers() {
+    // Setup
+    var players = playerRepository.insert(
+      TestDataUtil.createNFakePlayers(5)
+        .stream()
+        .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+        .toList()
+    );
+
+    // Act
+    var actualPlayers = reactivePlayerController.getAllPlayers().collectList().block();
+
+    // Verify
+    Assertions.assertEquals(Set.copyOf(players), Set.copyOf(actualPlayers));
+  }
+
+  @Test
+  public void testGetPlayer_shouldReturnPlayer_whenExists() {
+    // Setup
+    var player = playerRepository.insert(TestDataUtil.createFakePlayer("Reed").build());
+
+    // Act & Verify
+    Assertions.assertEquals(player, reactivePlayerController.getPlayer(player.getId()).block());
+  }
+
+  @Test
+  public void testGetPlayer_shouldComplain_whenPlayerDoesNotExist() {
+    // Act & Verify
+    Assertions.assertThrows(NotFoundException.class, () -> reactivePlayerController.getPlayer("Fake player").block());
+  }
+}
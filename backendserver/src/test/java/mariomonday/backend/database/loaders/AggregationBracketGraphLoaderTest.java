@@ -0,0 +1,70 @@
+package mariomonday.backend.database.loaders;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class AggregationBracketGraphLoaderTest extends BaseSpringTest {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  private AggregationBracketGraphLoader aggregationLoader;
+
+  private List<Player> players;
+
+  @BeforeEach
+  public void setUp() {
+    aggregationLoader = new AggregationBracketGraphLoader(mongoTemplate);
+    players = TestDataUtil.createNFakePlayers(8)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+  }
+
+  @Test
+  public void testFindById_shouldMatchBatchedLoader_whenBracketPartiallyCompleted() throws Exception {
+    // Setup
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    for (var gameSet : bracket.getGameSets().get(0)) {
+      bracketController.completeGameSet(
+        bracket.getId(),
+        gameSet.getId(),
+        CompleteGameSetRequest.builder()
+          .games(List.of(gameSet.getPlayerSets()))
+          .winners(gameSet.getPlayerSets().subList(0, 1))
+          .build()
+      );
+    }
+
+    // Act
+    var expected = ApiBracket.fromBracket(bracketGraphLoader.findById(bracket.getId()).get());
+    var actual = ApiBracket.fromBracket(aggregationLoader.findById(bracket.getId()).get());
+
+    // Verify
+    Assertions.assertEquals(expected, actual);
+    Assertions.assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(actual));
+  }
+
+  @Test
+  public void testFindById_shouldReturnEmpty_whenBracketDoesNotExist() {
+    Assertions.assertTrue(aggregationLoader.findById("Fake bracket").isEmpty());
+  }
+}
@@ -0,0 +1,91 @@
+package mariomonday.backend.database.loaders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BracketGraphLoaderTest extends BaseSpringTest {
+
+  private List<Player> players;
+
+  @BeforeEach
+  public void setUp() {
+    players = TestDataUtil.createNFakePlayers(4)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+  }
+
+  @Test
+  public void testFindById_shouldResolveEntireGraph_whenBracketExists() {
+    // Setup
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    var firstGameSet = bracket.getGameSets().get(0).get(0);
+    bracketController.completeGameSet(
+      bracket.getId(),
+      firstGameSet.getId(),
+      CompleteGameSetRequest.builder()
+        .games(List.of(firstGameSet.getPlayerSets()))
+        .winners(firstGameSet.getPlayerSets().subList(0, 1))
+        .build()
+    );
+
+    // Act
+    var loadedBracket = bracketGraphLoader.findById(bracket.getId()).get();
+
+    // Verify
+    Assertions.assertEquals(bracket.getId(), loadedBracket.getId());
+    Assertions.assertEquals(bracket.getDate(), loadedBracket.getDate());
+    Assertions.assertEquals(3, loadedBracket.getGameSets().size());
+    Assertions.assertEquals(4, loadedBracket.getTeams().size());
+    for (var team : loadedBracket.getTeams()) {
+      Assertions.assertEquals(1, team.getPlayers().size());
+      Assertions.assertTrue(players.contains(team.getPlayers().iterator().next()));
+    }
+
+    var completedGameSet = loadedBracket
+      .getGameSets()
+      .stream()
+      .filter(gameSet -> gameSet.getId().equals(firstGameSet.getId()))
+      .findFirst()
+      .get();
+    Assertions.assertEquals(1, completedGameSet.getWinners().size());
+    Assertions.assertEquals(1, completedGameSet.getLosers().size());
+    Assertions.assertEquals(1, completedGameSet.getGames().size());
+    var game = completedGameSet.getGames().iterator().next();
+    Assertions.assertEquals(firstGameSet.getPlayerSets(), game.getPlayerSets().stream().map(PlayerSet::getId).toList());
+
+    // Game sets should be shared across the graph rather than copied
+    var finalGameSet = loadedBracket.getFinalGameSet();
+    Assertions.assertEquals(2, finalGameSet.getPreviousGameSets().size());
+    Map<String, GameSet> gameSetsById = loadedBracket
+      .getGameSets()
+      .stream()
+      .collect(Collectors.toMap(GameSet::getId, gameSet -> gameSet));
+    for (var previousGameSet : finalGameSet.getPreviousGameSets()) {
+      Assertions.assertSame(gameSetsById.get(previousGameSet.getId()), previousGameSet);
+    }
+  }
+
+  @Test
+  public void testFindById_shouldReturnEmpty_whenBracketDoesNotExist() {
+    Assertions.assertTrue(bracketGraphLoader.findById("Fake bracket").isEmpty());
+  }
+}
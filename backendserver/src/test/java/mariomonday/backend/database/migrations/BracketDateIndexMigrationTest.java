@@ -0,0 +1,55 @@
+package mariomonday.backend.database.migrations;
+
+import java.util.stream.Collectors;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.utils.BaseSpringTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+public class BracketDateIndexMigrationTest extends BaseSpringTest {
+
+  @Autowired
+  private BracketDateIndexMigration bracketDateIndexMigration;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Test
+  public void testMigrate_shouldDropOldDateIndex_whenIndexExists() {
+    // Setup
+    mongoTemplate.indexOps(Bracket.class).createIndex(new Index().on("date", Direction.ASC).named("date"));
+
+    // Act
+    var migrated = bracketDateIndexMigration.migrate();
+
+    // Verify
+    Assertions.assertTrue(migrated);
+    var indexNames = mongoTemplate
+      .indexOps(Bracket.class)
+      .getIndexInfo()
+      .stream()
+      .map(IndexInfo::getName)
+      .collect(Collectors.toSet());
+    Assertions.assertFalse(indexNames.contains("date"));
+    Assertions.assertTrue(indexNames.contains("date_id"));
+    Assertions.assertTrue(indexNames.contains("gameType_date_id"));
+  }
+
+  @Test
+  public void testMigrate_shouldDoNothing_whenAlreadyMigrated() {
+    // Setup
+    var indexesBefore = mongoTemplate.indexOps(Bracket.class).getIndexInfo().size();
+
+    // Act
+    var migrated = bracketDateIndexMigration.migrate();
+
+    // Verify
+    Assertions.assertFalse(migrated);
+    Assertions.assertEquals(indexesBefore, mongoTemplate.indexOps(Bracket.class).getIndexInfo().size());
+  }
+}
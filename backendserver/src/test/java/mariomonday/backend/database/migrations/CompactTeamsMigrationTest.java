@@ -0,0 +1,114 @@
+package mariomonday.backend.database.migrations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.Game;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class CompactTeamsMigrationTest extends BaseSpringTest {
+
+  @Autowired
+  private CompactTeamsMigration compactTeamsMigration;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  private ApiBracket bracket;
+
+  @BeforeEach
+  public void setUp() {
+    var players = TestDataUtil.createNFakePlayers(8)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    var createdBracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    var gameSet = createdBracket.getGameSets().get(0).get(0);
+    bracket = bracketController.completeGameSet(
+      createdBracket.getId(),
+      gameSet.getId(),
+      CompleteGameSetRequest.builder()
+        .games(List.of(gameSet.getPlayerSets()))
+        .winners(gameSet.getPlayerSets().subList(0, 1))
+        .build()
+    );
+  }
+
+  @Test
+  public void testMigrate_shouldStoreTeamIds_whenTeamsStoredInFull() {
+    // Setup
+    var teamDocsById = mongoTemplate
+      .findById(bracket.getId(), Document.class, mongoTemplate.getCollectionName(Bracket.class))
+      .getList("teams", Document.class)
+      .stream()
+      .collect(Collectors.toMap(teamDoc -> teamDoc.get("_id").toString(), teamDoc -> teamDoc));
+    embedTeams(GameSet.class, List.of("winners", "losers", "addedPlayerSets"), teamDocsById);
+    embedTeams(Game.class, List.of("playerSets"), teamDocsById);
+    var embeddedBytes = storedBytes(GameSet.class) + storedBytes(Game.class);
+    bracketStateEngine.clear();
+    var loadedBeforeMigrating = ApiBracket.fromBracket(bracketGraphLoader.findById(bracket.getId()).get());
+
+    // Act
+    var migrated = compactTeamsMigration.migrate();
+
+    // Verify
+    Assertions.assertTrue(migrated);
+    Assertions.assertEquals(bracket, loadedBeforeMigrating);
+    Assertions.assertEquals(bracket, ApiBracket.fromBracket(bracketGraphLoader.findById(bracket.getId()).get()));
+    var compactBytes = storedBytes(GameSet.class) + storedBytes(Game.class);
+    Assertions.assertTrue(compactBytes < embeddedBytes);
+    for (var gameSetDoc : mongoTemplate.findAll(Document.class, mongoTemplate.getCollectionName(GameSet.class))) {
+      var storedTeams = gameSetDoc.getList("addedPlayerSets", Object.class);
+      Assertions.assertTrue(storedTeams.stream().allMatch(String.class::isInstance));
+    }
+  }
+
+  @Test
+  public void testMigrate_shouldDoNothing_whenTeamsStoredAsIds() {
+    // Act & Verify
+    Assertions.assertFalse(compactTeamsMigration.migrate());
+  }
+
+  /**
+   * Store every team in the given fields in full, as they were before only team IDs were stored
+   */
+  private void embedTeams(Class<?> entityClass, List<String> teamFields, Map<String, Document> teamDocsById) {
+    var collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass));
+    for (var doc : collection.find()) {
+      for (var field : teamFields) {
+        doc.put(field, doc.getList(field, String.class, List.of()).stream().map(teamDocsById::get).toList());
+      }
+      collection.replaceOne(new Document("_id", doc.get("_id")), doc);
+    }
+  }
+
+  private long storedBytes(Class<?> entityClass) {
+    return mongoTemplate
+      .findAll(Document.class, mongoTemplate.getCollectionName(entityClass))
+      .stream()
+      .mapToLong(doc -> new RawBsonDocument(doc, new DocumentCodec()).getByteBuffer().remaining())
+      .sum();
+  }
+}
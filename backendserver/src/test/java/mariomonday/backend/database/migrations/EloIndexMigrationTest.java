@@ -0,0 +1,64 @@
+package mariomonday.backend.database.migrations;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.utils.BaseSpringTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+public class EloIndexMigrationTest extends BaseSpringTest {
+
+  @Autowired
+  private EloIndexMigration eloIndexMigration;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Test
+  public void testMigrate_shouldIndexEveryGameType_whenIndexMissing() {
+    // Setup
+    mongoTemplate.indexOps(Player.class).dropIndex(EloIndexMigration.indexName(GameType.MARIO_KART_8));
+
+    // Act
+    var migrated = eloIndexMigration.migrate();
+
+    // Verify
+    Assertions.assertTrue(migrated);
+    var indexesByName = mongoTemplate
+      .indexOps(Player.class)
+      .getIndexInfo()
+      .stream()
+      .collect(Collectors.toMap(IndexInfo::getName, index -> index));
+    for (var gameType : GameType.values()) {
+      var index = indexesByName.get(EloIndexMigration.indexName(gameType));
+      Assertions.assertNotNull(index, gameType.name());
+      Assertions.assertEquals("eloMap." + gameType.name(), index.getIndexFields().get(0).getKey());
+      Assertions.assertEquals(Direction.DESC, index.getIndexFields().get(0).getDirection());
+      Assertions.assertEquals("_id", index.getIndexFields().get(1).getKey());
+    }
+  }
+
+  @Test
+  public void testMigrate_shouldDoNothing_whenAlreadyMigrated() {
+    // Act
+    var migrated = eloIndexMigration.migrate();
+
+    // Verify
+    Assertions.assertFalse(migrated);
+    var indexNames = mongoTemplate
+      .indexOps(Player.class)
+      .getIndexInfo()
+      .stream()
+      .map(IndexInfo::getName)
+      .collect(Collectors.toSet());
+    Assertions.assertTrue(
+      Arrays.stream(GameType.values()).map(EloIndexMigration::indexName).allMatch(indexNames::contains)
+    );
+  }
+}
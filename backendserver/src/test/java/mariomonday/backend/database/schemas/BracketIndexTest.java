@@ -0,0 +1,138 @@
+package mariomonday.backend.database.schemas;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.managers.BracketViewManager;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Checks an index exists that could answer each bracket history lookup on its own, reading the indexes the database
+ * actually has, so it works without the database being able to explain queries.
+ * Whether the planner does use them is checked by {@link BracketQueryPlanTest} where Docker is available.
+ */
+public class BracketIndexTest extends BaseSpringTest {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  private Bracket kartBracket;
+
+  @BeforeEach
+  public void setUp() {
+    var players = TestDataUtil.createNFakePlayers(4)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    for (var gameType : List.of(GameType.SMASH_ULTIMATE_SINGLES, GameType.MARIO_KART_8)) {
+      var bracket = bracketController.postBracket(
+        CreateBracketRequest.builder()
+          .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+          .gameType(gameType)
+          .build()
+      );
+      if (gameType == GameType.MARIO_KART_8) {
+        kartBracket = bracketRepository.findById(bracket.getId()).get();
+      }
+    }
+  }
+
+  @Test
+  public void testCurrentBracketQuery_shouldHaveCoveringIndex() {
+    // Act
+    var coveringIndexes = coveringIndexes(BracketViewManager.currentBracketQuery(null));
+
+    // Verify
+    Assertions.assertFalse(coveringIndexes.isEmpty(), bracketIndexes().toString());
+  }
+
+  @Test
+  public void testCurrentBracketQuery_shouldHaveCoveringIndex_whenGameTypeGiven() {
+    // Act
+    var coveringIndexes = coveringIndexes(BracketViewManager.currentBracketQuery(GameType.MARIO_KART_8));
+
+    // Verify
+    Assertions.assertFalse(coveringIndexes.isEmpty(), bracketIndexes().toString());
+  }
+
+  @Test
+  public void testFindByGameType_shouldHaveIndexOnGameType() {
+    // Act
+    var brackets = bracketRepository.findByGameType(GameType.MARIO_KART_8);
+
+    // Verify
+    Assertions.assertEquals(List.of(kartBracket.getId()), brackets.stream().map(Bracket::getId).toList());
+    Assertions.assertTrue(
+      bracketIndexes()
+        .stream()
+        .anyMatch(index -> index.getIndexFields().get(0).getKey().equals("gameType")),
+      bracketIndexes().toString()
+    );
+  }
+
+  /**
+   * Find the indexes that answer a bracket query on their own: the filtered fields lead the index,
+   * followed by the sort in the index's order or its reverse, and every returned field is in the index
+   */
+  private List<IndexInfo> coveringIndexes(Query query) {
+    var queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    var entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Bracket.class);
+    var filteredFields = queryMapper.getMappedObject(query.getQueryObject(), entity).keySet();
+    var sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+    var returnedFields = queryMapper.getMappedFields(query.getFieldsObject(), entity).keySet();
+    return bracketIndexes()
+      .stream()
+      .filter(index -> {
+        var fields = index.getIndexFields();
+        var keys = fields.stream().map(IndexField::getKey).toList();
+        if (keys.size() < filteredFields.size() + sort.size() || !keys.containsAll(returnedFields)) {
+          return false;
+        }
+        if (!Set.copyOf(keys.subList(0, filteredFields.size())).equals(filteredFields)) {
+          return false;
+        }
+        return (
+          followsSort(fields.subList(filteredFields.size(), fields.size()), sort, false) ||
+          followsSort(fields.subList(filteredFields.size(), fields.size()), sort, true)
+        );
+      })
+      .toList();
+  }
+
+  /**
+   * Whether the index fields start with the sort, in the same directions or all reversed
+   */
+  private static boolean followsSort(List<IndexField> fields, Document sort, boolean reversed) {
+    var i = 0;
+    for (var sortField : sort.entrySet()) {
+      var field = fields.get(i++);
+      var ascending = ((Number) sortField.getValue()).intValue() > 0;
+      var expected = ascending != reversed ? Direction.ASC : Direction.DESC;
+      if (!field.getKey().equals(sortField.getKey()) || field.getDirection() != expected) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private List<IndexInfo> bracketIndexes() {
+    return mongoTemplate.indexOps(Bracket.class).getIndexInfo();
+  }
+}
@@ -0,0 +1,140 @@
+package mariomonday.backend.database.schemas;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.managers.BracketViewManager;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Checks the query planner of a real mongod answers the bracket history lookups from the bracket indexes,
+ * without sorting. The embedded test database cannot explain queries, so this runs against a Mongo container,
+ * and is skipped where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class BracketQueryPlanTest extends BaseSpringTest {
+
+  @Container
+  private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+  @DynamicPropertySource
+  static void mongoProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.data.mongodb.host", MONGO::getHost);
+    registry.add("spring.data.mongodb.port", MONGO::getFirstMappedPort);
+  }
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @BeforeEach
+  public void setUp() {
+    var players = TestDataUtil.createNFakePlayers(4)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    for (var gameType : List.of(GameType.SMASH_ULTIMATE_SINGLES, GameType.MARIO_KART_8)) {
+      bracketController.postBracket(
+        CreateBracketRequest.builder()
+          .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+          .gameType(gameType)
+          .build()
+      );
+    }
+  }
+
+  @Test
+  public void testCurrentBracketQuery_shouldOnlyReadIndex() {
+    // Act
+    var plan = explain(BracketViewManager.currentBracketQuery(null));
+
+    // Verify
+    assertIndexOnly(plan);
+  }
+
+  @Test
+  public void testCurrentBracketQuery_shouldOnlyReadIndex_whenGameTypeGiven() {
+    // Act
+    var plan = explain(BracketViewManager.currentBracketQuery(GameType.MARIO_KART_8));
+
+    // Verify
+    assertIndexOnly(plan);
+  }
+
+  @Test
+  public void testBracketHistoryPage_shouldNotSort_whenGameTypeGiven() {
+    // Setup
+    var query = new Query(Criteria.where("gameType").is(GameType.MARIO_KART_8))
+      .with(Sort.by(Order.desc("date"), Order.desc("_id")))
+      .limit(21);
+
+    // Act
+    var plan = explain(query);
+
+    // Verify
+    Assertions.assertTrue(plan.contains("\"IXSCAN\""), plan);
+    Assertions.assertFalse(plan.contains("\"SORT\""), plan);
+  }
+
+  @Test
+  public void testEloReplayQuery_shouldNotSort() {
+    // Setup
+    var query = new Query(Criteria.where("gameType").is(GameType.MARIO_KART_8).and("winners.0").exists(true)).with(
+      Sort.by(Order.asc("completedAt"), Order.asc("date"), Order.asc("_id"))
+    );
+
+    // Act
+    var plan = explain(query);
+
+    // Verify
+    Assertions.assertTrue(plan.contains("\"IXSCAN\""), plan);
+    Assertions.assertFalse(plan.contains("\"SORT\""), plan);
+  }
+
+  /**
+   * Explain a bracket query the same way {@link MongoTemplate} would run it
+   * @return The winning plan, as JSON
+   */
+  private String explain(Query query) {
+    var queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    var entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Bracket.class);
+    var find = mongoTemplate
+      .getCollection(mongoTemplate.getCollectionName(Bracket.class))
+      .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+      .sort(queryMapper.getMappedSort(query.getSortObject(), entity))
+      .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity));
+    if (query.getLimit() > 0) {
+      find.limit(query.getLimit());
+    }
+    return find.explain().get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+  }
+
+  /**
+   * Assert a plan reads an index without sorting, and without fetching any bracket
+   */
+  private static void assertIndexOnly(String plan) {
+    Assertions.assertTrue(plan.contains("\"IXSCAN\""), plan);
+    Assertions.assertFalse(plan.contains("\"SORT\""), plan);
+    Assertions.assertFalse(plan.contains("\"FETCH\""), plan);
+  }
+}
@@ -0,0 +1,120 @@
+package mariomonday.backend.managers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class BracketDeleterTest extends BaseSpringTest {
+
+  @Autowired
+  private BracketDeleter bracketDeleter;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  private List<Player> players;
+
+  @BeforeEach
+  public void setUp() {
+    players = TestDataUtil.createNFakePlayers(8)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+  }
+
+  @Test
+  public void testDelete_shouldDeleteGameSetsAndGames() {
+    // Setup
+    var bracket = postPlayedBracket();
+    var otherBracket = postPlayedBracket();
+
+    // Act
+    bracketDeleter.delete(bracket.getId());
+
+    // Verify
+    Assertions.assertFalse(bracketRepository.existsById(bracket.getId()));
+    Assertions.assertEquals(otherBracket.getGameSets().stream().mapToInt(List::size).sum(), gameSetRepository.count());
+    Assertions.assertEquals(1, gameRepository.count());
+    Assertions.assertEquals(
+      otherBracket,
+      ApiBracket.fromBracket(bracketGraphLoader.findById(otherBracket.getId()).get())
+    );
+  }
+
+  @Test
+  public void testDeleteInBackground_shouldDeleteBracketRightAway_andPurgeTheRestLater() throws Exception {
+    // Setup
+    var bracket = postPlayedBracket();
+
+    // Act
+    var purge = bracketDeleter.deleteInBackground(bracket.getId());
+
+    // Verify
+    Assertions.assertFalse(bracketRepository.existsById(bracket.getId()));
+    purge.get(1, TimeUnit.MINUTES);
+    Assertions.assertEquals(0, gameSetRepository.count());
+    Assertions.assertEquals(0, gameRepository.count());
+  }
+
+  @Test
+  public void testDeleteInBackground_shouldLogLeftoverGameSets_whenPurgeFails(CapturedOutput output) {
+    // Setup
+    var bracket = postPlayedBracket();
+    // A batch size of 0 makes every purge fail
+    var failingDeleter = new BracketDeleter(mongoTemplate, Runnable::run, 0);
+
+    // Act
+    var purge = failingDeleter.deleteInBackground(bracket.getId());
+
+    // Verify
+    Assertions.assertTrue(purge.isCompletedExceptionally());
+    Assertions.assertTrue(output.getOut().contains("Failed to purge deleted bracket " + bracket.getId()));
+    Assertions.assertTrue(output.getOut().contains(bracket.getGameSets().get(0).get(0).getId()));
+  }
+
+  @Test
+  public void testDelete_shouldComplain_whenBracketDoesNotExist() {
+    // Act & Verify
+    Assertions.assertThrows(NotFoundException.class, () -> bracketDeleter.delete("Fake bracket"));
+    Assertions.assertThrows(NotFoundException.class, () -> bracketDeleter.deleteInBackground("Fake bracket"));
+  }
+
+  /**
+   * Create a bracket with one completed game set, which has one game
+   */
+  private ApiBracket postPlayedBracket() {
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    var gameSet = bracket.getGameSets().get(0).get(0);
+    return bracketController.completeGameSet(
+      bracket.getId(),
+      gameSet.getId(),
+      CompleteGameSetRequest.builder()
+        .games(List.of(gameSet.getPlayerSets()))
+        .winners(gameSet.getPlayerSets().subList(0, 1))
+        .build()
+    );
+  }
+}
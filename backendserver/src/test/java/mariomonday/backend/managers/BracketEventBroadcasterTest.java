@@ -0,0 +1,157 @@
+package mariomonday.backend.managers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.ApiGameSet;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@AutoConfigureMockMvc
+public class BracketEventBroadcasterTest extends BaseSpringTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private BracketEventBroadcaster bracketEventBroadcaster;
+
+  private ApiBracket bracket;
+
+  @BeforeEach
+  public void setUp() {
+    var players = TestDataUtil.createNFakePlayers(4)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+  }
+
+  @Test
+  public void testPublish_shouldSendChangedGameSets_whenGameSetCompleted() throws Exception {
+    // Setup
+    var subscription = subscribe();
+    var gameSet = bracket.getGameSets().get(0).get(0);
+
+    // Act
+    completeGameSet(gameSet);
+
+    // Verify
+    var content = awaitContent(subscription, "event:GAME_SET_COMPLETED");
+    var event = objectMapper.readTree(content.substring(content.indexOf("data:") + "data:".length()).trim());
+    Assertions.assertEquals(bracketViewManager.get(bracket.getId()).getVersion(), event.get("version").asLong());
+    Assertions.assertEquals(1, event.get("sequence").asLong());
+    Assertions.assertTrue(content.contains("id:1"));
+    // The completed set and the final it feeds into
+    var changedGameSetIds = new ArrayList<String>();
+    event.get("gameSets").forEach(changedGameSet -> changedGameSetIds.add(changedGameSet.get("id").asText()));
+    Assertions.assertEquals(2, changedGameSetIds.size());
+    Assertions.assertTrue(changedGameSetIds.contains(gameSet.getId()));
+    Assertions.assertTrue(changedGameSetIds.contains(bracket.getGameSets().get(1).get(0).getId()));
+  }
+
+  @Test
+  public void testPublish_shouldNumberEventsInOrder_whenBracketChangedRepeatedly() throws Exception {
+    // Setup
+    var subscription = subscribe();
+    var firstRound = bracket.getGameSets().get(0);
+
+    // Act
+    for (var gameSet : firstRound) {
+      completeGameSet(gameSet);
+    }
+
+    // Verify
+    var content = awaitContent(subscription, "id:" + firstRound.size());
+    var sequences = new ArrayList<String>();
+    content.lines().filter(line -> line.startsWith("id:")).forEach(sequences::add);
+    Assertions.assertEquals(List.of("id:1", "id:2"), sequences);
+  }
+
+  @Test
+  public void testSendKeepAlives_shouldSendComment_whenSubscribed() throws Exception {
+    // Setup
+    var subscription = subscribe();
+
+    // Act
+    bracketEventBroadcaster.sendKeepAlives();
+
+    // Verify
+    awaitContent(subscription, ":keep-alive");
+  }
+
+  @Test
+  public void testPublish_shouldCloseSubscriptions_whenBracketDeleted() throws Exception {
+    // Setup
+    var subscription = subscribe();
+
+    // Act
+    bracketController.deleteBracket(bracket.getId(), false);
+
+    // Verify
+    awaitContent(subscription, "event:BRACKET_DELETED");
+    Assertions.assertEquals(0, bracketEventBroadcaster.getSubscriberCount(bracket.getId()));
+  }
+
+  @Test
+  public void testSubscribe_shouldComplain_whenBracketDoesNotExist() throws Exception {
+    mockMvc.perform(get("/api/bracket/{bracketId}/events", "Fake bracket")).andExpect(status().isNotFound());
+  }
+
+  private void completeGameSet(ApiGameSet gameSet) {
+    bracketController.completeGameSet(
+      bracket.getId(),
+      gameSet.getId(),
+      CompleteGameSetRequest.builder()
+        .games(List.of(gameSet.getPlayerSets()))
+        .winners(gameSet.getPlayerSets().subList(0, 1))
+        .build()
+    );
+  }
+
+  private MvcResult subscribe() throws Exception {
+    var result = mockMvc
+      .perform(get("/api/bracket/{bracketId}/events", bracket.getId()))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    Assertions.assertEquals(1, bracketEventBroadcaster.getSubscriberCount(bracket.getId()));
+    return result;
+  }
+
+  /**
+   * Events are sent from another thread, so wait for the expected event to be fully written
+   */
+  private static String awaitContent(MvcResult result, String expected) throws Exception {
+    for (int i = 0; i < 50; i++) {
+      var content = result.getResponse().getContentAsString();
+      // Every event ends with a blank line
+      if (content.contains(expected) && content.endsWith("\n\n")) {
+        return content;
+      }
+      Thread.sleep(100);
+    }
+    return Assertions.fail("Never received " + expected);
+  }
+}
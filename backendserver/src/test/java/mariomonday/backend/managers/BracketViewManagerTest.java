@@ -0,0 +1,193 @@
+package mariomonday.backend.managers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class BracketViewManagerTest extends BaseSpringTest {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private BracketEventBroadcaster bracketEventBroadcaster;
+
+  private List<Player> players;
+
+  @BeforeEach
+  public void setUp() {
+    players = TestDataUtil.createNFakePlayers(4)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+  }
+
+  @Test
+  public void testGet_shouldReturnStoredView_whenBracketWasWritten() throws Exception {
+    // Setup
+    var bracket = postBracket();
+    bracketViewManager.clearCache();
+
+    // Act
+    var actualBracket = bracketViewManager.get(bracket.getId());
+
+    // Verify
+    Assertions.assertEquals(bracket, objectMapper.readValue(actualBracket.getJson(), ApiBracket.class));
+    var view = bracketViewRepository.findById(bracket.getId()).get();
+    Assertions.assertEquals(1, view.getVersion());
+    Assertions.assertEquals(view.getVersion(), actualBracket.getVersion());
+    Assertions.assertEquals(bracket.getDate(), view.getDate());
+    Assertions.assertEquals(players.stream().map(Player::getId).collect(Collectors.toSet()), view.getPlayerIds());
+  }
+
+  @Test
+  public void testGet_shouldBuildView_whenViewMissing() throws Exception {
+    // Setup
+    var bracket = postBracket();
+    bracketViewRepository.deleteAll();
+    bracketViewManager.clearCache();
+
+    // Act
+    var actualBracket = bracketViewManager.get(bracket.getId());
+
+    // Verify
+    Assertions.assertEquals(bracket, objectMapper.readValue(actualBracket.getJson(), ApiBracket.class));
+    Assertions.assertTrue(bracketViewRepository.existsById(bracket.getId()));
+  }
+
+  @Test
+  public void testInvalidatePlayers_shouldRebuildViewsContainingPlayer() throws Exception {
+    // Setup
+    var bracket = postBracket();
+    var previousVersion = bracketViewManager.get(bracket.getId()).getVersion();
+    var renamedPlayer = players.get(0);
+    renamedPlayer.setName("Renamed");
+    playerRepository.save(renamedPlayer);
+
+    // Act
+    bracketViewManager.invalidatePlayers(List.of(renamedPlayer.getId()));
+
+    // Verify
+    var outdatedView = bracketViewRepository.findById(bracket.getId()).get();
+    Assertions.assertNull(outdatedView.getJson());
+    Assertions.assertEquals(previousVersion + 1, outdatedView.getVersion());
+    var rebuiltBracket = bracketViewManager.get(bracket.getId());
+    Assertions.assertEquals(previousVersion + 2, rebuiltBracket.getVersion());
+    Assertions.assertTrue(
+      objectMapper
+        .readValue(rebuiltBracket.getJson(), ApiBracket.class)
+        .getTeams()
+        .stream()
+        .anyMatch(team -> team.getName().equals("Renamed"))
+    );
+  }
+
+  @Test
+  public void testRefresh_shouldCacheNewestView_whenRefreshedConcurrently() {
+    // Setup
+    var bracket = postBracket();
+
+    // Act
+    IntStream.range(0, 20)
+      .mapToObj(i -> CompletableFuture.runAsync(() -> bracketViewManager.refresh(bracket.getId())))
+      .toList()
+      .forEach(CompletableFuture::join);
+
+    // Verify
+    var view = bracketViewRepository.findById(bracket.getId()).get();
+    Assertions.assertEquals(21, view.getVersion());
+    Assertions.assertEquals(view.getVersion(), bracketViewManager.get(bracket.getId()).getVersion());
+  }
+
+  @Test
+  public void testGetCurrent_shouldReturnNewestBracket_whenBracketAdded() {
+    // Setup
+    var firstBracket = postBracket();
+    Assertions.assertEquals(firstBracket.getId(), bracketViewManager.getCurrent().get().getId());
+
+    // Act
+    var secondBracket = postBracket();
+
+    // Verify
+    Assertions.assertEquals(secondBracket.getId(), bracketViewManager.getCurrent().get().getId());
+  }
+
+  @Test
+  public void testGetCurrent_shouldReturnNewestBracketOfGameType_whenGameTypeGiven() {
+    // Setup
+    var singlesBracket = postBracket(GameType.SMASH_ULTIMATE_SINGLES);
+    var kartBracket = postBracket(GameType.MARIO_KART_8);
+
+    // Act
+    var currentSinglesBracket = bracketViewManager.getCurrent(GameType.SMASH_ULTIMATE_SINGLES);
+    var currentKartBracket = bracketViewManager.getCurrent(GameType.MARIO_KART_8);
+    var currentDoublesBracket = bracketViewManager.getCurrent(GameType.SMASH_ULTIMATE_DOUBLES);
+
+    // Verify
+    Assertions.assertEquals(singlesBracket.getId(), currentSinglesBracket.get().getId());
+    Assertions.assertEquals(kartBracket.getId(), currentKartBracket.get().getId());
+    Assertions.assertTrue(currentDoublesBracket.isEmpty());
+    Assertions.assertEquals(kartBracket.getId(), bracketViewManager.getCurrent().get().getId());
+  }
+
+  @Test
+  public void testGet_shouldReadStoredView_whenBracketDroppedFromCache() throws Exception {
+    // Setup
+    var smallBracketViewManager = new BracketViewManager(
+      bracketStateEngine,
+      bracketViewRepository,
+      mongoTemplate,
+      objectMapper,
+      bracketEventBroadcaster,
+      1
+    );
+    var firstBracket = postBracket();
+    var secondBracket = postBracket();
+    var cachedBracket = smallBracketViewManager.get(firstBracket.getId());
+    // Changed behind the manager's back, so it only shows once the cached bracket is dropped
+    var storedView = bracketViewRepository.findById(firstBracket.getId()).get();
+    storedView.setVersion(storedView.getVersion() + 1);
+    bracketViewRepository.save(storedView);
+
+    // Act
+    var stillCachedBracket = smallBracketViewManager.get(firstBracket.getId());
+    smallBracketViewManager.get(secondBracket.getId());
+    var reloadedBracket = smallBracketViewManager.get(firstBracket.getId());
+
+    // Verify
+    Assertions.assertEquals(cachedBracket.getVersion(), stillCachedBracket.getVersion());
+    Assertions.assertEquals(storedView.getVersion(), reloadedBracket.getVersion());
+  }
+
+  @Test
+  public void testGet_shouldComplain_whenBracketDoesNotExist() {
+    Assertions.assertThrows(NotFoundException.class, () -> bracketViewManager.get("Fake bracket"));
+  }
+
+  private ApiBracket postBracket() {
+    return postBracket(GameType.SMASH_ULTIMATE_SINGLES);
+  }
+
+  private ApiBracket postBracket(GameType gameType) {
+    return bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(gameType)
+        .build()
+    );
+  }
+}
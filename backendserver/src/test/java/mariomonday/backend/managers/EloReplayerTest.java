@@ -0,0 +1,405 @@
+package mariomonday.backend.managers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.ApiGameSet;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.database.schema.RatingChange;
+import mariomonday.backend.managers.ratingcalculators.AbstractEloManager;
+import mariomonday.backend.utils.BaseSpringTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class EloReplayerTest extends BaseSpringTest {
+
+  private static final List<String> PLAYER_NAMES = List.of("Reed", "Zach", "Noah", "Jack", "Ann", "Bob", "Cal", "Dee");
+
+  @Autowired
+  private EloReplayer eloReplayer;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private AbstractEloManager eloManager;
+
+  @BeforeEach
+  public void setUp() {
+    playerRepository.saveAll(PLAYER_NAMES.stream().map(EloReplayerTest::createPlayer).toList());
+  }
+
+  @Test
+  public void testReplay_shouldMatchLiveElo_whenEloScrambled() {
+    // Setup
+    playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Zach");
+    playBracket(
+      GameType.SMASH_ULTIMATE_DOUBLES,
+      Map.of("Reed Noah", List.of("Reed", "Noah"), "Zach Jack", List.of("Zach", "Jack")),
+      "Reed Noah"
+    );
+    playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Reed");
+    var liveElos = elosByPlayerId();
+    var liveHistory = ratingHistory();
+    mongoTemplate.updateMulti(new Query(), new Update().set("eloMap.SMASH_ULTIMATE_SINGLES", 1), Player.class);
+    ratingChangeRepository.deleteAll();
+
+    // Act
+    var replayedCount = eloReplayer.replay();
+
+    // Verify
+    Assertions.assertEquals(3, replayedCount);
+    Assertions.assertEquals(liveElos, elosByPlayerId());
+    Assertions.assertEquals(liveHistory, ratingHistory());
+    Assertions.assertNotEquals(Player.STARTING_ELO, liveElos.get("Jack").get(GameType.SMASH_ULTIMATE_DOUBLES));
+    Assertions.assertEquals(
+      liveElos.get("Reed").get(GameType.SMASH_ULTIMATE_SINGLES),
+      leaderboardManager.getAround(GameType.SMASH_ULTIMATE_SINGLES, "Reed", 0).get().get(0).getElo()
+    );
+  }
+
+  @Test
+  public void testReplay_shouldResetElo_whenPlayerHasNoCompletedBrackets() {
+    // Setup
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder().teams(singlesTeams()).gameType(GameType.SMASH_ULTIMATE_SINGLES).build()
+    );
+    completeFinal(bracket, "Zach");
+    mongoTemplate.updateMulti(new Query(), new Update().set("eloMap.SMASH_ULTIMATE_SINGLES", 2000), Player.class);
+
+    // Act
+    var replayedCount = eloReplayer.replay();
+
+    // Verify
+    Assertions.assertEquals(0, replayedCount);
+    Assertions.assertEquals(0, ratingChangeRepository.count());
+    elosByPlayerId().values().forEach(eloMap -> Assertions.assertEquals(Player.generateStartingEloMap(), eloMap));
+  }
+
+  @Test
+  public void testReplay_shouldMatchSequentialReplay_whenGameTypesAndGameSetsReplayedInParallel() {
+    // Setup
+    var singlesTeams = PLAYER_NAMES.subList(0, 4).stream().collect(Collectors.toMap(name -> name, List::of));
+    var doublesTeams = Map.of(
+      "Reed Ann",
+      List.of("Reed", "Ann"),
+      "Zach Bob",
+      List.of("Zach", "Bob"),
+      "Noah Cal",
+      List.of("Noah", "Cal"),
+      "Jack Dee",
+      List.of("Jack", "Dee")
+    );
+    playOut(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams, true);
+    playOut(GameType.SMASH_ULTIMATE_DOUBLES, doublesTeams, false);
+    playOut(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams, false);
+    playOut(GameType.SMASH_ULTIMATE_DOUBLES, doublesTeams, true);
+    var liveElos = elosByPlayerId();
+    var sequentialReplayer = new EloReplayer(
+      mongoTemplate,
+      clock,
+      eloManager,
+      leaderboardManager,
+      bracketViewManager,
+      new ForkJoinPool(1)
+    );
+
+    // Act
+    var replayedCount = eloReplayer.replay();
+    var parallelElos = elosByPlayerId();
+    eloReplayer.replay();
+    var repeatedElos = elosByPlayerId();
+    sequentialReplayer.replay();
+    var sequentialElos = elosByPlayerId();
+
+    // Verify
+    Assertions.assertEquals(4, replayedCount);
+    Assertions.assertEquals(sequentialElos, parallelElos);
+    Assertions.assertEquals(sequentialElos, repeatedElos);
+    Assertions.assertEquals(liveElos, parallelElos);
+  }
+
+  @Test
+  public void testDeleteBracket_shouldMatchFullReplay_whenCompletedBracketDeleted() {
+    // Setup
+    var singlesTeams = PLAYER_NAMES.subList(0, 4).stream().collect(Collectors.toMap(name -> name, List::of));
+    var firstBracketId = playOut(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams, true);
+    var doublesTeams = Map.of("Reed Ann", List.of("Reed", "Ann"), "Zach Bob", List.of("Zach", "Bob"));
+    playOut(GameType.SMASH_ULTIMATE_DOUBLES, doublesTeams, true);
+    playOut(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams, false);
+    playOut(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams, true);
+    var elosBeforeDelete = elosByPlayerId();
+
+    // Act
+    bracketController.deleteBracket(firstBracketId, false);
+
+    // Verify
+    var rolledBackElos = elosByPlayerId();
+    var rolledBackHistory = ratingHistory();
+    Assertions.assertNotEquals(elosBeforeDelete, rolledBackElos);
+    Assertions.assertEquals(
+      elosBeforeDelete.get("Ann").get(GameType.SMASH_ULTIMATE_DOUBLES),
+      rolledBackElos.get("Ann").get(GameType.SMASH_ULTIMATE_DOUBLES)
+    );
+    Assertions.assertTrue(rolledBackHistory.stream().noneMatch(change -> change.contains(firstBracketId)));
+    Assertions.assertEquals(
+      rolledBackElos.get("Reed").get(GameType.SMASH_ULTIMATE_SINGLES),
+      leaderboardManager.getAround(GameType.SMASH_ULTIMATE_SINGLES, "Reed", 0).get().get(0).getElo()
+    );
+    eloReplayer.replay();
+    Assertions.assertEquals(elosByPlayerId(), rolledBackElos);
+    Assertions.assertEquals(ratingHistory(), rolledBackHistory);
+  }
+
+  @Test
+  public void testDeleteBracket_shouldReplayEverything_whenRatingHistoryMissing() {
+    // Setup
+    var firstBracketId = playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Zach").getId();
+    playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Zach");
+    // Brackets completed before the rating history existed
+    ratingChangeRepository.deleteAll();
+
+    // Act
+    bracketController.deleteBracket(firstBracketId, false);
+
+    // Verify
+    var zachElo = playerRepository.findById("Zach").get().getEloMap().get(GameType.SMASH_ULTIMATE_SINGLES);
+    Assertions.assertEquals(Player.STARTING_ELO + 16, zachElo);
+    Assertions.assertEquals(2, ratingChangeRepository.count());
+  }
+
+  @Test
+  public void testDeleteBracket_shouldLeaveReplayToFinishDelete_whenRatingHistoryMissing() {
+    // Setup
+    var firstBracketId = playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Zach").getId();
+    playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Zach");
+    ratingChangeRepository.deleteAll();
+    var elos = elosByPlayerId();
+
+    // Act
+    var deleted = bracketStateEngine.updateInDatabase(firstBracketId, () ->
+      eloReplayer.deleteBracket(firstBracketId, () -> bracketRepository.deleteById(firstBracketId))
+    );
+    var elosBeforeFinish = elosByPlayerId();
+    eloReplayer.finishDelete(deleted);
+
+    // Verify
+    // Replaying everything waits on every bracket's mailbox, so is only done once out of the deleted bracket's one
+    Assertions.assertTrue(deleted.isReplayNeeded());
+    Assertions.assertEquals(elos, elosBeforeFinish);
+    var zachElo = playerRepository.findById("Zach").get().getEloMap().get(GameType.SMASH_ULTIMATE_SINGLES);
+    Assertions.assertEquals(Player.STARTING_ELO + 16, zachElo);
+  }
+
+  @Test
+  public void testDeleteBracket_shouldReplayLaterBracketsInCreationOrder_whenBracketsShareDate() {
+    // Setup
+    var firstBracketId = playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Zach").getId();
+    var reedAndNoah = Map.of("Reed", List.of("Reed"), "Noah", List.of("Noah"));
+    var secondBracket = playBracket(GameType.SMASH_ULTIMATE_SINGLES, reedAndNoah, "Reed");
+    playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Reed");
+    var sameDate = new Update().set("date", secondBracket.getDate());
+    mongoTemplate.updateMulti(new Query(), sameDate, Bracket.class);
+    mongoTemplate.updateMulti(new Query(), sameDate, RatingChange.class);
+
+    // Act
+    bracketController.deleteBracket(firstBracketId, false);
+
+    // Verify
+    var rolledBackElos = elosByPlayerId();
+    var rolledBackHistory = ratingHistory();
+    eloReplayer.replay();
+    Assertions.assertEquals(elosByPlayerId(), rolledBackElos);
+    Assertions.assertEquals(ratingHistory(), rolledBackHistory);
+    // The second bracket was created before the third, so it is now the first one Reed played
+    var reedSecondBracketChange = ratingChangeRepository
+      .findAll()
+      .stream()
+      .filter(change -> change.getPlayerId().equals("Reed") && change.getBracketId().equals(secondBracket.getId()))
+      .findFirst()
+      .get();
+    Assertions.assertEquals(Player.STARTING_ELO, reedSecondBracketChange.getBefore());
+  }
+
+  @Test
+  public void testReplay_shouldMatchLiveElo_whenBracketsCompletedOutOfStartOrder() {
+    // Setup
+    var firstStarted = postBracket(Map.of("Reed", List.of("Reed"), "Zach", List.of("Zach")));
+    var secondStarted = postBracket(Map.of("Reed", List.of("Reed"), "Noah", List.of("Noah")));
+    completeFinal(firstStarted, "Zach");
+    completeFinal(secondStarted, "Reed");
+    bracketController.completeBracket(secondStarted.getId());
+    bracketController.completeBracket(firstStarted.getId());
+    var liveElos = elosByPlayerId();
+    var liveHistory = ratingHistory();
+
+    // Act
+    eloReplayer.replay();
+
+    // Verify
+    Assertions.assertEquals(liveElos, elosByPlayerId());
+    Assertions.assertEquals(liveHistory, ratingHistory());
+    Assertions.assertTrue(
+      bracketRepository
+        .findById(secondStarted.getId())
+        .get()
+        .getCompletedAt()
+        .isBefore(bracketRepository.findById(firstStarted.getId()).get().getCompletedAt())
+    );
+  }
+
+  @Test
+  public void testDeleteBracket_shouldReplayBracketsCompletedAfterIt_whenBracketsCompletedOutOfStartOrder() {
+    // Setup
+    var firstStarted = postBracket(Map.of("Reed", List.of("Reed"), "Zach", List.of("Zach")));
+    var secondStarted = postBracket(Map.of("Reed", List.of("Reed"), "Noah", List.of("Noah")));
+    completeFinal(firstStarted, "Zach");
+    completeFinal(secondStarted, "Reed");
+    bracketController.completeBracket(secondStarted.getId());
+    bracketController.completeBracket(firstStarted.getId());
+    var reedElo = elosByPlayerId().get("Reed").get(GameType.SMASH_ULTIMATE_SINGLES);
+
+    // Act
+    bracketController.deleteBracket(secondStarted.getId(), false);
+
+    // Verify
+    var rolledBackElos = elosByPlayerId();
+    var rolledBackHistory = ratingHistory();
+    Assertions.assertNotEquals(reedElo, rolledBackElos.get("Reed").get(GameType.SMASH_ULTIMATE_SINGLES));
+    eloReplayer.replay();
+    Assertions.assertEquals(elosByPlayerId(), rolledBackElos);
+    Assertions.assertEquals(ratingHistory(), rolledBackHistory);
+  }
+
+  @Test
+  public void testDeleteBracket_shouldKeepElo_whenBracketNotCompleted() {
+    // Setup
+    playBracket(GameType.SMASH_ULTIMATE_SINGLES, singlesTeams(), "Zach");
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder().teams(singlesTeams()).gameType(GameType.SMASH_ULTIMATE_SINGLES).build()
+    );
+    completeFinal(bracket, "Reed");
+    var elos = elosByPlayerId();
+
+    // Act
+    bracketController.deleteBracket(bracket.getId(), false);
+
+    // Verify
+    Assertions.assertEquals(elos, elosByPlayerId());
+    Assertions.assertEquals(2, ratingChangeRepository.count());
+  }
+
+  /**
+   * Create a bracket and play every game set round by round, then complete it
+   * @param firstTeamWins Whether the first team of each game set wins, rather than the last
+   * @return The ID of the bracket
+   */
+  private String playOut(GameType gameType, Map<String, List<String>> teams, boolean firstTeamWins) {
+    var bracket = bracketController.postBracket(CreateBracketRequest.builder().teams(teams).gameType(gameType).build());
+    var gameSet = nextGameSet(bracket);
+    while (gameSet.isPresent()) {
+      var playerSets = new ArrayList<>(gameSet.get().getPlayerSets());
+      if (!firstTeamWins) {
+        Collections.reverse(playerSets);
+      }
+      bracket = bracketController.completeGameSet(
+        bracket.getId(),
+        gameSet.get().getId(),
+        CompleteGameSetRequest.builder().games(List.of(playerSets)).winners(playerSets.subList(0, 1)).build()
+      );
+      gameSet = nextGameSet(bracket);
+    }
+    bracketController.completeBracket(bracket.getId());
+    return bracket.getId();
+  }
+
+  /**
+   * Find a game set that has all of its teams and has not been played yet
+   */
+  private static Optional<ApiGameSet> nextGameSet(ApiBracket bracket) {
+    return bracket
+      .getGameSets()
+      .stream()
+      .flatMap(List::stream)
+      .filter(gameSet -> gameSet.getPlayerSets() != null && gameSet.getPlayerSets().size() == 2)
+      .filter(gameSet -> gameSet.getWinners() == null || gameSet.getWinners().isEmpty())
+      .findFirst();
+  }
+
+  /**
+   * Create a bracket of two teams, play its only game set and complete it
+   */
+  private ApiBracket postBracket(Map<String, List<String>> teams) {
+    return bracketController.postBracket(
+      CreateBracketRequest.builder().teams(teams).gameType(GameType.SMASH_ULTIMATE_SINGLES).build()
+    );
+  }
+
+  private ApiBracket playBracket(GameType gameType, Map<String, List<String>> teams, String winner) {
+    var bracket = bracketController.postBracket(CreateBracketRequest.builder().teams(teams).gameType(gameType).build());
+    completeFinal(bracket, winner);
+    bracketController.completeBracket(bracket.getId());
+    return bracket;
+  }
+
+  private void completeFinal(ApiBracket bracket, String winner) {
+    var teamIdsByName = bracket.getTeams().stream().collect(Collectors.toMap(PlayerSet::getName, PlayerSet::getId));
+    var winnerId = teamIdsByName.remove(winner);
+    var loserId = teamIdsByName.values().iterator().next();
+    bracketController.completeGameSet(
+      bracket.getId(),
+      bracket.getGameSets().get(0).get(0).getId(),
+      CompleteGameSetRequest.builder().games(List.of(List.of(winnerId, loserId))).winners(List.of(winnerId)).build()
+    );
+  }
+
+  private Map<String, Map<GameType, Integer>> elosByPlayerId() {
+    return playerRepository.findAll().stream().collect(Collectors.toMap(Player::getId, Player::getEloMap));
+  }
+
+  /**
+   * Every rating change without its ID, which differs between the live and replayed history
+   */
+  private Set<List<Object>> ratingHistory() {
+    return ratingChangeRepository
+      .findAll()
+      .stream()
+      .map(change ->
+        List.<Object>of(
+          change.getPlayerId(),
+          change.getGameType(),
+          change.getBracketId(),
+          change.getDate(),
+          change.getRound(),
+          change.getBefore(),
+          change.getAfter()
+        )
+      )
+      .collect(Collectors.toSet());
+  }
+
+  private static Map<String, List<String>> singlesTeams() {
+    return Map.of("Reed", List.of("Reed"), "Zach", List.of("Zach"));
+  }
+
+  private static Player createPlayer(String name) {
+    return Player.builder().id(name).name(name).eloMap(Player.generateStartingEloMap()).build();
+  }
+}
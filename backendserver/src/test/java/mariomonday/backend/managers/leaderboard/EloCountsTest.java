@@ -0,0 +1,66 @@
+package mariomonday.backend.managers.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EloCountsTest {
+
+  @Test
+  public void testCountAbove_shouldCountHigherElos() {
+    // Setup
+    var eloCounts = new EloCounts(1500);
+    eloCounts.add(1400, 1);
+    eloCounts.add(1500, 2);
+    eloCounts.add(1600, 1);
+
+    // Act & Verify
+    Assertions.assertEquals(4, eloCounts.countAbove(1000));
+    Assertions.assertEquals(3, eloCounts.countAbove(1400));
+    Assertions.assertEquals(1, eloCounts.countAbove(1500));
+    Assertions.assertEquals(0, eloCounts.countAbove(1600));
+  }
+
+  @Test
+  public void testAdd_shouldKeepCounts_whenEloOutsideRange() {
+    // Setup
+    var eloCounts = new EloCounts(1500);
+    eloCounts.add(1500, 1);
+
+    // Act
+    eloCounts.add(100_000, 1);
+    eloCounts.add(-100_000, 1);
+
+    // Verify
+    Assertions.assertEquals(3, eloCounts.countAbove(-200_000));
+    Assertions.assertEquals(2, eloCounts.countAbove(-100_000));
+    Assertions.assertEquals(1, eloCounts.countAbove(1500));
+    Assertions.assertEquals(0, eloCounts.countAbove(100_000));
+  }
+
+  @Test
+  public void testCountAbove_shouldMatchCountingEveryElo_whenElosChange() {
+    // Setup
+    var random = new Random(42);
+    var eloCounts = new EloCounts(1500);
+    var elos = new ArrayList<Integer>();
+
+    // Act
+    for (int i = 0; i < 2000; i++) {
+      if (!elos.isEmpty() && random.nextInt(3) == 0) {
+        eloCounts.add(elos.remove(random.nextInt(elos.size())), -1);
+      } else {
+        var elo = 1500 + (int) (random.nextGaussian() * 1500);
+        elos.add(elo);
+        eloCounts.add(elo, 1);
+      }
+    }
+
+    // Verify
+    for (int elo = -5000; elo <= 8000; elo += 37) {
+      var threshold = elo;
+      Assertions.assertEquals(elos.stream().filter(other -> other > threshold).count(), eloCounts.countAbove(elo));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package mariomonday.backend.managers.leaderboard;
+
+import java.util.List;
+import mariomonday.backend.managers.leaderboard.GameTypeLeaderboard.RankedEntry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GameTypeLeaderboardTest {
+
+  private GameTypeLeaderboard leaderboard;
+
+  @BeforeEach
+  public void setUp() {
+    leaderboard = new GameTypeLeaderboard(1500);
+    leaderboard.put("Reed", 1600);
+    leaderboard.put("Zach", 1400);
+    leaderboard.put("Noah", 1500);
+    leaderboard.put("Jack", 1500);
+  }
+
+  @Test
+  public void testTop_shouldRankByElo_whenTied() {
+    // Act
+    var top = leaderboard.top(10);
+
+    // Verify
+    Assertions.assertEquals(
+      List.of(
+        new RankedEntry("Reed", 1600, 1),
+        new RankedEntry("Jack", 1500, 2),
+        new RankedEntry("Noah", 1500, 2),
+        new RankedEntry("Zach", 1400, 4)
+      ),
+      top
+    );
+  }
+
+  @Test
+  public void testAround_shouldReturnNeighbours() {
+    // Act
+    var around = leaderboard.around("Jack", 1);
+
+    // Verify
+    Assertions.assertEquals(
+      List.of(new RankedEntry("Reed", 1600, 1), new RankedEntry("Jack", 1500, 2), new RankedEntry("Noah", 1500, 2)),
+      around.get()
+    );
+    Assertions.assertTrue(leaderboard.around("Fake player", 1).isEmpty());
+  }
+
+  @Test
+  public void testAddElo_shouldMovePlayer() {
+    // Act
+    leaderboard.addElo("Zach", 250);
+    leaderboard.remove("Reed");
+
+    // Verify
+    Assertions.assertEquals(List.of(new RankedEntry("Zach", 1650, 1)), leaderboard.top(1));
+    Assertions.assertEquals(List.of(new RankedEntry("Noah", 1500, 2)), leaderboard.around("Noah", 0).get());
+  }
+}
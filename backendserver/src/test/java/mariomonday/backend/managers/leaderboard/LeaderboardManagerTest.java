@@ -0,0 +1,119 @@
+package mariomonday.backend.managers.leaderboard;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiLeaderboardEntry;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.utils.BaseSpringTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LeaderboardManagerTest extends BaseSpringTest {
+
+  @BeforeEach
+  public void setUp() {
+    playerRepository.saveAll(
+      List.of(createPlayer("Reed", 1600), createPlayer("Zach", 1400), createPlayer("Noah", 1500))
+    );
+  }
+
+  @Test
+  public void testGetTop_shouldRankPlayersFromDatabase() {
+    // Act
+    var top = leaderboardManager.getTop(GameType.SMASH_ULTIMATE_SINGLES, 2);
+
+    // Verify
+    Assertions.assertEquals(List.of("Reed", "Noah"), namesOf(top));
+    Assertions.assertEquals(List.of(1, 2), top.stream().map(ApiLeaderboardEntry::getRank).toList());
+    Assertions.assertEquals(1600, top.get(0).getElo());
+  }
+
+  @Test
+  public void testGetAround_shouldReturnPlayersRankedAroundPlayer() {
+    // Act
+    var around = leaderboardManager.getAround(GameType.SMASH_ULTIMATE_SINGLES, "Zach", 1).get();
+
+    // Verify
+    Assertions.assertEquals(List.of("Noah", "Zach"), namesOf(around));
+    Assertions.assertEquals(3, around.get(1).getRank());
+    Assertions.assertTrue(leaderboardManager.getAround(GameType.SMASH_ULTIMATE_SINGLES, "Fake", 1).isEmpty());
+  }
+
+  @Test
+  public void testGetTop_shouldFollowElo_whenBracketCompleted() {
+    // Setup
+    leaderboardManager.getTop(GameType.SMASH_ULTIMATE_SINGLES, 3);
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(Map.of("Reed", List.of("Reed"), "Zach", List.of("Zach")))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    var teamIdsByName = bracket.getTeams().stream().collect(Collectors.toMap(PlayerSet::getName, PlayerSet::getId));
+    var finalGameSet = bracket.getGameSets().get(0).get(0);
+    bracketController.completeGameSet(
+      bracket.getId(),
+      finalGameSet.getId(),
+      CompleteGameSetRequest.builder()
+        .games(List.of(List.of(teamIdsByName.get("Zach"), teamIdsByName.get("Reed"))))
+        .winners(List.of(teamIdsByName.get("Zach")))
+        .build()
+    );
+
+    // Act
+    bracketController.completeBracket(bracket.getId());
+
+    // Verify
+    var top = leaderboardManager.getTop(GameType.SMASH_ULTIMATE_SINGLES, 3);
+    var storedZach = playerRepository.findById("Zach").get();
+    var zachEntry = top.stream().filter(entry -> entry.getPlayer().getId().equals("Zach")).findFirst().get();
+    Assertions.assertTrue(storedZach.getEloMap().get(GameType.SMASH_ULTIMATE_SINGLES) > 1400);
+    Assertions.assertEquals(storedZach.getEloMap().get(GameType.SMASH_ULTIMATE_SINGLES), zachEntry.getElo());
+    leaderboardManager.clear();
+    Assertions.assertEquals(top, leaderboardManager.getTop(GameType.SMASH_ULTIMATE_SINGLES, 3));
+  }
+
+  @Test
+  public void testAddPlayer_shouldRankNewPlayer() {
+    // Setup
+    leaderboardManager.getTop(GameType.MARIO_KART_8, 3);
+    var player = playerRepository.save(createPlayer("Jack", 1700));
+
+    // Act
+    leaderboardManager.addPlayer(player);
+
+    // Verify
+    Assertions.assertEquals("Jack", leaderboardManager.getTop(GameType.MARIO_KART_8, 1).get(0).getPlayer().getName());
+  }
+
+  @Test
+  public void testRemovePlayer_shouldDropPlayer() {
+    // Setup
+    leaderboardManager.getTop(GameType.SMASH_ULTIMATE_SINGLES, 3);
+    playerRepository.deleteById("Reed");
+
+    // Act
+    leaderboardManager.removePlayer("Reed");
+
+    // Verify
+    var top = leaderboardManager.getTop(GameType.SMASH_ULTIMATE_SINGLES, 3);
+    Assertions.assertEquals(List.of("Noah", "Zach"), namesOf(top));
+    Assertions.assertEquals(1, top.get(0).getRank());
+  }
+
+  private static Player createPlayer(String name, int elo) {
+    var eloMap = Player.generateStartingEloMap();
+    eloMap.replaceAll((gameType, startingElo) -> elo);
+    return Player.builder().id(name).name(name).eloMap(eloMap).build();
+  }
+
+  private static List<String> namesOf(List<ApiLeaderboardEntry> entries) {
+    return entries.stream().map(entry -> entry.getPlayer().getName()).toList();
+  }
+}
@@ -344,4 +344,59 @@ public class IndifferentEloManagerTest {
     Assertions.assertEquals(result.get(player3), -9);
     Assertions.assertEquals(result.get(player4), 4);
   }
+
+  @Test
+  public void testReusedEloSet1v1WithDifferentElo() {
+    // Setup
+    var eloSet = new EloSet().reset(4, 2);
+    for (int team = 0; team < 4; team++) {
+      eloSet.setTeamElo(team, 1500);
+      eloSet.setPlacement(0, team, team);
+      eloSet.setPlacement(1, team, team);
+    }
+    indifferentEloManager.calculateEloChange(eloSet, GameType.MARIO_KART_WORLD);
+    eloSet.reset(2, 1);
+    eloSet.setTeamElo(0, 1600);
+    eloSet.setTeamElo(1, 1400);
+
+    // Act
+    eloSet.setPlacement(0, 0, 0);
+    eloSet.setPlacement(0, 1, 1);
+    indifferentEloManager.calculateEloChange(eloSet, GameType.SMASH_ULTIMATE_SINGLES);
+
+    // Verify
+    Assertions.assertEquals(8, eloSet.getEloChange(0));
+    Assertions.assertEquals(-8, eloSet.getEloChange(1));
+
+    // Act 2
+    eloSet.setPlacement(0, 0, 1);
+    eloSet.setPlacement(0, 1, 0);
+    indifferentEloManager.calculateEloChange(eloSet, GameType.SMASH_ULTIMATE_SINGLES);
+
+    // Verify 2
+    Assertions.assertEquals(-24, eloSet.getEloChange(0));
+    Assertions.assertEquals(24, eloSet.getEloChange(1));
+  }
+
+  @Test
+  public void testCalculateEloChange_shouldThrow_whenGamesHaveDifferentPlayers() {
+    // Setup
+    var player1 = PlayerSet.builder()
+      .player(Player.builder().name("Reed").eloMap(Map.of(GameType.SMASH_ULTIMATE_SINGLES, 1500)).build())
+      .build();
+    var player2 = PlayerSet.builder()
+      .player(Player.builder().name("Zach").eloMap(Map.of(GameType.SMASH_ULTIMATE_SINGLES, 1500)).build())
+      .build();
+    var player3 = PlayerSet.builder()
+      .player(Player.builder().name("Noah").eloMap(Map.of(GameType.SMASH_ULTIMATE_SINGLES, 1500)).build())
+      .build();
+
+    // Act & Verify
+    Assertions.assertThrows(IllegalArgumentException.class, () ->
+      indifferentEloManager.calculateEloChange(
+        List.of(List.of(player1, player2), List.of(player1, player3)),
+        GameType.SMASH_ULTIMATE_SINGLES
+      )
+    );
+  }
 }
@@ -339,4 +339,27 @@ public class RankedEloManagerTest {
     Assertions.assertEquals(result.get(player3), -9);
     Assertions.assertEquals(result.get(player4), -1);
   }
+
+  @Test
+  public void testEloSetMultiGameFreeForAllWithDifferentElo() {
+    // Setup
+    var eloSet = new EloSet().reset(4, 2);
+    var elos = new int[] { 1600, 1550, 1500, 1450 };
+    var firstGame = new int[] { 0, 1, 2, 3 };
+    var secondGame = new int[] { 0, 3, 1, 2 };
+    for (int place = 0; place < 4; place++) {
+      eloSet.setTeamElo(place, elos[place]);
+      eloSet.setPlacement(0, place, firstGame[place]);
+      eloSet.setPlacement(1, place, secondGame[place]);
+    }
+
+    // Act
+    rankedEloManager.calculateEloChange(eloSet, GameType.MARIO_KART_WORLD);
+
+    // Verify
+    Assertions.assertEquals(12, eloSet.getEloChange(0));
+    Assertions.assertEquals(-1, eloSet.getEloChange(1));
+    Assertions.assertEquals(-9, eloSet.getEloChange(2));
+    Assertions.assertEquals(-1, eloSet.getEloChange(3));
+  }
 }
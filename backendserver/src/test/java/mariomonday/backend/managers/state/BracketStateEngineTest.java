@@ -0,0 +1,298 @@
+package mariomonday.backend.managers.state;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.error.exceptions.ConflictException;
+import mariomonday.backend.error.exceptions.InvalidRequestException;
+import mariomonday.backend.error.exceptions.NotFoundException;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BracketStateEngineTest extends BaseSpringTest {
+
+  private List<Player> players;
+
+  private ApiBracket bracket;
+
+  @BeforeEach
+  public void setUp() {
+    players = TestDataUtil.createNFakePlayers(4)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+  }
+
+  @Test
+  public void testUpdate_shouldPersistChanges() {
+    // Setup
+    var gameSet = bracket.getGameSets().get(0).get(0);
+
+    // Act
+    var expectedBracket = completeGameSet(gameSet.getId());
+
+    // Verify
+    var storedGameSet = gameSetRepository.findById(gameSet.getId()).get();
+    Assertions.assertEquals(1, storedGameSet.getWinners().size());
+    Assertions.assertEquals(1, storedGameSet.getGames().size());
+    Assertions.assertEquals(
+      expectedBracket,
+      ApiBracket.fromBracket(bracketGraphLoader.findById(bracket.getId()).get())
+    );
+  }
+
+  @Test
+  public void testRead_shouldServeBracketFromMemory_whenInProgress() {
+    // Setup
+    bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket);
+    gameSetRepository.deleteAll();
+
+    // Act
+    var actualBracket = bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket);
+
+    // Verify
+    Assertions.assertEquals(bracket, actualBracket.get());
+  }
+
+  @Test
+  public void testEvict_shouldReloadBracketFromDatabase() {
+    // Setup
+    var gameSet = bracket.getGameSets().get(0).get(0);
+    var completedBracket = completeGameSet(gameSet.getId());
+    var storedGameSet = gameSetRepository.findById(gameSet.getId()).get();
+    storedGameSet.setWinners(storedGameSet.getPlayers());
+    gameSetRepository.save(storedGameSet);
+
+    // Act
+    var cachedBracket = bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket).get();
+    bracketStateEngine.evict(bracket.getId());
+    var reloadedBracket = bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket).get();
+
+    // Verify
+    Assertions.assertEquals(completedBracket, cachedBracket);
+    Assertions.assertEquals(2, reloadedBracket.getGameSets().get(0).get(0).getWinners().size());
+  }
+
+  @Test
+  public void testUpdate_shouldDiscardChanges_whenUpdateFails() {
+    // Setup
+    var gameSetId = bracket.getGameSets().get(0).get(0).getId();
+
+    // Act
+    Assertions.assertThrows(IllegalStateException.class, () ->
+      bracketStateEngine.update(bracket.getId(), (liveBracket, write) -> {
+        var gameSet = liveBracket.findGameSet(gameSetId).get();
+        gameSet.setWinners(gameSet.getPlayers());
+        throw new IllegalStateException("Failed partway through");
+      })
+    );
+
+    // Verify
+    Assertions.assertEquals(bracket, bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket).get());
+  }
+
+  @Test
+  public void testUpdate_shouldKeepBracketInMemory_whenRequestRejected() {
+    // Setup
+    bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket);
+    gameSetRepository.deleteAll();
+
+    // Act
+    Assertions.assertThrows(InvalidRequestException.class, () ->
+      bracketStateEngine.update(bracket.getId(), (liveBracket, write) -> {
+        throw new InvalidRequestException("Rejected before changing anything");
+      })
+    );
+
+    // Verify
+    Assertions.assertEquals(bracket, bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket).get());
+  }
+
+  @Test
+  public void testEvictPlayers_shouldReloadBracket_whenPlayerChanged() {
+    // Setup
+    bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket);
+    var player = players.get(0);
+    player.setName("Renamed");
+    playerRepository.save(player);
+
+    // Act
+    bracketStateEngine.evictPlayers(List.of(player.getId()));
+
+    // Verify
+    var teamNames = bracketStateEngine
+      .read(bracket.getId(), liveBracket -> liveBracket.getTeams().stream().map(PlayerSet::getName).toList())
+      .get();
+    Assertions.assertTrue(teamNames.contains("Renamed"));
+  }
+
+  @Test
+  public void testUpdate_shouldComplain_whenBracketDoesNotExist() {
+    // Act & Verify
+    Assertions.assertThrows(NotFoundException.class, () ->
+      bracketStateEngine.update("Fake bracket", (liveBracket, write) -> null)
+    );
+    Assertions.assertTrue(bracketStateEngine.read("Fake bracket", ApiBracket::fromBracket).isEmpty());
+  }
+
+  @Test
+  public void testUpdate_shouldTryAgain_whenBracketChangedByAnotherProcess() {
+    // Setup
+    var gameSetId = bracket.getGameSets().get(0).get(0).getId();
+    bracketStateEngine.read(bracket.getId(), ApiBracket::fromBracket);
+    var attempts = new AtomicInteger();
+
+    // Act
+    bracketStateEngine.update(bracket.getId(), (liveBracket, write) -> {
+      if (attempts.incrementAndGet() == 1) {
+        gameSetRepository.save(gameSetRepository.findById(gameSetId).get());
+      }
+      var gameSet = liveBracket.findGameSet(gameSetId).get();
+      gameSet.setWinners(gameSet.getPlayers());
+      return write.save(gameSet);
+    });
+
+    // Verify
+    var storedGameSet = gameSetRepository.findById(gameSetId).get();
+    Assertions.assertEquals(2, attempts.get());
+    Assertions.assertEquals(2, storedGameSet.getVersion());
+    Assertions.assertEquals(2, storedGameSet.getWinners().size());
+  }
+
+  @Test
+  public void testUpdate_shouldComplain_whenBracketKeepsChanging() {
+    // Setup
+    var gameSetId = bracket.getGameSets().get(0).get(0).getId();
+    var attempts = new AtomicInteger();
+
+    // Act & Verify
+    Assertions.assertThrows(ConflictException.class, () ->
+      bracketStateEngine.update(bracket.getId(), (liveBracket, write) -> {
+        attempts.incrementAndGet();
+        gameSetRepository.save(gameSetRepository.findById(gameSetId).get());
+        return write.save(liveBracket.findGameSet(gameSetId).get());
+      })
+    );
+    Assertions.assertEquals(BracketStateEngine.MAX_ATTEMPTS, attempts.get());
+    Assertions.assertEquals(BracketStateEngine.MAX_ATTEMPTS, gameSetRepository.findById(gameSetId).get().getVersion());
+  }
+
+  @Test
+  public void testUpdate_shouldRunUpdatesOneAtATime_whenSameBracket() throws Exception {
+    // Setup
+    var executor = Executors.newFixedThreadPool(8);
+    var runningUpdates = new AtomicInteger();
+    var maxRunningUpdates = new AtomicInteger();
+    // Not thread safe, so updates running at the same time would lose entries
+    var updateOrder = new ArrayList<Integer>();
+
+    // Act
+    var updates = IntStream.range(0, 8)
+      .mapToObj(i ->
+        executor.submit(() ->
+          bracketStateEngine.update(bracket.getId(), (liveBracket, write) -> {
+            maxRunningUpdates.accumulateAndGet(runningUpdates.incrementAndGet(), Math::max);
+            var size = updateOrder.size();
+            sleep(10);
+            updateOrder.add(size, i);
+            runningUpdates.decrementAndGet();
+            return null;
+          })
+        )
+      )
+      .toList();
+    for (var update : updates) {
+      update.get(10, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Verify
+    Assertions.assertEquals(1, maxRunningUpdates.get());
+    Assertions.assertEquals(8, updateOrder.size());
+  }
+
+  @Test
+  public void testUpdate_shouldRunInParallel_whenDifferentBrackets() throws Exception {
+    // Setup
+    var otherBracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+    var executor = Executors.newFixedThreadPool(2);
+    // Only opens once both updates are running at the same time
+    var barrier = new CyclicBarrier(2);
+
+    // Act
+    List<Future<Integer>> updates = List.of(bracket.getId(), otherBracket.getId())
+      .stream()
+      .map(bracketId ->
+        executor.submit(() ->
+          bracketStateEngine.update(bracketId, (liveBracket, write) -> {
+            try {
+              return barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+              throw new IllegalStateException(e);
+            }
+          })
+        )
+      )
+      .toList();
+
+    // Verify
+    for (var update : updates) {
+      Assertions.assertDoesNotThrow(() -> update.get(10, TimeUnit.SECONDS));
+    }
+    executor.shutdown();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private ApiBracket completeGameSet(String gameSetId) {
+    var gameSet = bracket
+      .getGameSets()
+      .stream()
+      .flatMap(List::stream)
+      .filter(gs -> gs.getId().equals(gameSetId))
+      .findFirst()
+      .get();
+    return bracketController.completeGameSet(
+      bracket.getId(),
+      gameSetId,
+      CompleteGameSetRequest.builder()
+        .games(List.of(gameSet.getPlayerSets()))
+        .winners(gameSet.getPlayerSets().subList(0, 1))
+        .build()
+    );
+  }
+}
@@ -0,0 +1,63 @@
+package mariomonday.backend.managers.state;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.ApiBracket;
+import mariomonday.backend.apis.schema.CompleteGameSetRequest;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "bracketstate.write-behind=true")
+public class BracketStateEngineWriteBehindTest extends BaseSpringTest {
+
+  @Test
+  public void testCompleteGameSet_shouldServeAndEventuallyPersistBracket_whenWritingBehind() throws Exception {
+    // Setup
+    var players = TestDataUtil.createNFakePlayers(8)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    var bracket = bracketController.postBracket(
+      CreateBracketRequest.builder()
+        .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+        .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+        .build()
+    );
+
+    // Act
+    for (var round : bracket.getGameSets()) {
+      for (var roundGameSet : round) {
+        // Teams only show up in later rounds once the earlier rounds are done, so use the latest bracket
+        var gameSet = bracket
+          .getGameSets()
+          .stream()
+          .flatMap(List::stream)
+          .filter(gs -> gs.getId().equals(roundGameSet.getId()))
+          .findFirst()
+          .get();
+        bracket = bracketController.completeGameSet(
+          bracket.getId(),
+          gameSet.getId(),
+          CompleteGameSetRequest.builder()
+            .games(List.of(gameSet.getPlayerSets()))
+            .winners(gameSet.getPlayerSets().subList(0, 1))
+            .build()
+        );
+      }
+    }
+
+    // Verify
+    var servedBracket = objectMapper.readValue(bracketViewManager.get(bracket.getId()).getJson(), ApiBracket.class);
+    Assertions.assertEquals(bracket, servedBracket);
+    Assertions.assertFalse(bracket.getGameSets().get(2).get(0).getWinners().isEmpty());
+    bracketStateEngine.evict(bracket.getId());
+    Assertions.assertEquals(bracket, ApiBracket.fromBracket(bracketGraphLoader.findById(bracket.getId()).get()));
+  }
+}
@@ -0,0 +1,274 @@
+package mariomonday.backend.managers.state;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class BracketWriteQueueTest extends BaseSpringTest {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  private ExecutorService executor;
+
+  /**
+   * Holds up the queue's executor until released, as if earlier writes were still being applied
+   */
+  private CountDownLatch release;
+
+  private BracketWriteQueue writeQueue;
+
+  private Player renamedPlayer;
+
+  private Player deletedPlayer;
+
+  @BeforeEach
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+    release = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    writeQueue = new BracketWriteQueue(mongoTemplate, executor);
+    renamedPlayer = playerRepository.insert(TestDataUtil.createFakePlayer("Reed").build());
+    deletedPlayer = playerRepository.insert(TestDataUtil.createFakePlayer("Zach").build());
+    renamedPlayer.setName("Reed 2");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+    mongoTemplate.dropCollection(BracketWriteQueue.JOURNAL_COLLECTION);
+  }
+
+  @Test
+  public void testSubmit_shouldJournalWrite_untilApplied() {
+    // Act
+    writeQueue.submit("Bracket", new BracketWrite().save(renamedPlayer).delete(deletedPlayer));
+
+    // Verify
+    Assertions.assertEquals(1, mongoTemplate.getCollection(BracketWriteQueue.JOURNAL_COLLECTION).countDocuments());
+    Assertions.assertEquals("Reed", playerRepository.findById(renamedPlayer.getId()).get().getName());
+    release.countDown();
+    writeQueue.flush();
+    Assertions.assertEquals(0, mongoTemplate.getCollection(BracketWriteQueue.JOURNAL_COLLECTION).countDocuments());
+    Assertions.assertEquals(renamedPlayer, playerRepository.findById(renamedPlayer.getId()).get());
+    Assertions.assertFalse(playerRepository.existsById(deletedPlayer.getId()));
+  }
+
+  @Test
+  public void testReplayPending_shouldApplyWrites_whenServerStoppedBeforeApplyingThem() {
+    // Setup
+    writeQueue.submit("Bracket", new BracketWrite().save(renamedPlayer));
+    writeQueue.submit("Bracket", new BracketWrite().delete(deletedPlayer));
+    executor.shutdownNow();
+
+    // Act
+    var replayed = new BracketWriteQueue(mongoTemplate, null).replayPending();
+
+    // Verify
+    Assertions.assertEquals(2, replayed);
+    Assertions.assertEquals(0, mongoTemplate.getCollection(BracketWriteQueue.JOURNAL_COLLECTION).countDocuments());
+    Assertions.assertEquals(renamedPlayer, playerRepository.findById(renamedPlayer.getId()).get());
+    Assertions.assertFalse(playerRepository.existsById(deletedPlayer.getId()));
+  }
+
+  @Test
+  public void testReplayPending_shouldDropAndReportWrite_whenDocumentChangedByAnotherProcess(CapturedOutput output) {
+    // Setup
+    var gameSet = insertGameSet();
+    var otherCopy = gameSetRepository.findById(gameSet.getId()).get();
+    gameSet.setRoundIndex(3);
+    writeQueue.submit("Bracket", new BracketWrite().save(gameSet));
+    writeQueue.submit("Bracket", new BracketWrite().save(renamedPlayer));
+    executor.shutdownNow();
+    otherCopy.setRoundIndex(2);
+    gameSetRepository.save(otherCopy);
+    var conflictingBrackets = new ArrayList<String>();
+    var restartedQueue = new BracketWriteQueue(mongoTemplate, null);
+    restartedQueue.setConflictListener(conflictingBrackets::add);
+
+    // Act
+    var replayed = restartedQueue.replayPending();
+
+    // Verify
+    Assertions.assertEquals(1, replayed);
+    Assertions.assertEquals(List.of("Bracket"), conflictingBrackets);
+    Assertions.assertTrue(output.getOut().contains("Dropped write to bracket Bracket changed by another process"));
+    Assertions.assertEquals(0, mongoTemplate.getCollection(BracketWriteQueue.JOURNAL_COLLECTION).countDocuments());
+    Assertions.assertEquals(2, gameSetRepository.findById(gameSet.getId()).get().getRoundIndex());
+    Assertions.assertEquals(renamedPlayer, playerRepository.findById(renamedPlayer.getId()).get());
+  }
+
+  @Test
+  public void testSubmit_shouldApplyRightAway_whenNotWritingBehind() {
+    // Act
+    new BracketWriteQueue(mongoTemplate, null).submit("Bracket", new BracketWrite().save(renamedPlayer));
+
+    // Verify
+    Assertions.assertEquals(renamedPlayer, playerRepository.findById(renamedPlayer.getId()).get());
+    Assertions.assertFalse(mongoTemplate.collectionExists(BracketWriteQueue.JOURNAL_COLLECTION));
+  }
+
+  @Test
+  public void testSubmit_shouldDropWrite_whenDocumentChangedByAnotherProcess() {
+    // Setup
+    var conflictingBrackets = new ArrayList<String>();
+    writeQueue.setConflictListener(conflictingBrackets::add);
+    var gameSet = insertGameSet();
+    var otherCopy = gameSetRepository.findById(gameSet.getId()).get();
+    otherCopy.setRoundIndex(2);
+    gameSetRepository.save(otherCopy);
+    gameSet.setRoundIndex(3);
+
+    // Act
+    writeQueue.submit("Bracket", new BracketWrite().save(gameSet).save(renamedPlayer));
+    release.countDown();
+    writeQueue.flush();
+
+    // Verify
+    Assertions.assertEquals(List.of("Bracket"), conflictingBrackets);
+    Assertions.assertEquals(0, mongoTemplate.getCollection(BracketWriteQueue.JOURNAL_COLLECTION).countDocuments());
+    Assertions.assertEquals(2, gameSetRepository.findById(gameSet.getId()).get().getRoundIndex());
+    Assertions.assertEquals("Reed", playerRepository.findById(renamedPlayer.getId()).get().getName());
+  }
+
+  @Test
+  public void testSubmit_shouldThrow_whenDocumentChangedByAnotherProcessAndNotWritingBehind() {
+    // Setup
+    var gameSet = insertGameSet();
+    gameSetRepository.save(gameSetRepository.findById(gameSet.getId()).get());
+
+    // Act & Verify
+    Assertions.assertThrows(OptimisticLockingFailureException.class, () ->
+      new BracketWriteQueue(mongoTemplate, null).submit("Bracket", new BracketWrite().save(gameSet))
+    );
+    Assertions.assertEquals(1, gameSetRepository.findById(gameSet.getId()).get().getVersion());
+  }
+
+  @Test
+  public void testSubmit_shouldKeepVersionsInStep_whenDocumentStoredWithoutVersion() {
+    // Setup
+    var syncQueue = new BracketWriteQueue(mongoTemplate, null);
+    var gameSet = insertGameSet();
+    mongoTemplate.updateFirst(
+      new Query(Criteria.where("id").is(gameSet.getId())),
+      new Update().unset("version"),
+      GameSet.class
+    );
+    gameSet = gameSetRepository.findById(gameSet.getId()).get();
+    Assertions.assertNull(gameSet.getVersion());
+
+    // Act
+    gameSet.setRoundIndex(2);
+    syncQueue.submit("Bracket", new BracketWrite().update(gameSet, new Update().set("roundIndex", 2)));
+    gameSet.setRoundIndex(3);
+    syncQueue.submit("Bracket", new BracketWrite().update(gameSet, new Update().set("roundIndex", 3)));
+
+    // Verify
+    var storedGameSet = gameSetRepository.findById(gameSet.getId()).get();
+    Assertions.assertEquals(3, storedGameSet.getRoundIndex());
+    Assertions.assertEquals(1, storedGameSet.getVersion());
+    Assertions.assertEquals(gameSet.getVersion(), storedGameSet.getVersion());
+  }
+
+  @Test
+  public void testSubmit_shouldWriteNothing_whenLaterDocumentChangedByAnotherProcess() {
+    // Setup
+    var gameSet = insertGameSet();
+    var otherGameSet = gameSetRepository.insert(
+      GameSet.builder().id("Other set").roundIndex(1).gameType(GameType.SMASH_ULTIMATE_SINGLES).build()
+    );
+    gameSetRepository.save(gameSetRepository.findById(otherGameSet.getId()).get());
+    gameSet.setRoundIndex(2);
+    otherGameSet.setRoundIndex(2);
+
+    // Act & Verify
+    Assertions.assertThrows(OptimisticLockingFailureException.class, () ->
+      new BracketWriteQueue(mongoTemplate, null).submit(
+        "Bracket",
+        new BracketWrite()
+          .update(gameSet, new Update().set("roundIndex", 2))
+          .update(otherGameSet, new Update().set("roundIndex", 2))
+          .save(renamedPlayer)
+      )
+    );
+    Assertions.assertEquals(1, gameSetRepository.findById(gameSet.getId()).get().getRoundIndex());
+    Assertions.assertEquals(0, gameSetRepository.findById(gameSet.getId()).get().getVersion());
+    Assertions.assertEquals("Reed", playerRepository.findById(renamedPlayer.getId()).get().getName());
+  }
+
+  @Test
+  public void testSubmit_shouldGiveUpAndNotify_whenWriteKeepsFailing() {
+    // Setup
+    var droppedBrackets = new ArrayList<String>();
+    var parallelQueue = new BracketWriteQueue(mongoTemplate, Executors.newCachedThreadPool());
+    parallelQueue.setConflictListener(droppedBrackets::add);
+
+    // Act
+    parallelQueue.submit("Broken", failingWrite());
+    parallelQueue.flush("Broken");
+
+    // Verify
+    Assertions.assertEquals(List.of("Broken"), droppedBrackets);
+    Assertions.assertEquals(0, mongoTemplate.getCollection(BracketWriteQueue.JOURNAL_COLLECTION).countDocuments());
+  }
+
+  @Test
+  public void testFlush_shouldNotWaitForOtherBrackets_whenFlushingOneBracket() {
+    // Setup
+    var droppedBrackets = new ArrayList<String>();
+    var parallelQueue = new BracketWriteQueue(mongoTemplate, Executors.newCachedThreadPool());
+    parallelQueue.setConflictListener(droppedBrackets::add);
+    parallelQueue.submit("Broken", failingWrite());
+
+    // Act
+    parallelQueue.submit("Bracket", new BracketWrite().save(renamedPlayer));
+    parallelQueue.flush("Bracket");
+
+    // Verify
+    Assertions.assertEquals(renamedPlayer, playerRepository.findById(renamedPlayer.getId()).get());
+    // The failing write is still being tried
+    Assertions.assertTrue(droppedBrackets.isEmpty());
+    parallelQueue.flush();
+    Assertions.assertEquals(List.of("Broken"), droppedBrackets);
+  }
+
+  /**
+   * A write the database always rejects, as if the database kept failing
+   */
+  private BracketWrite failingWrite() {
+    return new BracketWrite().update(deletedPlayer, new Update().inc("name", 1));
+  }
+
+  private GameSet insertGameSet() {
+    return gameSetRepository.insert(
+      GameSet.builder().id("Set").roundIndex(1).gameType(GameType.SMASH_ULTIMATE_SINGLES).build()
+    );
+  }
+}
@@ -0,0 +1,218 @@
+package mariomonday.backend.managers.state;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import mariomonday.backend.apis.schema.CreateBracketRequest;
+import mariomonday.backend.database.schema.Bracket;
+import mariomonday.backend.database.schema.Game;
+import mariomonday.backend.database.schema.GameSet;
+import mariomonday.backend.database.schema.GameType;
+import mariomonday.backend.database.schema.Player;
+import mariomonday.backend.database.schema.PlayerSet;
+import mariomonday.backend.utils.BaseSpringTest;
+import mariomonday.backend.utils.TestDataUtil;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Compares the bytes sent to the database per bracket update when whole documents are saved,
+ * against targeted field updates. Writes are captured from the journal, so they are never applied.
+ */
+public class BracketWriteSizeBenchmarkTest extends BaseSpringTest {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  private ExecutorService executor;
+
+  /**
+   * Holds up the queue's executor, so every write stays in the journal
+   */
+  private CountDownLatch release;
+
+  private BracketWriteQueue writeQueue;
+
+  private String bracketId;
+
+  private PlayerSet newTeam;
+
+  @BeforeEach
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+    release = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    writeQueue = new BracketWriteQueue(mongoTemplate, executor);
+    var players = TestDataUtil.createNFakePlayers(16)
+      .stream()
+      .map(playerSet -> playerSet.getPlayers().stream().findFirst().get())
+      .toList();
+    playerRepository.insert(players);
+    bracketId = bracketController
+      .postBracket(
+        CreateBracketRequest.builder()
+          .teams(players.stream().collect(Collectors.toMap(Player::getId, player -> List.of(player.getId()))))
+          .gameType(GameType.SMASH_ULTIMATE_SINGLES)
+          .build()
+      )
+      .getId();
+    var newPlayer = playerRepository.insert(TestDataUtil.createFakePlayer("Reed").build());
+    newTeam = PlayerSet.builder().id(new ObjectId().toHexString()).name("Reed").player(newPlayer).build();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+    mongoTemplate.dropCollection(BracketWriteQueue.JOURNAL_COLLECTION);
+  }
+
+  @Test
+  public void testCompleteGameSet_shouldWriteFewerBytes_whenUpdatingFields() {
+    // Setup
+    Function<Bracket, GameSet> completeGameSet = bracket -> {
+      var gameSet = firstRound(bracket).get(0);
+      var teams = List.copyOf(gameSet.getPlayers());
+      gameSet.setWinners(Set.of(teams.get(0)));
+      gameSet.setLosers(Set.of(teams.get(1)));
+      gameSet.setGames(Set.of(Game.builder().id("Game").gameType(gameSet.getGameType()).playerSets(teams).build()));
+      return gameSet;
+    };
+
+    // Act
+    var savedBytes = measure(bracket -> {
+      var gameSet = completeGameSet.apply(bracket);
+      return new BracketWrite().saveAll(gameSet.getGames()).save(gameSet);
+    });
+    var updatedBytes = measure(bracket -> {
+      var gameSet = completeGameSet.apply(bracket);
+      return new BracketWrite()
+        .saveAll(gameSet.getGames())
+        .update(
+          gameSet,
+          new Update()
+            .set("winners", gameSet.getWinners())
+            .set("losers", gameSet.getLosers())
+            .set("games", gameSet.getGames())
+        );
+    });
+
+    // Verify
+    report("completeGameSet", savedBytes, updatedBytes);
+    Assertions.assertTrue(updatedBytes < savedBytes);
+  }
+
+  @Test
+  public void testAddPlayer_shouldWriteFewerBytes_whenUpdatingFields() {
+    // Act
+    var savedBytes = measure(bracket -> {
+      var gameSet = firstRound(bracket).get(0);
+      bracket.getTeams().add(newTeam);
+      gameSet.getAddedPlayerSets().add(newTeam);
+      return new BracketWrite().save(bracket).save(gameSet);
+    });
+    var updatedBytes = measure(bracket -> {
+      var gameSet = firstRound(bracket).get(0);
+      bracket.getTeams().add(newTeam);
+      gameSet.getAddedPlayerSets().add(newTeam);
+      return new BracketWrite()
+        .update(bracket, new Update().push("teams", newTeam))
+        .update(gameSet, new Update().push("addedPlayerSets", newTeam));
+    });
+
+    // Verify
+    report("addPlayer", savedBytes, updatedBytes);
+    Assertions.assertTrue(updatedBytes < savedBytes);
+  }
+
+  @Test
+  public void testSwapPlayers_shouldWriteFewerBytes_whenUpdatingFields() {
+    // Act
+    var savedBytes = measure(bracket -> {
+      var gameSets = firstRound(bracket);
+      swap(gameSets.get(0), gameSets.get(1));
+      return new BracketWrite().save(gameSets.get(0)).save(gameSets.get(1));
+    });
+    var updatedBytes = measure(bracket -> {
+      var gameSets = firstRound(bracket);
+      var firstTeam = firstTeamOf(gameSets.get(0));
+      var secondTeam = firstTeamOf(gameSets.get(1));
+      swap(gameSets.get(0), gameSets.get(1));
+      return new BracketWrite()
+        .update(gameSets.get(0), new Update().pull("addedPlayerSets", new Document("_id", firstTeam.getId())))
+        .update(gameSets.get(0), new Update().push("addedPlayerSets", secondTeam))
+        .update(gameSets.get(1), new Update().pull("addedPlayerSets", new Document("_id", secondTeam.getId())))
+        .update(gameSets.get(1), new Update().push("addedPlayerSets", firstTeam));
+    });
+
+    // Verify
+    report("swapPlayers", savedBytes, updatedBytes);
+    Assertions.assertTrue(updatedBytes < savedBytes);
+  }
+
+  /**
+   * Make a change to a freshly loaded copy of the bracket, and count the bytes of the documents its write sends
+   */
+  private long measure(Function<Bracket, BracketWrite> change) {
+    mongoTemplate.dropCollection(BracketWriteQueue.JOURNAL_COLLECTION);
+    writeQueue.submit(bracketId, change.apply(bracketGraphLoader.findById(bracketId).get()));
+    var entry = mongoTemplate.findAll(Document.class, BracketWriteQueue.JOURNAL_COLLECTION).get(0);
+    return entry
+      .getList("writes", Document.class)
+      .stream()
+      .map(write -> write.get(write.containsKey("replace") ? "replace" : "update", Document.class))
+      .mapToLong(document -> new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining())
+      .sum();
+  }
+
+  /**
+   * First round game sets, which both start with teams added to them
+   */
+  private static List<GameSet> firstRound(Bracket bracket) {
+    return bracket
+      .getGameSets()
+      .stream()
+      .filter(gameSet -> gameSet.getAddedPlayerSets().size() == 2)
+      .sorted()
+      .toList();
+  }
+
+  private static PlayerSet firstTeamOf(GameSet gameSet) {
+    return gameSet.getAddedPlayerSets().stream().sorted((a, b) -> a.getId().compareTo(b.getId())).findFirst().get();
+  }
+
+  /**
+   * Swap the first team of each game set with each other
+   */
+  private static void swap(GameSet first, GameSet second) {
+    var firstTeam = firstTeamOf(first);
+    var secondTeam = firstTeamOf(second);
+    first.getAddedPlayerSets().remove(firstTeam);
+    first.getAddedPlayerSets().add(secondTeam);
+    second.getAddedPlayerSets().remove(secondTeam);
+    second.getAddedPlayerSets().add(firstTeam);
+  }
+
+  private static void report(String operation, long savedBytes, long updatedBytes) {
+    System.out.printf("%s: %d bytes saving documents, %d bytes updating fields%n", operation, savedBytes, updatedBytes);
+  }
+}
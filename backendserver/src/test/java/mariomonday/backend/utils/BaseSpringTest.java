@@ -1,11 +1,18 @@
 package mariomonday.backend.utils;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Clock;
 import mariomonday.backend.apis.BracketController;
+import mariomonday.backend.database.loaders.BracketGraphLoader;
 import mariomonday.backend.database.tables.BracketRepository;
+import mariomonday.backend.database.tables.BracketViewRepository;
 import mariomonday.backend.database.tables.GameRepository;
 import mariomonday.backend.database.tables.GameSetRepository;
 import mariomonday.backend.database.tables.PlayerRepository;
+import mariomonday.backend.database.tables.RatingChangeRepository;
+import mariomonday.backend.managers.BracketViewManager;
+import mariomonday.backend.managers.leaderboard.LeaderboardManager;
+import mariomonday.backend.managers.state.BracketStateEngine;
 import org.junit.jupiter.api.AfterEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -25,17 +32,43 @@ public class BaseSpringTest {
   @Autowired
   protected GameRepository gameRepository;
 
+  @Autowired
+  protected BracketViewRepository bracketViewRepository;
+
+  @Autowired
+  protected RatingChangeRepository ratingChangeRepository;
+
   @Autowired
   protected BracketController bracketController;
 
+  @Autowired
+  protected BracketGraphLoader bracketGraphLoader;
+
+  @Autowired
+  protected BracketViewManager bracketViewManager;
+
+  @Autowired
+  protected BracketStateEngine bracketStateEngine;
+
+  @Autowired
+  protected LeaderboardManager leaderboardManager;
+
+  @Autowired
+  protected ObjectMapper objectMapper;
+
   @Autowired
   protected Clock clock;
 
   @AfterEach
   public void cleanUp() {
+    bracketStateEngine.clear();
     playerRepository.deleteAll();
     bracketRepository.deleteAll();
     gameSetRepository.deleteAll();
     gameRepository.deleteAll();
+    bracketViewRepository.deleteAll();
+    ratingChangeRepository.deleteAll();
+    bracketViewManager.clearCache();
+    leaderboardManager.clear();
   }
 }